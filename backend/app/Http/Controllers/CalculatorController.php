@@ -6,6 +6,7 @@ use Illuminate\Http\Request;
 use Illuminate\Http\JsonResponse;
 use App\Models\Calculation;
 use App\Services\CalculatorService;
+use Illuminate\Support\Carbon;
 use Illuminate\Support\Facades\Validator;
 
 class CalculatorController extends Controller
@@ -72,6 +73,69 @@ class CalculatorController extends Controller
         }
     }
 
+    /**
+     * Perform a chain of calculations in one request
+     *
+     * Operations are evaluated and stored in order; a failed operation does not
+     * stop the rest of the batch and is reported by its index.
+     */
+    public function calculateBatch(Request $request): JsonResponse
+    {
+        $validator = Validator::make($request->all(), [
+            'operations' => 'required|array|min:1|max:100',
+            'operations.*.a' => 'required|numeric',
+            'operations.*.b' => 'required|numeric',
+            'operations.*.operation' => 'required|in:+,-,*,/',
+        ]);
+
+        if ($validator->fails()) {
+            return response()->json([
+                'success' => false,
+                'error' => 'Invalid input parameters',
+                'details' => $validator->errors()
+            ], 400);
+        }
+
+        $results = [];
+        $errors = [];
+        $rows = [];
+        $now = now();
+
+        foreach ($request->input('operations') as $index => $item) {
+            try {
+                $result = $this->calculatorService->calculate($item['a'], $item['b'], $item['operation']);
+                $results[] = $result;
+                $rows[] = [
+                    'a' => $item['a'],
+                    'b' => $item['b'],
+                    'operation' => $item['operation'],
+                    'result' => $result,
+                    'ip_address' => $request->ip(),
+                    'user_agent' => $request->userAgent(),
+                    'created_at' => $now,
+                    'updated_at' => $now,
+                ];
+            } catch (\Exception $e) {
+                $results[] = null;
+                $errors[] = [
+                    'index' => $index,
+                    'error' => $e->getMessage()
+                ];
+            }
+        }
+
+        // Save the whole chain to history with a single insert
+        if (!empty($rows)) {
+            Calculation::insert($rows);
+        }
+
+        return response()->json([
+            'success' => true,
+            'results' => $results,
+            'errors' => $errors
+        ]);
+    }
+
     /**
      * Get calculation history
      */
@@ -99,6 +163,65 @@ class CalculatorController extends Controller
         ]);
     }
 
+    /**
+     * Store calculations made offline on a device
+     *
+     * The body may be gzip-compressed (Content-Encoding: gzip). Every entry carries
+     * a client_id; entries that were already stored are skipped, so a client can
+     * safely resend a batch after a lost response.
+     */
+    public function syncHistory(Request $request): JsonResponse
+    {
+        $data = $request->all();
+        if ($request->header('Content-Encoding') === 'gzip') {
+            $body = @gzdecode($request->getContent());
+            $data = $body === false ? null : json_decode($body, true);
+        }
+
+        $validator = Validator::make(is_array($data) ? $data : [], [
+            'calculations' => 'required|array|min:1|max:100',
+            'calculations.*.client_id' => 'required|string|max:64',
+            'calculations.*.a' => 'required|numeric',
+            'calculations.*.b' => 'required|numeric',
+            'calculations.*.operation' => 'required|in:+,-,*,/',
+            'calculations.*.result' => 'required|numeric',
+            'calculations.*.timestamp' => 'required|integer|min:0',
+        ]);
+
+        if ($validator->fails()) {
+            return response()->json([
+                'success' => false,
+                'error' => 'Invalid input parameters',
+                'details' => $validator->errors()
+            ], 400);
+        }
+
+        $now = now();
+        $rows = [];
+        foreach ($data['calculations'] as $item) {
+            $rows[] = [
+                'client_id' => $item['client_id'],
+                'a' => $item['a'],
+                'b' => $item['b'],
+                'operation' => $item['operation'],
+                'result' => $item['result'],
+                'ip_address' => $request->ip(),
+                'user_agent' => $request->userAgent(),
+                'created_at' => Carbon::createFromTimestampMs($item['timestamp']),
+                'updated_at' => $now,
+            ];
+        }
+
+        // Rows with a known client_id are ignored by the unique index
+        $accepted = Calculation::insertOrIgnore($rows);
+
+        return response()->json([
+            'success' => true,
+            'accepted' => $accepted,
+            'duplicates' => count($rows) - $accepted
+        ]);
+    }
+
     /**
      * Clear calculation history
      */
@@ -10,6 +10,7 @@ class Calculation extends Model
     use HasFactory;
 
     protected $fillable = [
+        'client_id',
         'a',
         'b',
         'operation',
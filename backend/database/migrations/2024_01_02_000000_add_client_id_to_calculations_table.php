@@ -0,0 +1,31 @@
+<?php
+
+use Illuminate\Database\Migrations\Migration;
+use Illuminate\Database\Schema\Blueprint;
+use Illuminate\Support\Facades\Schema;
+
+return new class extends Migration
+{
+    /**
+     * Run the migrations.
+     */
+    public function up(): void
+    {
+        Schema::table('calculations', function (Blueprint $table) {
+            // Client-generated id of calculations synced from the device outbox;
+            // the unique index makes a retried batch idempotent
+            $table->string('client_id', 64)->nullable()->unique()->after('id');
+        });
+    }
+
+    /**
+     * Reverse the migrations.
+     */
+    public function down(): void
+    {
+        Schema::table('calculations', function (Blueprint $table) {
+            $table->dropUnique(['client_id']);
+            $table->dropColumn('client_id');
+        });
+    }
+};
@@ -22,13 +22,17 @@ Route::middleware('auth:sanctum')->get('/user', function (Request $request) {
 // Calculator API routes
 Route::prefix('calculator')->group(function () {
     Route::post('/calculate', [CalculatorController::class, 'calculate']);
+    Route::post('/calculate/batch', [CalculatorController::class, 'calculateBatch']);
     Route::get('/history', [CalculatorController::class, 'getHistory']);
     Route::delete('/history', [CalculatorController::class, 'clearHistory']);
+    Route::post('/history/sync', [CalculatorController::class, 'syncHistory']);
 });
 
 // Simplified routes for direct access
 Route::post('/calculate', [CalculatorController::class, 'calculate']);
+Route::post('/calculate/batch', [CalculatorController::class, 'calculateBatch']);
 Route::get('/history', [CalculatorController::class, 'getHistory']);
 Route::delete('/history', [CalculatorController::class, 'clearHistory']);
+Route::post('/history/sync', [CalculatorController::class, 'syncHistory']);
 Route::get('/operations', [CalculatorController::class, 'getSupportedOperations']);
 Route::get('/health', [CalculatorController::class, 'health']);
@@ -0,0 +1,16 @@
+# Отладочный журнал не нужен в release: R8 удаляет вызовы вместе с вычислением
+# аргументов, если у них нет других побочных эффектов. Работает только с оптимизацией
+# (proguard-android-optimize.txt в app/build.gradle).
+-assumenosideeffects class com.calculator.CalculatorLog {
+    static void d(...);
+}
+-assumenosideeffects class android.util.Log {
+    public static int v(...);
+    public static int d(...);
+}
+
+# Методы модулей и пропсы вызываются из JS по имени через отражение
+-keepclassmembers class * {
+    @com.facebook.react.bridge.ReactMethod <methods>;
+    @com.facebook.react.uimanager.annotations.ReactProp <methods>;
+}
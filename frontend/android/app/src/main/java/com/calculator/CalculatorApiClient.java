@@ -0,0 +1,43 @@
+package com.calculator;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.calculator.engine.metrics.MetricsRegistry;
+import com.calculator.engine.remote.HedgeStats;
+import com.calculator.engine.remote.RemoteCalculator;
+
+/**
+ * Общий для MainActivity и CalculatorLogic клиент Laravel API.
+ * Один пул потоков и одно keep-alive соединение на процесс.
+ */
+final class CalculatorApiClient {
+    static final String API_BASE_URL = "http://10.0.2.2:8000/api";
+
+    private static RemoteCalculator instance;
+    // Сверка локальных результатов с сервером со всех экранов процесса
+    private static final HedgeStats hedgeStats = new HedgeStats();
+    // Задержки локального, удаленного и мостового путей со всех экранов процесса
+    private static final MetricsRegistry metrics = new MetricsRegistry();
+
+    private CalculatorApiClient() {
+    }
+
+    static synchronized RemoteCalculator get() {
+        if (instance == null) {
+            // Результаты доставляются в главный поток, как раньше в onPostExecute
+            Handler mainHandler = new Handler(Looper.getMainLooper());
+            instance = new RemoteCalculator(API_BASE_URL, mainHandler::post);
+            instance.setMetrics(metrics);
+        }
+        return instance;
+    }
+
+    static HedgeStats hedgeStats() {
+        return hedgeStats;
+    }
+
+    static MetricsRegistry metrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,73 @@
+package com.calculator;
+
+import com.calculator.engine.number.Arithmetic;
+import com.calculator.engine.number.BigDecimalArithmetic;
+import com.calculator.engine.number.DoubleArithmetic;
+import com.calculator.engine.number.FixedDecimalArithmetic;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Числовой бэкенд локальных вычислений, общий для всех экранов процесса.
+ *
+ * "double" - прежнее поведение, "decimal" - фиксированное число знаков после точки,
+ * "bigdecimal" - заданное число значащих цифр.
+ */
+final class CalculatorArithmetic {
+    static final String MODE_DOUBLE = "double";
+    static final String MODE_DECIMAL = "decimal";
+    static final String MODE_BIG_DECIMAL = "bigdecimal";
+
+    private static final int DEFAULT_PRECISION = 34;
+
+    private static volatile Arithmetic current = DoubleArithmetic.INSTANCE;
+    private static volatile String mode = MODE_DOUBLE;
+    private static volatile int digits;
+
+    private CalculatorArithmetic() {
+    }
+
+    static Arithmetic get() {
+        return current;
+    }
+
+    /**
+     * Точный бэкенд: результат сервера (double) лишь подтверждает локальный, но не заменяет его.
+     */
+    static boolean isExact() {
+        return current != DoubleArithmetic.INSTANCE;
+    }
+
+    static String mode() {
+        return mode;
+    }
+
+    static int digits() {
+        return digits;
+    }
+
+    /**
+     * digits - знаки после точки для "decimal" или значащие цифры для "bigdecimal";
+     * 0 и меньше - значение по умолчанию.
+     */
+    static synchronized void set(String newMode, int newDigits) {
+        Arithmetic arithmetic;
+        int effectiveDigits;
+        if (MODE_DOUBLE.equals(newMode)) {
+            arithmetic = DoubleArithmetic.INSTANCE;
+            effectiveDigits = 0;
+        } else if (MODE_DECIMAL.equals(newMode)) {
+            effectiveDigits = newDigits > 0 ? newDigits : FixedDecimalArithmetic.DEFAULT_SCALE;
+            arithmetic = new FixedDecimalArithmetic(effectiveDigits, RoundingMode.HALF_EVEN);
+        } else if (MODE_BIG_DECIMAL.equals(newMode)) {
+            effectiveDigits = newDigits > 0 ? newDigits : DEFAULT_PRECISION;
+            arithmetic = new BigDecimalArithmetic(new MathContext(effectiveDigits, RoundingMode.HALF_EVEN));
+        } else {
+            throw new IllegalArgumentException("Unknown numeric mode: " + newMode);
+        }
+        mode = newMode;
+        digits = effectiveDigits;
+        current = arithmetic;
+    }
+}
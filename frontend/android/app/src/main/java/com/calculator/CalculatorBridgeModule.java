@@ -1,21 +1,66 @@
 package com.calculator;
 
+import com.calculator.engine.Operators;
+import com.calculator.engine.event.EventQueue;
+import com.calculator.engine.expression.CompiledExpression;
+import com.calculator.engine.expression.ExpressionCache;
+import com.calculator.engine.history.HistoryLog;
+import com.calculator.engine.history.HistoryPage;
+import com.calculator.engine.log.LogRing;
+import com.calculator.engine.metrics.LatencyHistogram;
+import com.calculator.engine.metrics.MetricsRegistry;
+import com.calculator.engine.number.Arithmetic;
+import com.calculator.engine.remote.CircuitBreaker;
+import com.calculator.engine.remote.HedgeStats;
+import com.calculator.engine.state.CalculatorStateStore;
+
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.Arguments;
-import com.facebook.react.modules.core.DeviceEventManagerModule;
 
+import android.util.Log;
 import android.widget.Toast;
 
 public class CalculatorBridgeModule extends ReactContextBaseJavaModule {
-    private static ReactApplicationContext reactContext;
+    private static final int EXPRESSION_CACHE_CAPACITY = 64;
+    private static final int MAX_HISTORY_PAGE = 500;
+    private static final String STATE_CHANGED_EVENT = "onDisplayValueChanged";
+    private static final double[] SNAPSHOT_PERCENTILES = {50, 90, 99};
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final ExpressionCache expressionCache = new ExpressionCache(EXPRESSION_CACHE_CAPACITY);
+    private final HistoryPage historyPage = new HistoryPage();
+    // Методы модуля выполняются в одном потоке native modules, результат переиспользуется
+    private final Arithmetic.Result arithmeticResult = new Arithmetic.Result();
+    private final MetricsRegistry metrics = CalculatorApiClient.metrics();
+    // Вызывается в главном потоке, где пишут дисплеи; в JS уходит только последний снимок за кадр
+    private final CalculatorStateStore.Listener stateListener =
+        snapshot -> CalculatorEventHub.postLatest(STATE_CHANGED_EVENT, stateMap(snapshot));
 
     CalculatorBridgeModule(ReactApplicationContext context) {
         super(context);
-        reactContext = context;
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        CalculatorEventHub.attach(getReactApplicationContext());
+        CalculatorState.get().addListener(stateListener);
+    }
+
+    // Экземпляр React уничтожен (перезагрузка JS, пересоздание контекста): хаб забывает контекст
+    @Override
+    public void invalidate() {
+        CalculatorState.get().removeListener(stateListener);
+        CalculatorEventHub.detach(getReactApplicationContext());
+        super.invalidate();
     }
 
     @Override
@@ -28,13 +73,12 @@ public class CalculatorBridgeModule extends ReactContextBaseJavaModule {
         Toast.makeText(getReactApplicationContext(), message, Toast.LENGTH_SHORT).show();
     }
 
+    // Current display of whichever native calculator (MainActivity or a NativeCalculator view)
+    // changed last; changes are also pushed as "onDisplayValueChanged" events
     @ReactMethod
     public void getNativeDisplayValue(Promise promise) {
         try {
-            // This would get the current display value from MainActivity
-            // For now, we'll return a placeholder
-            WritableMap result = Arguments.createMap();
-            result.putString("value", "0");
+            WritableMap result = stateMap(CalculatorState.get().get());
             result.putBoolean("success", true);
             promise.resolve(result);
         } catch (Exception e) {
@@ -42,31 +86,223 @@ public class CalculatorBridgeModule extends ReactContextBaseJavaModule {
         }
     }
 
+    private static WritableMap stateMap(CalculatorStateStore.Snapshot snapshot) {
+        WritableMap state = Arguments.createMap();
+        state.putString("value", snapshot.value);
+        state.putString("display", snapshot.display);
+        state.putString("operator", Operators.apiSymbol(snapshot.operator));
+        state.putBoolean("resultDisplayed", snapshot.resultDisplayed);
+        state.putString("source", CalculatorStateStore.sourceName(snapshot.source));
+        state.putDouble("version", snapshot.version);
+        return state;
+    }
+
     @ReactMethod
     public void performNativeCalculation(double a, double b, String operation, Promise promise) {
         try {
-            double result = 0;
-            switch (operation) {
-                case "+":
-                    result = a + b;
-                    break;
-                case "-":
-                    result = a - b;
-                    break;
-                case "*":
-                    result = a * b;
-                    break;
-                case "/":
-                    if (b != 0) {
-                        result = a / b;
+            long startedAt = System.nanoTime();
+            int operator = Operators.fromApiSymbol(operation);
+            if (operator == Operators.NONE) {
+                promise.reject("ERROR", "Invalid operation");
+                return;
+            }
+            String error = arithmeticError(CalculatorArithmetic.get().apply(operator, a, b, arithmeticResult));
+            if (error != null) {
+                metrics.increment(MetricsRegistry.COUNTER_LOCAL_ERRORS);
+                promise.reject("ERROR", error);
+                return;
+            }
+
+            WritableMap resultMap = Arguments.createMap();
+            resultMap.putDouble("result", arithmeticResult.value);
+            // Точная запись результата в десятичных режимах (в double 0.1 + 0.2 не равно 0.3)
+            resultMap.putString("text", arithmeticResult.text.toString());
+            resultMap.putBoolean("success", true);
+            metrics.record(MetricsRegistry.TIMER_NATIVE_MODULE, operator, System.nanoTime() - startedAt);
+            promise.resolve(resultMap);
+        } catch (Exception e) {
+            promise.reject("ERROR", e.getMessage());
+        }
+    }
+
+    // Пакетное вычисление за один переход через мост.
+    // Вход - плоский массив троек [a0, b0, op0, a1, b1, op1, ...],
+    // выход - массив результатов той же длины, что и число троек (null для ошибочных),
+    // и список ошибок {index, error} только для неудавшихся операций.
+    @ReactMethod
+    public void performNativeCalculationBatch(ReadableArray ops, Promise promise) {
+        try {
+            if (ops.size() % 3 != 0) {
+                promise.reject("ERROR", "Batch must contain [a, b, operation] triples");
+                return;
+            }
+            long startedAt = System.nanoTime();
+            int count = ops.size() / 3;
+            WritableArray results = Arguments.createArray();
+            WritableArray errors = Arguments.createArray();
+            Arithmetic arithmetic = CalculatorArithmetic.get();
+
+            for (int i = 0; i < count; i++) {
+                int base = i * 3;
+                String error = null;
+                double result = 0;
+                if (ops.getType(base) != ReadableType.Number || ops.getType(base + 1) != ReadableType.Number
+                        || ops.getType(base + 2) != ReadableType.String) {
+                    error = "Invalid operands";
+                } else {
+                    double a = ops.getDouble(base);
+                    double b = ops.getDouble(base + 1);
+                    int operator = Operators.fromApiSymbol(ops.getString(base + 2));
+                    if (operator == Operators.NONE) {
+                        error = "Invalid operation";
                     } else {
-                        promise.reject("ERROR", "Division by zero");
-                        return;
+                        error = arithmeticError(arithmetic.apply(operator, a, b, arithmeticResult));
+                        result = arithmeticResult.value;
                     }
-                    break;
-                default:
-                    promise.reject("ERROR", "Invalid operation");
+                }
+
+                if (error == null) {
+                    results.pushDouble(result);
+                } else {
+                    metrics.increment(MetricsRegistry.COUNTER_LOCAL_ERRORS);
+                    results.pushNull();
+                    WritableMap failure = Arguments.createMap();
+                    failure.putInt("index", i);
+                    failure.putString("error", error);
+                    errors.pushMap(failure);
+                }
+            }
+
+            WritableMap resultMap = Arguments.createMap();
+            resultMap.putArray("results", results);
+            resultMap.putArray("errors", errors);
+            resultMap.putBoolean("success", true);
+            // Пакет учитывается одной записью без операции: смешанные тройки не делятся по операторам
+            metrics.record(MetricsRegistry.TIMER_NATIVE_MODULE, Operators.NONE, System.nanoTime() - startedAt);
+            promise.resolve(resultMap);
+        } catch (Exception e) {
+            promise.reject("ERROR", e.getMessage());
+        }
+    }
+
+    static String arithmeticError(int status) {
+        switch (status) {
+            case Arithmetic.STATUS_OK: return null;
+            case Arithmetic.STATUS_DIVISION_BY_ZERO: return "Division by zero";
+            default: return "Invalid operands";
+        }
+    }
+
+    // "double", "decimal" (digits - знаков после точки) или "bigdecimal" (digits - значащих цифр);
+    // действует на нативный калькулятор и performNativeCalculation*
+    @ReactMethod
+    public void setNumericMode(String mode, int digits, Promise promise) {
+        try {
+            CalculatorArithmetic.set(mode, digits);
+            getNumericMode(promise);
+        } catch (IllegalArgumentException e) {
+            promise.reject("INVALID_INPUT", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void getNumericMode(Promise promise) {
+        WritableMap result = Arguments.createMap();
+        result.putString("mode", CalculatorArithmetic.mode());
+        result.putInt("digits", CalculatorArithmetic.digits());
+        promise.resolve(result);
+    }
+
+    // Частота и политика пачек событий для всех калькуляторов процесса:
+    // maxBatchesPerSecond 0 - раз в кадр; policy "dropSuperseded" (по умолчанию) или "keepAll"
+    @ReactMethod
+    public void setEventDispatchPolicy(int maxBatchesPerSecond, String policy, Promise promise) {
+        int value = EventQueue.policyForName(policy);
+        if (value < 0) {
+            promise.reject("INVALID_INPUT", "Unknown event policy: " + policy);
+            return;
+        }
+        CalculatorEventDispatcher.configure(maxBatchesPerSecond, value);
+        getEventDispatchPolicy(promise);
+    }
+
+    @ReactMethod
+    public void getEventDispatchPolicy(Promise promise) {
+        WritableMap result = Arguments.createMap();
+        result.putInt("maxBatchesPerSecond", CalculatorEventDispatcher.getMaxBatchesPerSecond());
+        result.putString("policy", EventQueue.policyName(CalculatorEventDispatcher.getPolicy()));
+        promise.resolve(result);
+    }
+
+    @ReactMethod
+    public void evaluateExpression(String expression, Promise promise) {
+        try {
+            CompiledExpression compiled = expressionCache.getOrCompile(expression);
+            if (compiled.getVariableCount() > 0) {
+                promise.reject("ERROR", "Unknown variable '" + compiled.getVariableName(0) + "'");
+                return;
+            }
+            double result = compiled.evaluate();
+            if (Double.isNaN(result) || Double.isInfinite(result)) {
+                promise.reject("ERROR", "Invalid calculation result");
+                return;
+            }
+
+            WritableMap resultMap = Arguments.createMap();
+            resultMap.putDouble("result", result);
+            resultMap.putBoolean("success", true);
+            promise.resolve(resultMap);
+        } catch (Exception e) {
+            promise.reject("ERROR", e.getMessage());
+        }
+    }
+
+    // Компиляция выражения с переменными для повторных вычислений через evaluateCompiled
+    @ReactMethod
+    public void compileExpression(String expression, Promise promise) {
+        try {
+            int handle = expressionCache.compile(expression);
+            CompiledExpression compiled = expressionCache.peek(handle);
+
+            WritableArray variables = Arguments.createArray();
+            for (int i = 0; i < compiled.getVariableCount(); i++) {
+                variables.pushString(compiled.getVariableName(i));
+            }
+
+            WritableMap resultMap = Arguments.createMap();
+            resultMap.putInt("handle", handle);
+            resultMap.putArray("variables", variables);
+            resultMap.putBoolean("success", true);
+            promise.resolve(resultMap);
+        } catch (Exception e) {
+            promise.reject("ERROR", e.getMessage());
+        }
+    }
+
+    @ReactMethod
+    public void evaluateCompiled(int handle, ReadableMap variables, Promise promise) {
+        try {
+            CompiledExpression compiled = expressionCache.get(handle);
+            if (compiled == null) {
+                // Выражение вытеснено из кэша, JS должен скомпилировать его заново
+                promise.reject("EVICTED", "Unknown expression handle: " + handle);
+                return;
+            }
+
+            double[] values = new double[compiled.getVariableCount()];
+            for (int i = 0; i < values.length; i++) {
+                String name = compiled.getVariableName(i);
+                if (variables == null || !variables.hasKey(name) || variables.isNull(name)) {
+                    promise.reject("ERROR", "Missing value for variable '" + name + "'");
                     return;
+                }
+                values[i] = variables.getDouble(name);
+            }
+
+            double result = compiled.evaluate(values);
+            if (Double.isNaN(result) || Double.isInfinite(result)) {
+                promise.reject("ERROR", "Invalid calculation result");
+                return;
             }
 
             WritableMap resultMap = Arguments.createMap();
@@ -78,10 +314,185 @@ public class CalculatorBridgeModule extends ReactContextBaseJavaModule {
         }
     }
 
-    // Method to send events to React Native
+    @ReactMethod
+    public void getExpressionCacheStats(Promise promise) {
+        WritableMap stats = Arguments.createMap();
+        stats.putDouble("hits", expressionCache.getHits());
+        stats.putDouble("misses", expressionCache.getMisses());
+        stats.putDouble("evictions", expressionCache.getEvictions());
+        stats.putInt("size", expressionCache.size());
+        stats.putInt("capacity", expressionCache.getCapacity());
+        promise.resolve(stats);
+    }
+
+    @ReactMethod
+    public void clearExpressionCache() {
+        expressionCache.clear();
+        expressionCache.resetStats();
+    }
+
+    @ReactMethod
+    public void getRemoteStatus(Promise promise) {
+        CircuitBreaker breaker = CalculatorApiClient.get().getCircuitBreaker();
+        WritableMap status = Arguments.createMap();
+        status.putString("state", CircuitBreaker.stateName(breaker.getState()));
+        status.putBoolean("available", breaker.isAvailable());
+        status.putInt("consecutiveFailures", breaker.getConsecutiveFailures());
+        promise.resolve(status);
+    }
+
+    @ReactMethod
+    public void getHedgeStats(Promise promise) {
+        HedgeStats hedgeStats = CalculatorApiClient.hedgeStats();
+        WritableMap stats = Arguments.createMap();
+        stats.putDouble("agreements", hedgeStats.getAgreements());
+        stats.putDouble("disagreements", hedgeStats.getDisagreements());
+        stats.putDouble("lateResponses", hedgeStats.getLateResponses());
+        stats.putDouble("failures", hedgeStats.getFailures());
+        stats.putDouble("meanLatencyMs", hedgeStats.getMeanLatencyMs());
+        stats.putDouble("maxLatencyMs", hedgeStats.getMaxLatencyMs());
+        promise.resolve(stats);
+    }
+
+    @ReactMethod
+    public void resetHedgeStats() {
+        CalculatorApiClient.hedgeStats().reset();
+    }
+
+    // Задержки по путям {count, meanMs, p50Ms, p90Ms, p99Ms, maxMs, operations: {"+": {...}}}
+    // и счетчики ошибок и откатов; операции без символа (пакеты, события) - под ключом "other"
+    @ReactMethod
+    public void getMetricsSnapshot(Promise promise) {
+        WritableMap timers = Arguments.createMap();
+        long[] percentiles = new long[SNAPSHOT_PERCENTILES.length];
+        for (int timer = 0; timer < MetricsRegistry.TIMER_COUNT; timer++) {
+            WritableMap summary = latencySummary(metrics.merged(timer), percentiles);
+            WritableMap operations = Arguments.createMap();
+            for (int operator = 0; operator < MetricsRegistry.operatorCount(); operator++) {
+                LatencyHistogram histogram = metrics.getHistogram(timer, operator);
+                if (histogram != null && histogram.getCount() > 0) {
+                    String key = operator == Operators.NONE ? "other" : Operators.apiSymbol(operator);
+                    operations.putMap(key, latencySummary(histogram, percentiles));
+                }
+            }
+            summary.putMap("operations", operations);
+            timers.putMap(MetricsRegistry.timerName(timer), summary);
+        }
+
+        WritableMap counters = Arguments.createMap();
+        for (int counter = 0; counter < MetricsRegistry.COUNTER_COUNT; counter++) {
+            counters.putDouble(MetricsRegistry.counterName(counter), metrics.getCounter(counter));
+        }
+
+        WritableMap snapshot = Arguments.createMap();
+        snapshot.putMap("timers", timers);
+        snapshot.putMap("counters", counters);
+        promise.resolve(snapshot);
+    }
+
+    private static WritableMap latencySummary(LatencyHistogram histogram, long[] percentiles) {
+        histogram.valuesAtPercentiles(SNAPSHOT_PERCENTILES, percentiles);
+        WritableMap summary = Arguments.createMap();
+        summary.putDouble("count", histogram.getCount());
+        summary.putDouble("meanMs", histogram.getMeanNanos() / NANOS_PER_MILLI);
+        summary.putDouble("p50Ms", percentiles[0] / NANOS_PER_MILLI);
+        summary.putDouble("p90Ms", percentiles[1] / NANOS_PER_MILLI);
+        summary.putDouble("p99Ms", percentiles[2] / NANOS_PER_MILLI);
+        summary.putDouble("maxMs", histogram.getMaxNanos() / NANOS_PER_MILLI);
+        return summary;
+    }
+
+    @ReactMethod
+    public void resetMetrics() {
+        metrics.reset();
+    }
+
+    // Последние события журнала приложения, от старых к новым, для отчета об ошибке
+    @ReactMethod
+    public void getRecentLogs(Promise promise) {
+        LogRing ring = CalculatorLog.recent();
+        WritableArray events = Arguments.createArray();
+        synchronized (ring) {
+            for (int i = 0; i < ring.size(); i++) {
+                WritableMap event = Arguments.createMap();
+                event.putDouble("time", ring.getTime(i));
+                event.putString("level", levelName(ring.getLevel(i)));
+                event.putString("tag", ring.getTag(i));
+                event.putString("message", ring.getMessage(i));
+                events.pushMap(event);
+            }
+        }
+        promise.resolve(events);
+    }
+
+    private static String levelName(int level) {
+        switch (level) {
+            case Log.DEBUG: return "debug";
+            case Log.INFO: return "info";
+            case Log.WARN: return "warn";
+            default: return "error";
+        }
+    }
+
+    // Page of the on-device history, newest first; offset counts from the newest entry
+    @ReactMethod
+    public void getNativeHistory(int offset, int limit, Promise promise) {
+        HistoryLog history = CalculatorHistory.get(getReactApplicationContext());
+        if (history == null) {
+            promise.reject("HISTORY_UNAVAILABLE", "History log could not be opened");
+            return;
+        }
+        if (offset < 0 || limit <= 0) {
+            promise.reject("INVALID_INPUT", "offset must be >= 0 and limit > 0");
+            return;
+        }
+
+        WritableArray entries = Arguments.createArray();
+        int total;
+        synchronized (historyPage) {
+            int count = history.readNewest(offset, Math.min(limit, MAX_HISTORY_PAGE), historyPage);
+            total = history.size();
+            for (int i = 0; i < count; i++) {
+                WritableMap entry = Arguments.createMap();
+                entry.putDouble("timestamp", historyPage.getTimestamp(i));
+                entry.putDouble("a", historyPage.getFirstOperand(i));
+                entry.putDouble("b", historyPage.getSecondOperand(i));
+                entry.putString("operation", Operators.apiSymbol(historyPage.getOperator(i)));
+                entry.putDouble("result", historyPage.getResult(i));
+                entries.pushMap(entry);
+            }
+        }
+
+        WritableMap response = Arguments.createMap();
+        response.putArray("entries", entries);
+        response.putInt("total", total);
+        promise.resolve(response);
+    }
+
+    @ReactMethod
+    public void clearNativeHistory(Promise promise) {
+        HistoryLog history = CalculatorHistory.get(getReactApplicationContext());
+        if (history != null) {
+            history.clear();
+        }
+        promise.resolve(null);
+    }
+
+    // NativeEventEmitter subscriptions; events are held until JS listens
+    @ReactMethod
+    public void addListener(String eventName) {
+        CalculatorEventHub.addListener();
+    }
+
+    @ReactMethod
+    public void removeListeners(int count) {
+        CalculatorEventHub.removeListeners(count);
+    }
+
+    // Events to React Native are batched per frame into one "calculatorEvents" emit:
+    // {events: [{type: eventName, payload}], dropped}; safe to call from any thread,
+    // dropped while no React instance is alive
     public static void sendEvent(String eventName, WritableMap params) {
-        reactContext
-            .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-            .emit(eventName, params);
+        CalculatorEventHub.post(eventName, params);
     }
 }
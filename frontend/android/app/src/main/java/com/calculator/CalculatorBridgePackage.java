@@ -5,6 +5,7 @@ import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.uimanager.ViewManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -12,9 +13,12 @@ public class CalculatorBridgePackage implements ReactPackage {
 
     @Override
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        return Arrays.<NativeModule>asList(
-            new CalculatorBridgeModule(reactContext)
-        );
+        List<NativeModule> modules = new ArrayList<>();
+        modules.add(new CalculatorBridgeModule(reactContext));
+        if (BuildConfig.SYNC_NATIVE_MODULE) {
+            modules.add(new CalculatorSyncModule(reactContext));
+        }
+        return modules;
     }
 
     @Override
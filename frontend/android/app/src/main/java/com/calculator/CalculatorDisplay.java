@@ -0,0 +1,85 @@
+package com.calculator;
+
+import android.view.Choreographer;
+import android.widget.TextView;
+
+import com.calculator.engine.CalculatorEngine;
+import com.calculator.engine.number.DisplayFormatter;
+import com.calculator.engine.state.CalculatorStateStore;
+
+import java.util.Locale;
+
+/**
+ * Дисплей калькулятора с обновлением раз в кадр.
+ *
+ * invalidate() только помечает дисплей устаревшим; текст форматируется и передается в
+ * TextView в ближайшем кадре Choreographer, так что серия нажатий между двумя vsync
+ * дает один setText и один проход layout. Показанное число публикуется в общий CalculatorState
+ * от имени source. Все методы вызываются из главного потока.
+ */
+final class CalculatorDisplay implements Choreographer.FrameCallback {
+    // Сколько символов результата помещается на дисплее до перехода к научной записи
+    private static final int MAX_WIDTH = 16;
+
+    private final TextView view;
+    private final CalculatorEngine engine;
+    private final int source;
+    private final DisplayFormatter formatter = DisplayFormatter.forLocale(Locale.getDefault(), MAX_WIDTH);
+    private boolean scheduled;
+    // Сообщение вместо числа ("Calculating..."); null - показывается значение движка
+    private CharSequence message;
+
+    /**
+     * source - CalculatorStateStore.SOURCE_*: чей дисплей попадет в общее состояние.
+     */
+    CalculatorDisplay(TextView view, CalculatorEngine engine, int source) {
+        this.view = view;
+        this.engine = engine;
+        this.source = source;
+    }
+
+    TextView getView() {
+        return view;
+    }
+
+    void invalidate() {
+        message = null;
+        schedule();
+    }
+
+    void showMessage(CharSequence text) {
+        message = text;
+        schedule();
+    }
+
+    /**
+     * Отменяет отложенное обновление, например когда view уничтожается.
+     */
+    void cancel() {
+        if (scheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            scheduled = false;
+        }
+    }
+
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        if (message != null) {
+            view.setText(message);
+            return;
+        }
+        // Оформленное число пишется в буфер форматтера и передается без промежуточной строки
+        formatter.format(engine.getDisplayChars(), engine.getDisplayLength(), engine.isResultDisplayed());
+        view.setText(formatter.getChars(), 0, formatter.length());
+        CalculatorState.get().publish(source, engine.getDisplayChars(), engine.getDisplayLength(),
+            formatter.getChars(), formatter.length(), engine.getOperator(), engine.isResultDisplayed());
+    }
+}
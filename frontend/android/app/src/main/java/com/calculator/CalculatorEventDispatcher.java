@@ -0,0 +1,124 @@
+package com.calculator;
+
+import android.view.Choreographer;
+
+import com.calculator.engine.Operators;
+import com.calculator.engine.event.EventQueue;
+import com.calculator.engine.metrics.MetricsRegistry;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отправка событий калькулятора в JS пачками, не чаще раза в кадр.
+ *
+ * dispatch() только ставит событие в очередь; в ближайшем кадре Choreographer (или позже, если
+ * задан предел частоты) все накопленное уходит одним событием {events: [...], dropped}.
+ * Результаты заменяемые: при политике dropSuperseded из серии результатов за кадр в JS попадает
+ * только последний, ошибки доставляются все. Политика и частота общие для процесса и задаются
+ * через configure(); остальные методы вызываются из главного потока. На паузе события
+ * копятся (при переполнении вытесняются самые старые) и уходят после снятия паузы.
+ */
+final class CalculatorEventDispatcher implements Choreographer.FrameCallback {
+    static final int KIND_RESULT = 0;
+    static final int KIND_ERROR = 1;
+    static final int KIND_EVENT = 2;
+    // Снимок состояния: как и результат, вытесняется более новым
+    static final int KIND_STATE = 3;
+
+    private static final int CAPACITY = 64;
+
+    interface Sink {
+        void emit(WritableMap batch);
+    }
+
+    // 0 - пачка в каждом кадре, в котором есть события
+    private static volatile int maxBatchesPerSecond;
+    private static volatile int policy = EventQueue.POLICY_DROP_SUPERSEDED;
+
+    private final EventQueue<WritableMap> queue = new EventQueue<>(CAPACITY);
+    private final Sink sink;
+    private boolean scheduled;
+    private boolean paused;
+
+    CalculatorEventDispatcher(Sink sink) {
+        this.sink = sink;
+    }
+
+    static void configure(int maxBatchesPerSecond, int policy) {
+        CalculatorEventDispatcher.maxBatchesPerSecond = Math.max(0, maxBatchesPerSecond);
+        CalculatorEventDispatcher.policy = policy;
+    }
+
+    static int getMaxBatchesPerSecond() {
+        return maxBatchesPerSecond;
+    }
+
+    static int getPolicy() {
+        return policy;
+    }
+
+    void dispatch(int kind, WritableMap event) {
+        queue.setPolicy(policy);
+        queue.offer(kind, kind == KIND_RESULT || kind == KIND_STATE, event);
+        if (!paused) {
+            schedule(0);
+        }
+    }
+
+    void setPaused(boolean paused) {
+        this.paused = paused;
+        if (!paused && queue.size() > 0) {
+            schedule(0);
+        }
+    }
+
+    /**
+     * Отбрасывает неотправленные события, например когда view уходит в пул или уничтожается.
+     */
+    void cancel() {
+        if (scheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            scheduled = false;
+        }
+        queue.clear();
+    }
+
+    private void schedule(long delayMillis) {
+        if (!scheduled) {
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallbackDelayed(this, delayMillis);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        if (paused || queue.size() == 0) {
+            return;
+        }
+        int rate = maxBatchesPerSecond;
+        queue.setMinIntervalNanos(rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0);
+        long delay = queue.delayNanos(frameTimeNanos);
+        if (delay > 0) {
+            schedule(TimeUnit.NANOSECONDS.toMillis(delay));
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        WritableArray events = Arguments.createArray();
+        for (int i = 0; i < queue.size(); i++) {
+            events.pushMap(queue.get(i));
+        }
+        WritableMap batch = Arguments.createMap();
+        batch.putArray("events", events);
+        batch.putInt("dropped", queue.getDropped());
+        queue.flushed(frameTimeNanos);
+        sink.emit(batch);
+        CalculatorApiClient.metrics().record(MetricsRegistry.TIMER_BRIDGE_EVENT, Operators.NONE,
+            System.nanoTime() - startedAt);
+    }
+}
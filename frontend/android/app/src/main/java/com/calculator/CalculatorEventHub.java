@@ -0,0 +1,104 @@
+package com.calculator;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+/**
+ * События модуля CalculatorBridge для JS ("calculatorEvents") с учетом жизненного цикла React.
+ *
+ * Хаб держит только текущий экземпляр: attach() из initialize() модуля, detach() из invalidate().
+ * Пока JS не подписался через NativeEventEmitter, события копятся в очереди пачки; после
+ * уничтожения экземпляра очередь сбрасывается, а новые события отбрасываются до следующего attach().
+ * Поэтому перезагрузка JS и пересоздание контекста не удерживают старый ReactApplicationContext.
+ * post() вызывается из любого потока; состояние хаба меняется только в главном.
+ */
+final class CalculatorEventHub {
+    private static final String TAG = "CalculatorEventHub";
+    private static final String DEVICE_EVENTS = "calculatorEvents";
+
+    private static final CalculatorEventDispatcher events = new CalculatorEventDispatcher(CalculatorEventHub::emit);
+    private static ReactApplicationContext context;
+    // Подписки JS на события модуля текущего экземпляра
+    private static int listenerCount;
+
+    static {
+        events.setPaused(true);
+    }
+
+    private CalculatorEventHub() {
+    }
+
+    static void attach(final ReactApplicationContext reactContext) {
+        UiThreadUtil.runOnUiThread(() -> {
+            context = reactContext;
+            listenerCount = 0;
+            events.setPaused(true);
+        });
+    }
+
+    static void detach(final ReactApplicationContext reactContext) {
+        UiThreadUtil.runOnUiThread(() -> {
+            // При перезагрузке новый экземпляр может подключиться раньше, чем уничтожен старый
+            if (context != reactContext) {
+                return;
+            }
+            context = null;
+            listenerCount = 0;
+            events.setPaused(true);
+            events.cancel();
+        });
+    }
+
+    static void addListener() {
+        UiThreadUtil.runOnUiThread(() -> {
+            listenerCount++;
+            events.setPaused(context == null);
+        });
+    }
+
+    static void removeListeners(final int count) {
+        UiThreadUtil.runOnUiThread(() -> {
+            listenerCount = Math.max(0, listenerCount - count);
+            if (listenerCount == 0) {
+                events.setPaused(true);
+            }
+        });
+    }
+
+    static void post(String eventName, WritableMap params) {
+        post(CalculatorEventDispatcher.KIND_EVENT, eventName, params);
+    }
+
+    /**
+     * Событие, из серии которых JS нужно только последнее (например, смена состояния дисплея).
+     */
+    static void postLatest(String eventName, WritableMap params) {
+        post(CalculatorEventDispatcher.KIND_STATE, eventName, params);
+    }
+
+    private static void post(final int kind, final String eventName, WritableMap params) {
+        final WritableMap event = Arguments.createMap();
+        event.putString("type", eventName);
+        event.putMap("payload", params);
+        UiThreadUtil.runOnUiThread(() -> {
+            if (context == null) {
+                CalculatorLog.d(TAG, "Event dropped without React instance: ", eventName);
+                return;
+            }
+            events.dispatch(kind, event);
+        });
+    }
+
+    private static void emit(WritableMap batch) {
+        ReactApplicationContext current = context;
+        if (current == null || !current.hasActiveReactInstance()) {
+            return;
+        }
+        current
+            .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+            .emit(DEVICE_EVENTS, batch);
+    }
+}
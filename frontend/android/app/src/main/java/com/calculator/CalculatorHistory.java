@@ -0,0 +1,134 @@
+package com.calculator;
+
+import android.content.Context;
+
+import com.calculator.engine.CalculationChain;
+import com.calculator.engine.history.HistoryLog;
+import com.calculator.engine.history.OutboxLog;
+import com.calculator.engine.remote.CalculatorCodec;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Общие для процесса журнал локальной истории (files/calculation_history.log)
+ * и очередь отправки на сервер (files/calculation_outbox.log).
+ *
+ * Файлы открываются и отображаются в память лениво, а записи из главного потока
+ * (record, enqueueUnsynced) выполняются в отдельном фоновом потоке по порядку.
+ */
+final class CalculatorHistory {
+    private static final String TAG = "CalculatorHistory";
+    private static final String FILE_NAME = "calculation_history.log";
+    private static final String OUTBOX_FILE_NAME = "calculation_outbox.log";
+
+    // Открытие файлов и запись из главного потока, строго по порядку
+    private static final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "calculator-history");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static HistoryLog history;
+    private static boolean historyOpenFailed;
+    private static OutboxLog outbox;
+    private static boolean outboxOpenFailed;
+
+    private CalculatorHistory() {
+    }
+
+    /**
+     * Журнал или null, если файл открыть не удалось: история не должна ломать вычисления.
+     * Открывает файл при первом вызове, поэтому не вызывается из главного потока.
+     */
+    static synchronized HistoryLog get(Context context) {
+        if (history == null && !historyOpenFailed) {
+            File file = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+            try {
+                history = HistoryLog.open(file);
+            } catch (IOException e) {
+                historyOpenFailed = true;
+                CalculatorLog.e(TAG, "Cannot open history log %s", file, e);
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Очередь отправки, уже подключенная к общему RemoteCalculator, или null. Как и get(), не для главного потока.
+     */
+    static synchronized OutboxLog outbox(Context context) {
+        if (outbox == null && !outboxOpenFailed) {
+            File file = new File(context.getApplicationContext().getFilesDir(), OUTBOX_FILE_NAME);
+            try {
+                outbox = OutboxLog.open(file);
+                CalculatorApiClient.get().attachOutbox(outbox);
+            } catch (IOException e) {
+                outboxOpenFailed = true;
+                CalculatorLog.e(TAG, "Cannot open outbox %s", file, e);
+            }
+        }
+        return outbox;
+    }
+
+    /**
+     * Открывает журнал и очередь в фоне, чтобы отправка накопленного началась без ожидания первой записи.
+     */
+    static void openAsync(Context context) {
+        final Context app = context.getApplicationContext();
+        io.execute(() -> {
+            get(app);
+            outbox(app);
+        });
+    }
+
+    static void record(Context context, final long timestampMillis, final double a, final int operator,
+                       final double b, final double result) {
+        final Context app = context.getApplicationContext();
+        io.execute(() -> {
+            HistoryLog log = get(app);
+            if (log == null) {
+                return;
+            }
+            try {
+                log.append(timestampMillis, a, operator, b, result);
+            } catch (IOException e) {
+                CalculatorLog.w(TAG, "Failed to append to history log", e);
+            }
+        });
+    }
+
+    /**
+     * Шаги, посчитанные локально вместо сервера: пишутся в очередь и уходят на сервер в фоне.
+     * steps должны быть копией, которую вызывающий код больше не меняет.
+     */
+    static void enqueueUnsynced(Context context, final CalculationChain steps) {
+        if (steps.size() == 0) {
+            return;
+        }
+        final Context app = context.getApplicationContext();
+        final long now = System.currentTimeMillis();
+        io.execute(() -> {
+            OutboxLog log = outbox(app);
+            if (log == null) {
+                return;
+            }
+            try {
+                for (int i = 0; i < steps.size(); i++) {
+                    // Бесконечность (например, 1e308 × 10) сервер не примет: такие шаги остаются только в истории
+                    if (!CalculatorCodec.isFinite(steps.getFirstOperand(i), steps.getSecondOperand(i),
+                            steps.getResult(i))) {
+                        continue;
+                    }
+                    log.append(now, steps.getFirstOperand(i), steps.getOperator(i),
+                        steps.getSecondOperand(i), steps.getResult(i));
+                }
+            } catch (IOException e) {
+                CalculatorLog.w(TAG, "Failed to append to outbox", e);
+            }
+            CalculatorApiClient.get().requestSync();
+        });
+    }
+}
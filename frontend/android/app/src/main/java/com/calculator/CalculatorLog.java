@@ -0,0 +1,163 @@
+package com.calculator;
+
+import android.util.Log;
+
+import com.calculator.engine.log.LogRing;
+
+import java.util.Locale;
+
+/**
+ * Журнал приложения поверх android.util.Log.
+ *
+ * Уровень проверяется до сборки сообщения: перегрузки d(tag, message, value) склеивают
+ * строку только для включенного уровня, а w()/e() с аргументами подставляют их в шаблон
+ * String.format так же после проверки, поэтому в горячем пути нет конкатенации. Для чисел
+ * есть перегрузки с примитивами, чтобы выключенный уровень не упаковывал аргументы.
+ * DEBUG - константа из BuildConfig.LOG_DEBUG: в release тела d() пусты, а блоки
+ * if (CalculatorLog.DEBUG) { ... } javac удаляет целиком; при включенном R8 вызовы d()
+ * вырезаются правилами из proguard-rules.pro.
+ *
+ * Записанные события остаются в кольцевом буфере для отчетов об ошибках.
+ */
+final class CalculatorLog {
+    static final boolean DEBUG = BuildConfig.LOG_DEBUG;
+
+    private static final int RING_CAPACITY = 256;
+    private static final LogRing ring = new LogRing(RING_CAPACITY);
+    private static volatile int minLevel = DEBUG ? Log.DEBUG : Log.INFO;
+
+    private CalculatorLog() {
+    }
+
+    static LogRing recent() {
+        return ring;
+    }
+
+    static boolean isLoggable(int level) {
+        return level >= minLevel;
+    }
+
+    static void setMinLevel(int level) {
+        minLevel = level;
+    }
+
+    static void d(String tag, String message) {
+        if (DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, tag, message, null);
+        }
+    }
+
+    static void d(String tag, String message, Object value) {
+        if (DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, tag, message + value, null);
+        }
+    }
+
+    static void d(String tag, String message, boolean value) {
+        if (DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, tag, message + value, null);
+        }
+    }
+
+    static void d(String tag, String message, int value) {
+        if (DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, tag, message + value, null);
+        }
+    }
+
+    static void d(String tag, String message, long value) {
+        if (DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, tag, message + value, null);
+        }
+    }
+
+    static void d(String tag, String message, double value) {
+        if (DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, tag, message + value, null);
+        }
+    }
+
+    // Значение с единицей измерения: d(TAG, "Keypad created in ", micros, " us")
+    static void d(String tag, String message, long value, String suffix) {
+        if (DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, tag, message + value + suffix, null);
+        }
+    }
+
+    static void i(String tag, String message) {
+        if (isLoggable(Log.INFO)) {
+            log(Log.INFO, tag, message, null);
+        }
+    }
+
+    static void w(String tag, String message) {
+        if (isLoggable(Log.WARN)) {
+            log(Log.WARN, tag, message, null);
+        }
+    }
+
+    static void w(String tag, String message, Throwable error) {
+        if (isLoggable(Log.WARN)) {
+            log(Log.WARN, tag, message, error);
+        }
+    }
+
+    static void w(String tag, String format, Object arg) {
+        if (isLoggable(Log.WARN)) {
+            log(Log.WARN, tag, format(format, arg), null);
+        }
+    }
+
+    static void w(String tag, String format, Object arg1, Object arg2) {
+        if (isLoggable(Log.WARN)) {
+            log(Log.WARN, tag, format(format, arg1, arg2), null);
+        }
+    }
+
+    static void w(String tag, String format, boolean arg1, boolean arg2) {
+        if (isLoggable(Log.WARN)) {
+            log(Log.WARN, tag, format(format, arg1, arg2), null);
+        }
+    }
+
+    static void w(String tag, String format, double arg1, double arg2, Object arg3) {
+        if (isLoggable(Log.WARN)) {
+            log(Log.WARN, tag, format(format, arg1, arg2, arg3), null);
+        }
+    }
+
+    static void e(String tag, String message, Throwable error) {
+        if (isLoggable(Log.ERROR)) {
+            log(Log.ERROR, tag, message, error);
+        }
+    }
+
+    static void e(String tag, String format, Object arg, Throwable error) {
+        if (isLoggable(Log.ERROR)) {
+            log(Log.ERROR, tag, format(format, arg), error);
+        }
+    }
+
+    private static String format(String format, Object... args) {
+        return String.format(Locale.ROOT, format, args);
+    }
+
+    private static void log(int level, String tag, String message, Throwable error) {
+        // В буфер попадает и тип исключения: стек ищется в logcat, а отчету нужна причина
+        ring.add(System.currentTimeMillis(), level, tag, error == null ? message : message + ": " + error);
+        switch (level) {
+            case Log.DEBUG:
+                Log.d(tag, message);
+                break;
+            case Log.INFO:
+                Log.i(tag, message);
+                break;
+            case Log.WARN:
+                Log.w(tag, message, error);
+                break;
+            default:
+                Log.e(tag, message, error);
+                break;
+        }
+    }
+}
@@ -3,319 +3,342 @@ package com.calculator;
 import android.content.Context;
 import android.widget.LinearLayout;
 import android.widget.TextView;
-import android.view.View;
-import android.util.Log;
-import android.os.AsyncTask;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import org.json.JSONObject;
-import org.json.JSONException;
+
+import com.calculator.engine.CalculationChain;
+import com.calculator.engine.CalculatorEngine;
+import com.calculator.engine.Keys;
+import com.calculator.engine.Operators;
+import com.calculator.engine.metrics.MetricsRegistry;
+import com.calculator.engine.remote.HedgeStats;
+import com.calculator.engine.remote.RemoteCalculator;
+import com.calculator.engine.state.CalculatorStateStore;
+
+import java.util.concurrent.TimeUnit;
 
 public class CalculatorLogic {
     private static final String TAG = "CalculatorLogic";
-    private static final String API_BASE_URL = "http://10.0.2.2:8000/api";
+    private static final long DEFAULT_HEDGE_BUDGET_MS = 2000;
     
     private Context context;
     private LinearLayout mainLayout;
     private NativeCalculatorViewManager viewManager;
     
     // Состояние калькулятора
-    private String currentInput = "0";
-    private String operator = "";
-    private double firstNumber = 0;
-    private boolean waitingForOperand = false;
+    private final CalculatorEngine engine = new CalculatorEngine();
+    // Ссылка на дисплей получена при создании view, поиск по дереву не нужен
+    private final CalculatorDisplay display;
     private boolean useAPI = true;
-
-    public CalculatorLogic(Context context, LinearLayout mainLayout, NativeCalculatorViewManager viewManager) {
+    // Промежуточные шаги цепочки считаются локально, на "=" вся цепочка уходит одним запросом
+    private boolean coalesceChainedRequests = true;
+    // Хеджирование: локальный результат показывается сразу, ответ API только сверяет его
+    private boolean hedgedMode = true;
+    private long hedgeBudgetMs = DEFAULT_HEDGE_BUDGET_MS;
+    private final HedgeStats hedgeStats = CalculatorApiClient.hedgeStats();
+    private final MetricsRegistry metrics = CalculatorApiClient.metrics();
+    private final CalculatorEventDispatcher events;
+    private final RemoteCalculator remote = CalculatorApiClient.get();
+    private final RemoteCalculator.Session remoteSession = remote.newSession();
+
+    public CalculatorLogic(Context context, LinearLayout mainLayout, TextView display,
+                           NativeCalculatorViewManager viewManager) {
         this.context = context;
         this.mainLayout = mainLayout;
+        this.display = new CalculatorDisplay(display, engine, CalculatorStateStore.SOURCE_NATIVE_VIEW);
         this.viewManager = viewManager;
-        Log.d(TAG, "CalculatorLogic initialized");
+        this.events = new CalculatorEventDispatcher(batch -> viewManager.emitEvents(mainLayout, batch));
+        CalculatorHistory.openAsync(context);
+        CalculatorLog.d(TAG, "CalculatorLogic initialized");
     }
 
     public void onButtonClick(String buttonText) {
-        Log.d(TAG, "Button clicked: " + buttonText);
-        
-        switch (buttonText) {
-            case "C":
-                clear();
-                break;
-            case "±":
-                toggleSign();
-                break;
-            case "⌫":
-                backspace();
-                break;
-            case ".":
-                inputDecimal();
+        CalculatorLog.d(TAG, "Button clicked: ", buttonText);
+        onKey(Keys.forLabel(buttonText));
+    }
+
+    // Горячий путь: кнопки передают заранее вычисленный код клавиши
+    public void onKey(int key) {
+        switch (engine.press(key)) {
+            case CalculatorEngine.ACTION_DISPLAY_CHANGED:
+                updateDisplay();
                 break;
-            case "=":
+            case CalculatorEngine.ACTION_EVALUATE:
                 calculate();
                 break;
-            case "+":
-            case "−":
-            case "×":
-            case "÷":
-                inputOperator(buttonText);
-                break;
-            default:
-                if (buttonText.matches("[0-9]")) {
-                    inputNumber(buttonText);
-                }
-                break;
         }
     }
 
-    private void inputNumber(String num) {
-        if (waitingForOperand) {
-            currentInput = num;
-            waitingForOperand = false;
-        } else {
-            currentInput = currentInput.equals("0") ? num : currentInput + num;
-        }
-        updateDisplay();
-    }
+    private void calculate() {
+        String expression = engine.pendingExpression();
 
-    private void inputDecimal() {
-        if (waitingForOperand) {
-            currentInput = "0.";
-            waitingForOperand = false;
-        } else if (!currentInput.contains(".")) {
-            currentInput += ".";
-        }
-        updateDisplay();
-    }
+        // Шаг цепочки уйдет на сервер вместе с "=" (или через очередь, если и "=" посчитан локально)
+        boolean deferred = coalesceChainedRequests && engine.isChainedEvaluation();
 
-    private void inputOperator(String op) {
-        if (!operator.isEmpty()) {
-            calculate();
-        }
-        
-        firstNumber = Double.parseDouble(currentInput);
-        operator = op;
-        waitingForOperand = true;
-    }
-
-    private void calculate() {
-        if (!operator.isEmpty()) {
-            double secondNumber = Double.parseDouble(currentInput);
-            String expression = firstNumber + " " + operator + " " + secondNumber;
-
-            if (useAPI) {
-                String apiOperator = convertOperatorForAPI(operator);
-                new CalculateTask(expression).execute(firstNumber, secondNumber, apiOperator);
-            } else {
-                calculateLocally(secondNumber, expression);
+        // Пока предохранитель открыт, считаем локально сразу, без ожидания таймаута
+        if (!useAPI || !remote.isAvailable() || deferred) {
+            if (useAPI && !deferred) {
+                metrics.increment(MetricsRegistry.COUNTER_LOCAL_FALLBACKS);
+            }
+            if (calculateLocally(expression) && !deferred) {
+                enqueueUnsynced(unsyncedSteps());
             }
+        } else if (hedgedMode) {
+            calculateHedged(expression);
+        } else {
+            calculateRemotely(expression);
         }
     }
 
-    private String convertOperatorForAPI(String displayOperator) {
-        switch (displayOperator) {
-            case "×": return "*";
-            case "÷": return "/";
-            case "+": return "+";
-            case "−": return "-";
-            default: return displayOperator;
-        }
-    }
+    private void calculateHedged(final String expression) {
+        final int evaluationId = engine.getEvaluationId();
+        double a = engine.getFirstOperand();
+        double b = engine.getSecondOperand();
+        String apiOperator = Operators.apiSymbol(engine.getOperator());
+        boolean batch = coalesceChainedRequests && engine.getChain().size() > 0;
 
-    private void calculateLocally(double secondNumber, String expression) {
-        double result = 0;
+        // Деление на ноль сервер отклонит так же, сверять нечего
+        if (!calculateLocally(expression)) {
+            return;
+        }
+        CalculationChain chain = engine.getChain();
+        final double localResult = chain.getResult(chain.size() - 1);
+        final long startedAt = System.nanoTime();
+        // Если сверка не дойдет до сервера, эти шаги сохранятся через очередь отправки.
+        // Сверка идет вне сессии: следующее "=" не отменит ее, и исход придет всегда
+        final CalculationChain unsynced = unsyncedSteps();
+
+        if (batch) {
+            remote.auditChain(chain, new RemoteCalculator.BatchCallback() {
+                @Override
+                public void onResults(double[] results) {
+                    onAuditResult(evaluationId, expression, localResult, results[results.length - 1], startedAt);
+                }
 
-        switch (operator) {
-            case "+":
-                result = firstNumber + secondNumber;
-                break;
-            case "−":
-                result = firstNumber - secondNumber;
-                break;
-            case "×":
-                result = firstNumber * secondNumber;
-                break;
-            case "÷":
-                if (secondNumber != 0) {
-                    result = firstNumber / secondNumber;
-                } else {
-                    viewManager.sendError(mainLayout, "Cannot divide by zero");
-                    return;
+                @Override
+                public void onFailure(String message) {
+                    hedgeStats.recordFailure();
+                    enqueueUnsynced(unsynced);
                 }
-                break;
+            });
+            return;
         }
 
-        currentInput = formatResult(result);
-        operator = "";
-        waitingForOperand = true;
-        updateDisplay();
+        remote.audit(a, b, apiOperator, new RemoteCalculator.Callback() {
+            @Override
+            public void onResult(double result) {
+                onAuditResult(evaluationId, expression, localResult, result, startedAt);
+            }
 
-        // Отправляем результат в React Native
-        viewManager.sendCalculationResult(mainLayout, expression, currentInput);
+            @Override
+            public void onFailure(String message) {
+                hedgeStats.recordFailure();
+                enqueueUnsynced(unsynced);
+            }
+        });
     }
 
-    // AsyncTask для работы с API
-    private class CalculateTask extends AsyncTask<Object, Void, String> {
-        private double firstNum;
-        private double secondNum;
-        private String operation;
-        private String expression;
-
-        CalculateTask(String expression) {
-            this.expression = expression;
+    private void onAuditResult(int evaluationId, String expression, double localResult, double remoteResult, long startedAt) {
+        long latencyNanos = System.nanoTime() - startedAt;
+        if (Double.isNaN(remoteResult)) {
+            hedgeStats.recordFailure();
+            return;
         }
-
-        @Override
-        protected void onPreExecute() {
-            super.onPreExecute();
-            updateDisplay("Calculating...");
+        if (latencyNanos > TimeUnit.MILLISECONDS.toNanos(hedgeBudgetMs)) {
+            hedgeStats.recordLate(latencyNanos);
+            return;
+        }
+        boolean agreed = HedgeStats.agree(localResult, remoteResult);
+        hedgeStats.recordAudit(agreed, latencyNanos);
+        // В десятичном режиме на дисплее точный локальный результат: double сервера его не заменяет
+        if (agreed || CalculatorArithmetic.isExact()) {
+            return;
+        }
+        CalculatorLog.w(TAG, "Remote result %s differs from local %s for %s", remoteResult, localResult, expression);
+        // Сервер - источник истины, но только пока пользователь не продолжил ввод
+        if (engine.reconcileResult(evaluationId, remoteResult)) {
+            updateDisplay();
+            viewManager.sendCalculationResult(mainLayout, expression, engine.getCurrentValue());
         }
+    }
 
-        @Override
-        protected String doInBackground(Object... params) {
-            firstNum = (Double) params[0];
-            secondNum = (Double) params[1];
-            operation = (String) params[2];
-
-            try {
-                JSONObject requestData = new JSONObject();
-                requestData.put("a", firstNum);
-                requestData.put("b", secondNum);
-                requestData.put("operation", operation);
-
-                URL url = new URL(API_BASE_URL + "/calculate");
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("POST");
-                connection.setRequestProperty("Content-Type", "application/json");
-                connection.setRequestProperty("Accept", "application/json");
-                connection.setDoOutput(true);
-                connection.setConnectTimeout(5000);
-                connection.setReadTimeout(5000);
-
-                try (OutputStream os = connection.getOutputStream()) {
-                    byte[] input = requestData.toString().getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
-                }
+    private void calculateRemotely(final String expression) {
+        updateDisplay("Calculating...");
+        // Ответ применяется, только если пользователь не продолжил ввод за время запроса
+        final int evaluationId = engine.getEvaluationId();
+
+        if (coalesceChainedRequests && engine.getChain().size() > 0) {
+            remoteSession.calculateChain(engine.getChain(), engine.getFirstOperand(), engine.getOperator(),
+                engine.getSecondOperand(), new RemoteCalculator.BatchCallback() {
+                    @Override
+                    public void onResults(double[] results) {
+                        onRemoteResult(evaluationId, expression, results[results.length - 1]);
+                    }
 
-                int responseCode = connection.getResponseCode();
-                BufferedReader reader;
-                if (responseCode >= 200 && responseCode < 300) {
-                    reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                } else {
-                    reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-                }
+                    @Override
+                    public void onFailure(String message) {
+                        onRemoteFailure(evaluationId, expression);
+                    }
+                });
+            return;
+        }
 
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
+        String apiOperator = Operators.apiSymbol(engine.getOperator());
+        remoteSession.calculate(engine.getFirstOperand(), engine.getSecondOperand(), apiOperator,
+            new RemoteCalculator.Callback() {
+                @Override
+                public void onResult(double result) {
+                    onRemoteResult(evaluationId, expression, result);
                 }
-                reader.close();
-
-                if (responseCode >= 200 && responseCode < 300) {
-                    JSONObject jsonResponse = new JSONObject(response.toString());
-                    if (jsonResponse.getBoolean("success")) {
-                        return String.valueOf(jsonResponse.getDouble("result"));
-                    } else {
-                        return "Error: " + jsonResponse.getString("error");
-                    }
-                } else {
-                    return "API Error: " + responseCode;
+
+                @Override
+                public void onFailure(String message) {
+                    onRemoteFailure(evaluationId, expression);
                 }
+            });
+    }
 
-            } catch (Exception e) {
-                return "Network Error: " + e.getMessage();
+    private void onRemoteResult(int evaluationId, String expression, double result) {
+        if (Double.isNaN(result)) {
+            // Сервер не смог вычислить последний шаг - повторяем локально ради сообщения об ошибке
+            if (engine.isEvaluationPending(evaluationId)) {
+                calculateLocally(expression);
+            }
+            return;
+        }
+        // В десятичном режиме double сервера только подтверждает вычисление, на дисплей идет точный результат
+        if (CalculatorArithmetic.isExact()) {
+            if (engine.isEvaluationPending(evaluationId)) {
+                calculateLocally(expression);
             }
+            return;
         }
+        if (!engine.completeEvaluation(evaluationId, result)) {
+            return;
+        }
+        recordHistory();
+        updateDisplay();
 
-        @Override
-        protected void onPostExecute(String result) {
-            super.onPostExecute(result);
-
-            if (result.startsWith("Error:") || result.startsWith("API Error:") || result.startsWith("Network Error:")) {
-                useAPI = false;
-                calculateLocally(secondNum, expression);
-            } else {
-                currentInput = formatResult(Double.parseDouble(result));
-                operator = "";
-                waitingForOperand = true;
-                updateDisplay();
+        // Отправляем результат в React Native
+        viewManager.sendCalculationResult(mainLayout, expression, engine.getCurrentValue());
+    }
 
-                // Отправляем результат в React Native
-                viewManager.sendCalculationResult(mainLayout, expression, currentInput);
-            }
+    private void onRemoteFailure(int evaluationId, String expression) {
+        if (!engine.isEvaluationPending(evaluationId)) {
+            return;
+        }
+        // API не отключаем: к нему вернет предохранитель после успешной проверки /health
+        metrics.increment(MetricsRegistry.COUNTER_LOCAL_FALLBACKS);
+        if (calculateLocally(expression)) {
+            enqueueUnsynced(unsyncedSteps());
         }
     }
 
-    private String formatResult(double result) {
-        if (result == (long) result) {
-            return String.valueOf((long) result);
-        } else {
-            return String.valueOf(result);
+    private boolean calculateLocally(String expression) {
+        int operator = engine.getOperator();
+        long startedAt = System.nanoTime();
+        switch (engine.evaluateLocally(CalculatorArithmetic.get())) {
+            case CalculatorEngine.STATUS_DIVISION_BY_ZERO:
+                metrics.increment(MetricsRegistry.COUNTER_LOCAL_ERRORS);
+                viewManager.sendError(mainLayout, "Cannot divide by zero");
+                return false;
+            case CalculatorEngine.STATUS_INVALID_NUMBER:
+                metrics.increment(MetricsRegistry.COUNTER_LOCAL_ERRORS);
+                viewManager.sendError(mainLayout, "Invalid number");
+                return false;
         }
+        recordHistory();
+        updateDisplay();
+        // Вычисление и постановка записи в журнал; отправка события в RN учитывается отдельно
+        metrics.record(MetricsRegistry.TIMER_CALCULATE_LOCAL, operator, System.nanoTime() - startedAt);
+
+        // Отправляем результат в React Native
+        viewManager.sendCalculationResult(mainLayout, expression, engine.getCurrentValue());
+        return true;
+    }
+
+    // Последний шаг цепочки - только что завершенное вычисление
+    private void recordHistory() {
+        CalculationChain chain = engine.getChain();
+        int last = chain.size() - 1;
+        CalculatorHistory.record(context, System.currentTimeMillis(), chain.getFirstOperand(last),
+            chain.getOperator(last), chain.getSecondOperand(last), chain.getResult(last));
+    }
+
+    // Шаги, которые сохранил бы запрос "=": вся цепочка при объединении запросов, иначе последний шаг
+    private CalculationChain unsyncedSteps() {
+        CalculationChain chain = engine.getChain();
+        return chain.copyFrom(coalesceChainedRequests ? 0 : chain.size() - 1);
+    }
+
+    private void enqueueUnsynced(CalculationChain steps) {
+        CalculatorHistory.enqueueUnsynced(context, steps);
     }
 
     public void clear() {
-        currentInput = "0";
-        operator = "";
-        waitingForOperand = false;
+        engine.clear();
         updateDisplay();
     }
 
-    private void toggleSign() {
-        if (!currentInput.equals("0")) {
-            currentInput = currentInput.startsWith("-") ? 
-                currentInput.substring(1) : "-" + currentInput;
-            updateDisplay();
-        }
+    /**
+     * Возвращает калькулятор к начальному состоянию перед повторным монтированием view:
+     * запрос в полете отменяется, ввод и цепочка очищаются, настройки - по умолчанию.
+     */
+    public void reset() {
+        remoteSession.cancel();
+        events.cancel();
+        engine.clear();
+        useAPI = true;
+        coalesceChainedRequests = true;
+        hedgedMode = true;
+        hedgeBudgetMs = DEFAULT_HEDGE_BUDGET_MS;
+        updateDisplay();
     }
 
-    private void backspace() {
-        if (currentInput.length() > 1) {
-            currentInput = currentInput.substring(0, currentInput.length() - 1);
-        } else {
-            currentInput = "0";
-        }
-        updateDisplay();
+    /**
+     * Окончательно отвязывает логику от view: ни ответ API, ни кадр дисплея ее уже не вызовут.
+     */
+    public void release() {
+        remoteSession.cancel();
+        display.cancel();
+        events.cancel();
     }
 
+    // Текст обновится в ближайшем кадре, сколько бы нажатий ни пришлось на этот кадр
     private void updateDisplay() {
-        updateDisplay(currentInput);
+        display.invalidate();
     }
 
     private void updateDisplay(String text) {
-        // Находим TextView дисплея в layout
-        TextView display = findDisplayView();
-        if (display != null) {
-            display.setText(text);
-        }
+        display.showMessage(text);
     }
 
-    private TextView findDisplayView() {
-        // Ищем TextView с тегом "display"
-        for (int i = 0; i < mainLayout.getChildCount(); i++) {
-            View child = mainLayout.getChildAt(i);
-            if (child instanceof TextView && "display".equals(child.getTag())) {
-                return (TextView) child;
-            }
-        }
-        return null;
+    CalculatorEventDispatcher getEvents() {
+        return events;
     }
 
     // Публичные методы для взаимодействия с React Native
     public String getCurrentValue() {
-        return currentInput;
+        return engine.getCurrentValue();
     }
 
     public void setValue(String value) {
-        currentInput = value;
+        engine.setValue(value);
         updateDisplay();
     }
 
     public void setUseAPI(boolean useAPI) {
         this.useAPI = useAPI;
     }
+
+    public void setCoalesceChainedRequests(boolean coalesceChainedRequests) {
+        this.coalesceChainedRequests = coalesceChainedRequests;
+    }
+
+    public void setHedgedMode(boolean hedgedMode) {
+        this.hedgedMode = hedgedMode;
+    }
+
+    // Ответ API позже бюджета только учитывается в статистике и не меняет дисплей
+    public void setHedgeBudgetMs(long hedgeBudgetMs) {
+        this.hedgeBudgetMs = hedgeBudgetMs;
+    }
 }
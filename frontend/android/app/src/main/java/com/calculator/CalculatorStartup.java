@@ -0,0 +1,107 @@
+package com.calculator;
+
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.calculator.engine.json.JsonWriter;
+import com.calculator.engine.startup.StartupTrace;
+
+import com.facebook.react.ReactInstanceManager;
+import com.facebook.react.bridge.ReactContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общая для процесса трасса холодного старта на SystemClock.elapsedRealtimeNanos().
+ *
+ * Отчет пишется в logcat под тегом "Startup" после первого кадра и после готовности React Native;
+ * если первый кадр вышел за бюджет - предупреждением.
+ */
+final class CalculatorStartup {
+    private static final String TAG = "Startup";
+    // Бюджет холодного старта: от запуска процесса до первого кадра калькулятора
+    private static final long FIRST_DRAW_BUDGET_MS = 1000;
+
+    private static final StartupTrace trace = new StartupTrace();
+    private static boolean reactReadyWatched;
+
+    static {
+        trace.setBudget(StartupTrace.PHASE_FIRST_DRAW, TimeUnit.MILLISECONDS.toNanos(FIRST_DRAW_BUDGET_MS));
+    }
+
+    private CalculatorStartup() {
+    }
+
+    static StartupTrace trace() {
+        return trace;
+    }
+
+    static void mark(int phase) {
+        if (trace.mark(phase, SystemClock.elapsedRealtimeNanos())
+                && (phase == StartupTrace.PHASE_FIRST_DRAW || phase == StartupTrace.PHASE_REACT_READY)) {
+            report();
+        }
+    }
+
+    /**
+     * Время запуска процесса известно системе только с Android 7.0; раньше отсчет идет от Application.onCreate.
+     */
+    static void markProcessStart() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            trace.mark(StartupTrace.PHASE_PROCESS_START,
+                TimeUnit.MILLISECONDS.toNanos(Process.getStartElapsedRealtime()));
+        }
+    }
+
+    static void watchFirstDraw(final View root) {
+        final ViewTreeObserver observer = root.getViewTreeObserver();
+        observer.addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            @Override
+            public void onDraw() {
+                mark(StartupTrace.PHASE_FIRST_DRAW);
+                // Снимать слушателя внутри onDraw нельзя - только после прохода отрисовки
+                final ViewTreeObserver.OnDrawListener listener = this;
+                root.post(() -> {
+                    if (observer.isAlive()) {
+                        observer.removeOnDrawListener(listener);
+                    }
+                });
+            }
+        });
+    }
+
+    static synchronized void watchReactReady(ReactInstanceManager manager) {
+        if (reactReadyWatched) {
+            return;
+        }
+        reactReadyWatched = true;
+        if (manager.getCurrentReactContext() != null) {
+            mark(StartupTrace.PHASE_REACT_READY);
+            return;
+        }
+        manager.addReactInstanceEventListener(new ReactInstanceManager.ReactInstanceEventListener() {
+            @Override
+            public void onReactContextInitialized(ReactContext context) {
+                mark(StartupTrace.PHASE_REACT_READY);
+                manager.removeReactInstanceEventListener(this);
+            }
+        });
+    }
+
+    static String report() {
+        JsonWriter writer = new JsonWriter(512);
+        trace.writeReport(writer);
+        String json = new String(writer.toByteArray(), StandardCharsets.UTF_8);
+        int overBudget = trace.firstOverBudget();
+        if (overBudget == StartupTrace.NO_PHASE) {
+            CalculatorLog.i(TAG, json);
+        } else {
+            CalculatorLog.w(TAG, "Startup over budget at %s: %s", StartupTrace.phaseName(overBudget), json);
+        }
+        return json;
+    }
+}
@@ -0,0 +1,18 @@
+package com.calculator;
+
+import com.calculator.engine.state.CalculatorStateStore;
+
+/**
+ * Состояние дисплея, общее для MainActivity, нативных калькуляторов в React Native и модуля
+ * CalculatorBridge. Пишут дисплеи в главном потоке, мост читает снимок из любого потока.
+ */
+final class CalculatorState {
+    private static final CalculatorStateStore store = new CalculatorStateStore();
+
+    private CalculatorState() {
+    }
+
+    static CalculatorStateStore get() {
+        return store;
+    }
+}
@@ -0,0 +1,61 @@
+package com.calculator;
+
+import com.calculator.engine.Operators;
+import com.calculator.engine.metrics.MetricsRegistry;
+import com.calculator.engine.number.Arithmetic;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Синхронные варианты чистых вычислений CalculatorBridge.
+ *
+ * Методы блокирующие: выполняются прямо в JS-потоке и возвращают результат без Promise и без
+ * перехода в поток native modules, поэтому здесь только арифметика без ввода-вывода и ожиданий.
+ * Модуль регистрируется, только если включен BuildConfig.SYNC_NATIVE_MODULE; асинхронные
+ * методы CalculatorBridge остаются как были.
+ */
+public class CalculatorSyncModule extends ReactContextBaseJavaModule {
+    // Все вызовы идут из JS-потока, результат переиспользуется
+    private final Arithmetic.Result arithmeticResult = new Arithmetic.Result();
+    private final MetricsRegistry metrics = CalculatorApiClient.metrics();
+
+    CalculatorSyncModule(ReactApplicationContext context) {
+        super(context);
+    }
+
+    @Override
+    public String getName() {
+        return "CalculatorSync";
+    }
+
+    // Тот же ответ, что у performNativeCalculation: {success, result, text} или {success: false, error}
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap calculateSync(double a, double b, String operation) {
+        long startedAt = System.nanoTime();
+        WritableMap resultMap = Arguments.createMap();
+        int operator = Operators.fromApiSymbol(operation);
+        if (operator == Operators.NONE) {
+            resultMap.putBoolean("success", false);
+            resultMap.putString("error", "Invalid operation");
+            return resultMap;
+        }
+        String error = CalculatorBridgeModule.arithmeticError(
+            CalculatorArithmetic.get().apply(operator, a, b, arithmeticResult));
+        if (error != null) {
+            metrics.increment(MetricsRegistry.COUNTER_LOCAL_ERRORS);
+            resultMap.putBoolean("success", false);
+            resultMap.putString("error", error);
+            return resultMap;
+        }
+
+        resultMap.putDouble("result", arithmeticResult.value);
+        resultMap.putString("text", arithmeticResult.text.toString());
+        resultMap.putBoolean("success", true);
+        metrics.record(MetricsRegistry.TIMER_NATIVE_MODULE, operator, System.nanoTime() - startedAt);
+        return resultMap;
+    }
+}
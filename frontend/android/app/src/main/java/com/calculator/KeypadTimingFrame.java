@@ -0,0 +1,61 @@
+package com.calculator;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+/**
+ * Обертка клавиатуры в отладочной сборке: суммирует время measure и layout клавиатуры
+ * до первой отрисовки и пишет его в лог. Так сравниваются KeypadView и прежнее дерево из Button.
+ */
+final class KeypadTimingFrame extends FrameLayout {
+    private static final String TAG = "KeypadTiming";
+
+    private final String label;
+    private long measureLayoutNanos;
+    private int passes;
+    private boolean reported;
+
+    /**
+     * @param label начало строки лога, например "KeypadView measure+layout before first draw: "
+     */
+    KeypadTimingFrame(Context context, View keypad, String label) {
+        super(context);
+        this.label = label;
+        addView(keypad, new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        long startedAt = SystemClock.elapsedRealtimeNanos();
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        count(startedAt);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        long startedAt = SystemClock.elapsedRealtimeNanos();
+        super.onLayout(changed, left, top, right, bottom);
+        count(startedAt);
+    }
+
+    private void count(long startedAt) {
+        if (!reported) {
+            measureLayoutNanos += SystemClock.elapsedRealtimeNanos() - startedAt;
+            passes++;
+        }
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        if (!reported) {
+            reported = true;
+            CalculatorLog.d(TAG, label, measureLayoutNanos / 1000, " us");
+            CalculatorLog.d(TAG, "measure/layout calls before first draw: ", passes);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.calculator;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Bundle;
+import android.util.DisplayMetrics;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import com.calculator.engine.Keys;
+
+import java.util.List;
+
+/**
+ * Клавиатура калькулятора одним View: клавиши рисуются на canvas, нажатие определяется
+ * по координатам, для TalkBack каждая клавиша - виртуальный узел доступности.
+ *
+ * Заменяет дерево из LinearLayout и ~25 Button с весами: один measure/layout вместо прохода
+ * по вложенным layout, и никаких объектов на клавишу, кроме строки подписи.
+ */
+public final class KeypadView extends View {
+    // Клавиша, которой нет в движке: переключение на React Native в MainActivity
+    public static final int KEY_REACT_NATIVE = 100;
+
+    public static final String[][] CALCULATOR_ROWS = {
+        {"C", "±", "%", "÷"},
+        {"7", "8", "9", "×"},
+        {"4", "5", "6", "−"},
+        {"1", "2", "3", "+"},
+        {"0", ".", "⌫", "="}
+    };
+
+    private static final int KEY_HEIGHT_DP = 56;
+    private static final int KEY_MARGIN_PX = 5;
+    private static final int KEY_COLOR = 0xFF333333;
+    private static final int KEY_PRESSED_COLOR = 0xFF555555;
+    private static final int TEXT_COLOR = 0xFFFFFFFF;
+    private static final int NO_KEY = -1;
+
+    public interface Listener {
+        void onKey(int key);
+    }
+
+    // Клавиши в параллельных массивах, по порядку рядов
+    private final String[] labels;
+    private final int[] keys;
+    private final int[] rowOf;
+    private final int[] columnOf;
+    private final int[] rowColumns;
+    private final float[] keyBounds;
+    private final int keyHeight;
+
+    private final Paint keyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF drawRect = new RectF();
+    private final AccessibilityHelper accessibility;
+
+    private Listener listener;
+    private int pressedIndex = NO_KEY;
+
+    public KeypadView(Context context, String[][] rows, float textSizeSp) {
+        super(context);
+        int count = 0;
+        for (String[] row : rows) {
+            count += row.length;
+        }
+        labels = new String[count];
+        keys = new int[count];
+        rowOf = new int[count];
+        columnOf = new int[count];
+        rowColumns = new int[rows.length];
+        keyBounds = new float[count * 4];
+        int index = 0;
+        for (int r = 0; r < rows.length; r++) {
+            rowColumns[r] = rows[r].length;
+            for (int c = 0; c < rows[r].length; c++) {
+                labels[index] = rows[r][c];
+                keys[index] = keyFor(rows[r][c]);
+                rowOf[index] = r;
+                columnOf[index] = c;
+                index++;
+            }
+        }
+
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        keyHeight = Math.round(KEY_HEIGHT_DP * metrics.density);
+        keyPaint.setColor(KEY_COLOR);
+        textPaint.setColor(TEXT_COLOR);
+        textPaint.setTextSize(textSizeSp * metrics.scaledDensity);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+
+        setClickable(true);
+        setFocusable(true);
+        accessibility = new AccessibilityHelper();
+        ViewCompat.setAccessibilityDelegate(this, accessibility);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    static int keyFor(String label) {
+        return "RN".equals(label) ? KEY_REACT_NATIVE : Keys.forLabel(label);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        int height = resolveSize(rowColumns.length * keyHeight + getPaddingTop() + getPaddingBottom(),
+            heightMeasureSpec);
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        // Границы клавиш считаются один раз на размер, onDraw и поиск нажатия только читают их
+        float left = getPaddingLeft();
+        float top = getPaddingTop();
+        float contentWidth = width - getPaddingLeft() - getPaddingRight();
+        float rowHeight = (float) (height - getPaddingTop() - getPaddingBottom()) / rowColumns.length;
+        for (int i = 0; i < labels.length; i++) {
+            float cellWidth = contentWidth / rowColumns[rowOf[i]];
+            keyBounds[i * 4] = left + columnOf[i] * cellWidth;
+            keyBounds[i * 4 + 1] = top + rowOf[i] * rowHeight;
+            keyBounds[i * 4 + 2] = keyBounds[i * 4] + cellWidth;
+            keyBounds[i * 4 + 3] = keyBounds[i * 4 + 1] + rowHeight;
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        float textOffset = (textPaint.descent() + textPaint.ascent()) / 2;
+        for (int i = 0; i < labels.length; i++) {
+            drawRect.set(keyBounds[i * 4] + KEY_MARGIN_PX, keyBounds[i * 4 + 1] + KEY_MARGIN_PX,
+                keyBounds[i * 4 + 2] - KEY_MARGIN_PX, keyBounds[i * 4 + 3] - KEY_MARGIN_PX);
+            keyPaint.setColor(i == pressedIndex ? KEY_PRESSED_COLOR : KEY_COLOR);
+            canvas.drawRect(drawRect, keyPaint);
+            canvas.drawText(labels[i], drawRect.centerX(), drawRect.centerY() - textOffset, textPaint);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                setPressedIndex(keyAt(event.getX(), event.getY()));
+                return pressedIndex != NO_KEY;
+            case MotionEvent.ACTION_MOVE:
+                // Палец ушел с клавиши - нажатие отменяется, как у Button
+                if (pressedIndex != NO_KEY && keyAt(event.getX(), event.getY()) != pressedIndex) {
+                    setPressedIndex(NO_KEY);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (pressedIndex != NO_KEY) {
+                    int index = pressedIndex;
+                    setPressedIndex(NO_KEY);
+                    performKeyClick(index);
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                setPressedIndex(NO_KEY);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // View может вернуться из пула: нажатие, оборванное откреплением, не должно остаться подсвеченным
+        pressedIndex = NO_KEY;
+    }
+
+    @Override
+    public boolean dispatchHoverEvent(MotionEvent event) {
+        return accessibility.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return accessibility.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        accessibility.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    private void performKeyClick(int index) {
+        playSoundEffect(SoundEffectConstants.CLICK);
+        accessibility.sendEventForVirtualView(index, AccessibilityEvent.TYPE_VIEW_CLICKED);
+        if (listener != null) {
+            listener.onKey(keys[index]);
+        }
+    }
+
+    private void setPressedIndex(int index) {
+        if (index != pressedIndex) {
+            pressedIndex = index;
+            invalidate();
+        }
+    }
+
+    private int keyAt(float x, float y) {
+        for (int i = 0; i < labels.length; i++) {
+            if (x >= keyBounds[i * 4] && x < keyBounds[i * 4 + 2]
+                    && y >= keyBounds[i * 4 + 1] && y < keyBounds[i * 4 + 3]) {
+                return i;
+            }
+        }
+        return NO_KEY;
+    }
+
+    // Подпись для TalkBack: символы операций читаются словами
+    private static String describe(int key, String label) {
+        switch (key) {
+            case Keys.DECIMAL: return "point";
+            case Keys.ADD: return "plus";
+            case Keys.SUBTRACT: return "minus";
+            case Keys.MULTIPLY: return "multiply";
+            case Keys.DIVIDE: return "divide";
+            case Keys.EQUALS: return "equals";
+            case Keys.CLEAR: return "clear";
+            case Keys.TOGGLE_SIGN: return "change sign";
+            case Keys.BACKSPACE: return "backspace";
+            case Keys.PERCENT: return "percent";
+            case KEY_REACT_NATIVE: return "React Native";
+            default: return label;
+        }
+    }
+
+    private final class AccessibilityHelper extends ExploreByTouchHelper {
+        private final Rect bounds = new Rect();
+
+        AccessibilityHelper() {
+            super(KeypadView.this);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int index = keyAt(x, y);
+            return index == NO_KEY ? INVALID_ID : index;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            for (int i = 0; i < labels.length; i++) {
+                virtualViewIds.add(i);
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            bounds.set((int) keyBounds[virtualViewId * 4], (int) keyBounds[virtualViewId * 4 + 1],
+                (int) keyBounds[virtualViewId * 4 + 2], (int) keyBounds[virtualViewId * 4 + 3]);
+            node.setBoundsInParent(bounds);
+            node.setContentDescription(describe(keys[virtualViewId], labels[virtualViewId]));
+            node.setClassName("android.widget.Button");
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                performKeyClick(virtualViewId);
+                return true;
+            }
+            return false;
+        }
+    }
+}
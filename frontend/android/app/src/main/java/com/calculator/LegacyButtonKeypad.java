@@ -0,0 +1,54 @@
+package com.calculator;
+
+import android.content.Context;
+import android.widget.Button;
+import android.widget.LinearLayout;
+
+/**
+ * Прежняя клавиатура: вложенные LinearLayout с Button на каждую клавишу и весами.
+ *
+ * Оставлена только для сравнения с {@link KeypadView} на устройстве: включается флагом
+ * BuildConfig.LEGACY_BUTTON_KEYPAD, время создания и первой разметки пишется в лог.
+ */
+final class LegacyButtonKeypad {
+    private LegacyButtonKeypad() {
+    }
+
+    static LinearLayout create(Context context, String[][] rows, float textSizeSp, KeypadView.Listener listener) {
+        LinearLayout buttonLayout = new LinearLayout(context);
+        buttonLayout.setOrientation(LinearLayout.VERTICAL);
+        for (String[] row : rows) {
+            buttonLayout.addView(createButtonRow(context, row, textSizeSp, listener));
+        }
+        return buttonLayout;
+    }
+
+    private static LinearLayout createButtonRow(Context context, String[] buttons, float textSizeSp,
+                                                KeypadView.Listener listener) {
+        LinearLayout row = new LinearLayout(context);
+        row.setOrientation(LinearLayout.HORIZONTAL);
+        for (String buttonText : buttons) {
+            row.addView(createButton(context, buttonText, textSizeSp, listener));
+        }
+        return row;
+    }
+
+    private static Button createButton(Context context, String text, float textSizeSp,
+                                       final KeypadView.Listener listener) {
+        Button button = new Button(context);
+        button.setText(text);
+        button.setTextSize(textSizeSp);
+        button.setTextColor(0xFFFFFFFF);
+        button.setBackgroundColor(0xFF333333);
+
+        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
+            0, LinearLayout.LayoutParams.WRAP_CONTENT, 1.0f);
+        params.setMargins(5, 5, 5, 5);
+        button.setLayoutParams(params);
+
+        // Код клавиши вычисляем один раз при создании кнопки
+        final int key = KeypadView.keyFor(text);
+        button.setOnClickListener(v -> listener.onKey(key));
+        return button;
+    }
+}
@@ -5,19 +5,18 @@ import android.app.Activity;
 import androidx.appcompat.app.AppCompatActivity;
 import android.widget.LinearLayout;
 import android.widget.TextView;
-import android.widget.Button;
 import android.view.View;
 import android.widget.Toast;
-import android.os.AsyncTask;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import org.json.JSONObject;
-import org.json.JSONException;
+
+import com.calculator.engine.CalculationChain;
+import com.calculator.engine.CalculatorEngine;
+import com.calculator.engine.Keys;
+import com.calculator.engine.Operators;
+import com.calculator.engine.metrics.MetricsRegistry;
+import com.calculator.engine.remote.CircuitBreaker;
+import com.calculator.engine.remote.RemoteCalculator;
+import com.calculator.engine.startup.StartupTrace;
+import com.calculator.engine.state.CalculatorStateStore;
 
 import com.facebook.react.ReactActivity;
 import com.facebook.react.ReactActivityDelegate;
@@ -28,17 +27,22 @@ import com.facebook.react.ReactInstanceManager;
 import com.facebook.react.ReactApplication;
 import com.facebook.react.ReactNativeHost;
 import com.facebook.react.common.LifecycleState;
-import android.util.Log;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.Arrays;
 
 public class MainActivity extends Activity {
     private static final String TAG = "MainActivity";
-    private TextView display;
-    private String currentInput = "0";
-    private String operator = "";
-    private double firstNumber = 0;
-    private boolean waitingForOperand = false;
+    private CalculatorDisplay display;
+    private final CalculatorEngine engine = new CalculatorEngine();
     private boolean useAPI = true; // Флаг для использования API
-    private static final String API_BASE_URL = "http://10.0.2.2:8000/api";
+    private boolean coalesceChainedRequests = true; // Цепочку операторов отправляем одним запросом на "="
+    private final RemoteCalculator remote = CalculatorApiClient.get();
+    private final MetricsRegistry metrics = CalculatorApiClient.metrics();
+    private final RemoteCalculator.Session remoteSession = remote.newSession();
+    private final CircuitBreaker.StateListener remoteStateListener = this::onRemoteStateChanged;
     private ReactRootView mReactRootView;
     private ReactInstanceManager mReactInstanceManager;
     private boolean reactNativeInitialized = false;
@@ -47,17 +51,18 @@ public class MainActivity extends Activity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
-        Log.d(TAG, "onCreate: Starting MainActivity creation");
+        CalculatorLog.d(TAG, "onCreate: Starting MainActivity creation");
         super.onCreate(savedInstanceState);
-        Log.d(TAG, "onCreate: Super.onCreate() completed");
+        CalculatorStartup.mark(StartupTrace.PHASE_ACTIVITY_CREATE);
+        CalculatorLog.d(TAG, "onCreate: Super.onCreate() completed");
         
         // Create main layout
-        Log.d(TAG, "onCreate: Creating main layout");
+        CalculatorLog.d(TAG, "onCreate: Creating main layout");
         mainLayout = new LinearLayout(this);
         mainLayout.setOrientation(LinearLayout.VERTICAL);
         mainLayout.setPadding(20, 20, 20, 20);
         mainLayout.setBackgroundColor(0xFF1a1a1a);
-        Log.d(TAG, "onCreate: Main layout created");
+        CalculatorLog.d(TAG, "onCreate: Main layout created");
         
         // Create title
         TextView title = new TextView(this);
@@ -67,109 +72,134 @@ public class MainActivity extends Activity {
         title.setPadding(0, 0, 0, 30);
         
         // Create display
-        display = new TextView(this);
-        display.setText(currentInput);
-        display.setTextSize(32);
-        display.setTextColor(0xFFFFFFFF);
-        display.setPadding(20, 20, 20, 20);
-        display.setBackgroundColor(0xFF000000);
-        display.setGravity(android.view.Gravity.END);
-        
-        // Create buttons
-        LinearLayout buttonLayout = new LinearLayout(this);
-        buttonLayout.setOrientation(LinearLayout.VERTICAL);
-        
-        // Row 1: C, ±, %, ÷
-        buttonLayout.addView(createButtonRow(new String[]{"C", "±", "%", "÷"}));
-        
-        // Row 2: 7, 8, 9, ×
-        buttonLayout.addView(createButtonRow(new String[]{"7", "8", "9", "×"}));
-        
-        // Row 3: 4, 5, 6, −
-        buttonLayout.addView(createButtonRow(new String[]{"4", "5", "6", "−"}));
-        
-        // Row 4: 1, 2, 3, +
-        buttonLayout.addView(createButtonRow(new String[]{"1", "2", "3", "+"}));
-        
-        // Row 5: 0, ., ⌫, =
-        buttonLayout.addView(createButtonRow(new String[]{"0", ".", "⌫", "="}));
+        TextView displayView = new TextView(this);
+        displayView.setTextSize(32);
+        displayView.setTextColor(0xFFFFFFFF);
+        displayView.setPadding(20, 20, 20, 20);
+        displayView.setBackgroundColor(0xFF000000);
+        displayView.setGravity(android.view.Gravity.END);
+        display = new CalculatorDisplay(displayView, engine, CalculatorStateStore.SOURCE_ACTIVITY);
+        updateDisplay();
         
-        // Row 6: RN button for React Native
-        buttonLayout.addView(createButtonRow(new String[]{"RN"}));
+        // Create keypad: все клавиши рисуются одним View, плюс ряд с кнопкой RN
+        long keypadStart = SystemClock.elapsedRealtimeNanos();
+        String[][] rows = Arrays.copyOf(KeypadView.CALCULATOR_ROWS, KeypadView.CALCULATOR_ROWS.length + 1);
+        rows[rows.length - 1] = new String[]{"RN"};
+        View keypad;
+        if (BuildConfig.LEGACY_BUTTON_KEYPAD) {
+            // Прежнее дерево из Button: только для сравнения времени создания и разметки
+            keypad = LegacyButtonKeypad.create(this, rows, 20, this::onKeypadKey);
+            CalculatorLog.d(TAG, "onCreate: Button keypad created in ",
+                (SystemClock.elapsedRealtimeNanos() - keypadStart) / 1000, " us");
+        } else {
+            KeypadView keypadView = new KeypadView(this, rows, 20);
+            keypadView.setListener(this::onKeypadKey);
+            keypad = keypadView;
+            CalculatorLog.d(TAG, "onCreate: Keypad created in ",
+                (SystemClock.elapsedRealtimeNanos() - keypadStart) / 1000, " us");
+        }
+        if (CalculatorLog.DEBUG) {
+            keypad = new KeypadTimingFrame(this, keypad, BuildConfig.LEGACY_BUTTON_KEYPAD
+                ? "Button keypad measure+layout before first draw: "
+                : "Keypad measure+layout before first draw: ");
+        }
         
         // React Native component will be created later if needed
-        Log.d(TAG, "onCreate: React Native component creation deferred");
+        CalculatorLog.d(TAG, "onCreate: React Native component creation deferred");
         mReactRootView = null;
         
-        Log.d(TAG, "onCreate: Adding views to layout");
+        CalculatorLog.d(TAG, "onCreate: Adding views to layout");
         mainLayout.addView(title);
-        mainLayout.addView(display);
-        mainLayout.addView(buttonLayout);
+        mainLayout.addView(displayView);
+        mainLayout.addView(keypad);
         
         // React Native component will be added later when RN button is pressed
-        Log.d(TAG, "onCreate: React Native component will be added on demand");
+        CalculatorLog.d(TAG, "onCreate: React Native component will be added on demand");
         
-        Log.d(TAG, "onCreate: All views added to layout");
+        CalculatorLog.d(TAG, "onCreate: All views added to layout");
         
-        Log.d(TAG, "onCreate: Setting content view");
+        CalculatorLog.d(TAG, "onCreate: Setting content view");
         setContentView(mainLayout);
-        Log.d(TAG, "onCreate: MainActivity creation completed successfully");
+        CalculatorStartup.mark(StartupTrace.PHASE_LAYOUT_BUILT);
+        CalculatorStartup.watchFirstDraw(mainLayout);
+        remote.addStateListener(remoteStateListener);
+        scheduleReactNativePrewarm();
+        CalculatorLog.d(TAG, "onCreate: MainActivity creation completed successfully");
+    }
+
+    /**
+     * Прогрев React Native откладывается до первого кадра и первой паузы главного потока,
+     * чтобы не конкурировать с показом калькулятора.
+     */
+    private void scheduleReactNativePrewarm() {
+        if (!BuildConfig.PREWARM_REACT_NATIVE || !(getApplication() instanceof MainApplication)) {
+            return;
+        }
+        final MainApplication application = (MainApplication) getApplication();
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos ->
+            Looper.myQueue().addIdleHandler(() -> {
+                if (!isFinishing()) {
+                    CalculatorLog.d(TAG, "scheduleReactNativePrewarm: Main thread idle after first frame, prewarming");
+                    application.prewarmReactNative();
+                }
+                return false;
+            }));
     }
 
     private void initializeReactNative() {
         if (reactNativeInitialized) {
-            Log.d(TAG, "initializeReactNative: Already initialized, returning");
+            CalculatorLog.d(TAG, "initializeReactNative: Already initialized, returning");
             return;
         }
         
-        Log.d(TAG, "initializeReactNative: Starting React Native initialization");
+        CalculatorLog.d(TAG, "initializeReactNative: Starting React Native initialization");
         
         // Try to initialize React Native properly
         try {
             // Check if application is ReactApplication
             if (!(getApplication() instanceof ReactApplication)) {
-                Log.w(TAG, "initializeReactNative: Application is not ReactApplication");
+                CalculatorLog.w(TAG, "initializeReactNative: Application is not ReactApplication");
                 // Create fallback view
                 createFallbackView();
                 return;
             }
             
-            Log.d(TAG, "initializeReactNative: Creating ReactRootView");
+            CalculatorLog.d(TAG, "initializeReactNative: Creating ReactRootView");
             mReactRootView = new ReactRootView(this);
-            Log.d(TAG, "initializeReactNative: ReactRootView created successfully");
+            CalculatorLog.d(TAG, "initializeReactNative: ReactRootView created successfully");
             
-            Log.d(TAG, "initializeReactNative: Getting ReactInstanceManager");
+            CalculatorLog.d(TAG, "initializeReactNative: Getting ReactInstanceManager");
             ReactApplication reactApp = (ReactApplication) getApplication();
-            Log.d(TAG, "initializeReactNative: ReactApplication cast successful");
+            CalculatorLog.d(TAG, "initializeReactNative: ReactApplication cast successful");
             
             ReactNativeHost reactNativeHost = reactApp.getReactNativeHost();
-            Log.d(TAG, "initializeReactNative: ReactNativeHost obtained");
+            CalculatorLog.d(TAG, "initializeReactNative: ReactNativeHost obtained");
             
-            Log.d(TAG, "initializeReactNative: Getting ReactInstanceManager from ReactNativeHost");
+            CalculatorLog.d(TAG, "initializeReactNative: Getting ReactInstanceManager from ReactNativeHost");
             mReactInstanceManager = getReactInstanceManagerSafely(reactNativeHost);
             if (mReactInstanceManager == null) {
-                Log.w(TAG, "initializeReactNative: ReactInstanceManager is null, using fallback");
+                CalculatorLog.w(TAG, "initializeReactNative: ReactInstanceManager is null, using fallback");
                 createFallbackView();
                 return;
             }
-            Log.d(TAG, "initializeReactNative: ReactInstanceManager obtained successfully");
+            CalculatorLog.d(TAG, "initializeReactNative: ReactInstanceManager obtained successfully");
+            CalculatorStartup.watchReactReady(mReactInstanceManager);
             
-            Log.d(TAG, "initializeReactNative: Starting React Native application");
+            CalculatorLog.d(TAG, "initializeReactNative: Starting React Native application");
             // Start React Native component
             mReactRootView.startReactApplication(mReactInstanceManager, "CalculatorFrontend", null);
-            Log.d(TAG, "initializeReactNative: React Native application started successfully");
+            CalculatorLog.d(TAG, "initializeReactNative: React Native application started successfully");
+            applyReactRootLayoutParams();
             
             reactNativeInitialized = true;
-            Log.d(TAG, "initializeReactNative: React Native initialized successfully");
+            CalculatorLog.d(TAG, "initializeReactNative: React Native initialized successfully");
             
         } catch (Exception e) {
-            Log.e(TAG, "initializeReactNative: Error initializing React Native", e);
-            Log.e(TAG, "initializeReactNative: Exception details: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-            e.printStackTrace();
+            CalculatorLog.e(TAG, "initializeReactNative: Error initializing React Native", e);
             
             // Check if it's a Hermes-related error
             if (e.getMessage() != null && e.getMessage().contains("libhermes.so")) {
-                Log.w(TAG, "initializeReactNative: Hermes library not found, using fallback view");
+                CalculatorLog.w(TAG, "initializeReactNative: Hermes library not found, using fallback view");
                 Toast.makeText(this, "React Native недоступен (Hermes error), используется fallback", Toast.LENGTH_LONG).show();
             } else {
                 Toast.makeText(this, "React Native недоступен: " + e.getMessage(), Toast.LENGTH_LONG).show();
@@ -182,32 +212,32 @@ public class MainActivity extends Activity {
     
     private ReactInstanceManager getReactInstanceManagerSafely(ReactNativeHost reactNativeHost) {
         try {
-            Log.d(TAG, "getReactInstanceManagerSafely: Attempting to get ReactInstanceManager");
+            CalculatorLog.d(TAG, "getReactInstanceManagerSafely: Attempting to get ReactInstanceManager");
             return reactNativeHost.getReactInstanceManager();
         } catch (UnsatisfiedLinkError hermesError) {
-            Log.e(TAG, "getReactInstanceManagerSafely: Hermes library error caught", hermesError);
+            CalculatorLog.e(TAG, "getReactInstanceManagerSafely: Hermes library error caught", hermesError);
             if (hermesError.getMessage() != null && hermesError.getMessage().contains("libhermes.so")) {
-                Log.w(TAG, "getReactInstanceManagerSafely: Hermes library not found");
+                CalculatorLog.w(TAG, "getReactInstanceManagerSafely: Hermes library not found");
                 Toast.makeText(this, "React Native недоступен (Hermes error), используется fallback", Toast.LENGTH_LONG).show();
                 return null;
             } else {
-                Log.e(TAG, "getReactInstanceManagerSafely: Other UnsatisfiedLinkError", hermesError);
+                CalculatorLog.e(TAG, "getReactInstanceManagerSafely: Other UnsatisfiedLinkError", hermesError);
                 throw hermesError; // Re-throw if it's not a Hermes error
             }
         } catch (Exception e) {
-            Log.e(TAG, "getReactInstanceManagerSafely: Other error", e);
+            CalculatorLog.e(TAG, "getReactInstanceManagerSafely: Other error", e);
             throw e; // Re-throw other exceptions
         }
     }
     
     private void createFallbackView() {
-        Log.d(TAG, "createFallbackView: Starting fallback view creation");
+        CalculatorLog.d(TAG, "createFallbackView: Starting fallback view creation");
         try {
-            Log.d(TAG, "createFallbackView: Creating ReactRootView for fallback");
+            CalculatorLog.d(TAG, "createFallbackView: Creating ReactRootView for fallback");
             mReactRootView = new ReactRootView(this);
-            Log.d(TAG, "createFallbackView: ReactRootView created for fallback");
+            CalculatorLog.d(TAG, "createFallbackView: ReactRootView created for fallback");
             
-            Log.d(TAG, "createFallbackView: Creating TextView placeholder");
+            CalculatorLog.d(TAG, "createFallbackView: Creating TextView placeholder");
             TextView reactPlaceholder = new TextView(this);
             reactPlaceholder.setText("React Native компонент\n(История вычислений)\n\nИспользуйте нативный калькулятор выше");
             reactPlaceholder.setTextColor(0xFFFFFFFF);
@@ -215,381 +245,251 @@ public class MainActivity extends Activity {
             reactPlaceholder.setPadding(20, 20, 20, 20);
             reactPlaceholder.setBackgroundColor(0xFF2c2c2e);
             reactPlaceholder.setGravity(android.view.Gravity.CENTER);
-            Log.d(TAG, "createFallbackView: TextView placeholder created");
+            CalculatorLog.d(TAG, "createFallbackView: TextView placeholder created");
             
-            Log.d(TAG, "createFallbackView: Adding TextView to ReactRootView");
+            CalculatorLog.d(TAG, "createFallbackView: Adding TextView to ReactRootView");
             mReactRootView.addView(reactPlaceholder);
-            Log.d(TAG, "createFallbackView: TextView added to ReactRootView");
+            CalculatorLog.d(TAG, "createFallbackView: TextView added to ReactRootView");
+            applyReactRootLayoutParams();
             
             reactNativeInitialized = true;
-            Log.d(TAG, "createFallbackView: Fallback view created successfully");
+            CalculatorLog.d(TAG, "createFallbackView: Fallback view created successfully");
             
         } catch (Exception e) {
-            Log.e(TAG, "createFallbackView: Error creating fallback view", e);
-            Log.e(TAG, "createFallbackView: Exception details: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-            e.printStackTrace();
+            CalculatorLog.e(TAG, "createFallbackView: Error creating fallback view", e);
             mReactRootView = null;
         }
     }
 
+    private void applyReactRootLayoutParams() {
+        LinearLayout.LayoutParams reactParams = new LinearLayout.LayoutParams(
+            LinearLayout.LayoutParams.MATCH_PARENT,
+            400 // Fixed height for React Native component
+        );
+        reactParams.setMargins(0, 20, 0, 0);
+        mReactRootView.setLayoutParams(reactParams);
+    }
+
     private void toggleReactNative() {
-        Log.d(TAG, "toggleReactNative: Toggling React Native component");
-        Log.d(TAG, "toggleReactNative: mReactRootView is null: " + (mReactRootView == null));
-        Log.d(TAG, "toggleReactNative: mainLayout is null: " + (mainLayout == null));
-        Log.d(TAG, "toggleReactNative: reactNativeInitialized: " + reactNativeInitialized);
+        CalculatorLog.d(TAG, "toggleReactNative: Toggling React Native component");
+        CalculatorLog.d(TAG, "toggleReactNative: mReactRootView is null: ", mReactRootView == null);
+        CalculatorLog.d(TAG, "toggleReactNative: mainLayout is null: ", mainLayout == null);
+        CalculatorLog.d(TAG, "toggleReactNative: reactNativeInitialized: ", reactNativeInitialized);
         
         try {
             if (mReactRootView == null) {
-                Log.d(TAG, "toggleReactNative: Initializing React Native");
-                // Initialize React Native
+                CalculatorLog.d(TAG, "toggleReactNative: Initializing React Native");
+                // Initialize React Native: при прогреве context уже готов, остается запустить компонент
                 initializeReactNative();
-                Log.d(TAG, "toggleReactNative: After initialization - mReactRootView is null: " + (mReactRootView == null));
-                
-                if (mReactRootView != null && mainLayout != null) {
-                    Log.d(TAG, "toggleReactNative: Adding React Native view to main layout");
-                    // Add React Native view to main layout
-                    LinearLayout.LayoutParams reactParams = new LinearLayout.LayoutParams(
-                        LinearLayout.LayoutParams.MATCH_PARENT, 
-                        400 // Fixed height for React Native component
-                    );
-                    reactParams.setMargins(0, 20, 0, 0);
-                    mReactRootView.setLayoutParams(reactParams);
-                    mainLayout.addView(mReactRootView);
-                    Log.d(TAG, "toggleReactNative: React Native view added to main layout successfully");
-                    Toast.makeText(this, "React Native компонент активирован", Toast.LENGTH_SHORT).show();
-                } else {
-                    Log.w(TAG, "toggleReactNative: Cannot add React Native view - mReactRootView: " + (mReactRootView != null) + ", mainLayout: " + (mainLayout != null));
-                    Toast.makeText(this, "Не удалось добавить React Native компонент", Toast.LENGTH_SHORT).show();
-                }
+                CalculatorLog.d(TAG, "toggleReactNative: After initialization - mReactRootView is null: ", mReactRootView == null);
+            }
+
+            if (mReactRootView == null || mainLayout == null) {
+                CalculatorLog.w(TAG, "toggleReactNative: Cannot add React Native view - mReactRootView: %s, mainLayout: %s",
+                    mReactRootView != null, mainLayout != null);
+                Toast.makeText(this, "Не удалось добавить React Native компонент", Toast.LENGTH_SHORT).show();
+            } else if (mReactRootView.getParent() == null) {
+                CalculatorLog.d(TAG, "toggleReactNative: Adding React Native view to main layout");
+                mainLayout.addView(mReactRootView);
+                CalculatorLog.d(TAG, "toggleReactNative: React Native view added to main layout successfully");
+                Toast.makeText(this, "React Native компонент активирован", Toast.LENGTH_SHORT).show();
             } else {
-                Log.d(TAG, "toggleReactNative: Removing React Native view");
-                // Remove React Native view
-                if (mainLayout != null) {
-                    mainLayout.removeView(mReactRootView);
-                    mReactRootView = null;
-                    reactNativeInitialized = false;
-                    Log.d(TAG, "toggleReactNative: React Native view removed from main layout");
-                    Toast.makeText(this, "React Native компонент деактивирован", Toast.LENGTH_SHORT).show();
-                }
+                CalculatorLog.d(TAG, "toggleReactNative: Detaching React Native view");
+                // ReactRootView только открепляется: приложение RN остается запущенным, и повторное включение мгновенно
+                mainLayout.removeView(mReactRootView);
+                CalculatorLog.d(TAG, "toggleReactNative: React Native view detached from main layout");
+                Toast.makeText(this, "React Native компонент деактивирован", Toast.LENGTH_SHORT).show();
             }
         } catch (Exception e) {
-            Log.e(TAG, "toggleReactNative: Error toggling React Native", e);
-            Log.e(TAG, "toggleReactNative: Exception details: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-            e.printStackTrace();
+            CalculatorLog.e(TAG, "toggleReactNative: Error toggling React Native", e);
             Toast.makeText(this, "Ошибка: " + e.getMessage(), Toast.LENGTH_SHORT).show();
         }
     }
 
-    private LinearLayout createButtonRow(String[] buttons) {
-        LinearLayout row = new LinearLayout(this);
-        row.setOrientation(LinearLayout.HORIZONTAL);
-        
-        for (String buttonText : buttons) {
-            Button button = createButton(buttonText);
-            row.addView(button);
+    private void onKeypadKey(int key) {
+        if (key == KeypadView.KEY_REACT_NATIVE) {
+            toggleReactNative();
+        } else {
+            onKey(key);
         }
-        
-        return row;
-    }
-
-    private Button createButton(String text) {
-        Button button = new Button(this);
-        button.setText(text);
-        button.setTextSize(20);
-        button.setTextColor(0xFFFFFFFF);
-        button.setBackgroundColor(0xFF333333);
-        
-        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-            0, LinearLayout.LayoutParams.WRAP_CONTENT, 1.0f);
-        params.setMargins(5, 5, 5, 5);
-        button.setLayoutParams(params);
-        
-        button.setOnClickListener(v -> onButtonClick(text));
-        
-        return button;
     }
 
-    private void onButtonClick(String buttonText) {
-        switch (buttonText) {
-            case "C":
-                clear();
-                break;
-            case "±":
-                toggleSign();
-                break;
-            case "⌫":
-                backspace();
-                break;
-            case ".":
-                inputDecimal();
+    private void onKey(int key) {
+        switch (engine.press(key)) {
+            case CalculatorEngine.ACTION_DISPLAY_CHANGED:
+                updateDisplay();
                 break;
-            case "=":
+            case CalculatorEngine.ACTION_EVALUATE:
                 calculate();
                 break;
-            case "RN":
-                toggleReactNative();
-                break;
-            case "+":
-            case "−":
-            case "×":
-            case "÷":
-                inputOperator(buttonText);
-                break;
-            default:
-                if (buttonText.matches("[0-9]")) {
-                    inputNumber(buttonText);
-                }
-                break;
-        }
-    }
-
-    private void inputNumber(String num) {
-        if (waitingForOperand) {
-            currentInput = num;
-            waitingForOperand = false;
-        } else {
-            currentInput = currentInput.equals("0") ? num : currentInput + num;
-        }
-        updateDisplay();
-    }
-
-    private void inputDecimal() {
-        if (waitingForOperand) {
-            currentInput = "0.";
-            waitingForOperand = false;
-        } else if (!currentInput.contains(".")) {
-            currentInput += ".";
-        }
-        updateDisplay();
-    }
-
-    private void inputOperator(String op) {
-        if (!operator.isEmpty()) {
-            calculate();
         }
-        
-        firstNumber = Double.parseDouble(currentInput);
-        operator = op;
-        waitingForOperand = true;
     }
 
     private void calculate() {
-        if (!operator.isEmpty()) {
-            double secondNumber = Double.parseDouble(currentInput);
-
-            if (useAPI) {
-                // Конвертируем символы для API
-                String apiOperator = convertOperatorForAPI(operator);
-                // Используем API для вычисления
-                new CalculateTask().execute(firstNumber, secondNumber, apiOperator);
-            } else {
-                // Локальное вычисление
-                calculateLocally(secondNumber);
+        if (useAPI && remote.isAvailable() && !(coalesceChainedRequests && engine.isChainedEvaluation())) {
+            // Используем API для вычисления
+            calculateRemotely();
+        } else {
+            // Локальное вычисление (в том числе промежуточные шаги цепочки)
+            boolean deferred = coalesceChainedRequests && engine.isChainedEvaluation();
+            if (useAPI && !remote.isAvailable()) {
+                metrics.increment(MetricsRegistry.COUNTER_LOCAL_FALLBACKS);
+            }
+            // Шаг цепочки уйдет на сервер вместе с "="; само "=" без сервера - через очередь отправки
+            if (calculateLocally() && !deferred) {
+                CalculatorHistory.enqueueUnsynced(this, unsyncedSteps());
             }
         }
     }
 
-    // Конвертация символов для API
-    private String convertOperatorForAPI(String displayOperator) {
-        switch (displayOperator) {
-            case "×":
-                return "*";
-            case "÷":
-                return "/";
-            case "+":
-                return "+";
-            case "−":
-                return "-";
-            default:
-                return displayOperator;
-        }
-    }
-
-    private void calculateLocally(double secondNumber) {
-        double result = 0;
-
-        switch (operator) {
-            case "+":
-                result = firstNumber + secondNumber;
-                break;
-            case "−":
-                result = firstNumber - secondNumber;
-                break;
-            case "×":
-                result = firstNumber * secondNumber;
-                break;
-            case "÷":
-                if (secondNumber != 0) {
-                    result = firstNumber / secondNumber;
-                } else {
-                    Toast.makeText(this, "Cannot divide by zero", Toast.LENGTH_SHORT).show();
-                    return;
-                }
-                break;
-        }
-
-        currentInput = formatResult(result);
-        operator = "";
-        waitingForOperand = true;
-        updateDisplay();
-    }
+    private void calculateRemotely() {
+        display.showMessage("Calculating...");
+        final int evaluationId = engine.getEvaluationId();
 
-    // AsyncTask для работы с API
-    private class CalculateTask extends AsyncTask<Object, Void, String> {
-        private double firstNum;
-        private double secondNum;
-        private String operation;
+        if (coalesceChainedRequests && engine.getChain().size() > 0) {
+            remoteSession.calculateChain(engine.getChain(), engine.getFirstOperand(), engine.getOperator(),
+                engine.getSecondOperand(), new RemoteCalculator.BatchCallback() {
+                    @Override
+                    public void onResults(double[] results) {
+                        onRemoteResult(evaluationId, results[results.length - 1]);
+                    }
 
-        @Override
-        protected void onPreExecute() {
-            super.onPreExecute();
-            display.setText("Calculating...");
+                    @Override
+                    public void onFailure(String message) {
+                        onRemoteFailure(evaluationId);
+                    }
+                });
+            return;
         }
 
-        @Override
-        protected String doInBackground(Object... params) {
-            firstNum = (Double) params[0];
-            secondNum = (Double) params[1];
-            operation = (String) params[2];
-
-            try {
-                JSONObject requestData = new JSONObject();
-                requestData.put("a", firstNum);
-                requestData.put("b", secondNum);
-                requestData.put("operation", operation);
-
-                URL url = new URL(API_BASE_URL + "/calculate");
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("POST");
-                connection.setRequestProperty("Content-Type", "application/json");
-                connection.setRequestProperty("Accept", "application/json");
-                connection.setDoOutput(true);
-                connection.setConnectTimeout(5000);
-                connection.setReadTimeout(5000);
-
-                try (OutputStream os = connection.getOutputStream()) {
-                    byte[] input = requestData.toString().getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
-                }
-
-                int responseCode = connection.getResponseCode();
-                BufferedReader reader;
-                if (responseCode >= 200 && responseCode < 300) {
-                    reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                } else {
-                    reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
+        // Конвертируем символы для API
+        String apiOperator = Operators.apiSymbol(engine.getOperator());
+        remoteSession.calculate(engine.getFirstOperand(), engine.getSecondOperand(), apiOperator,
+            new RemoteCalculator.Callback() {
+                @Override
+                public void onResult(double result) {
+                    onRemoteResult(evaluationId, result);
                 }
 
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-                reader.close();
-
-                if (responseCode >= 200 && responseCode < 300) {
-                    JSONObject jsonResponse = new JSONObject(response.toString());
-                    if (jsonResponse.getBoolean("success")) {
-                        return String.valueOf(jsonResponse.getDouble("result"));
-                    } else {
-                        return "Error: " + jsonResponse.getString("error");
-                    }
-                } else {
-                    return "API Error: " + responseCode;
+                @Override
+                public void onFailure(String message) {
+                    onRemoteFailure(evaluationId);
                 }
+            });
+    }
 
-            } catch (Exception e) {
-                return "Network Error: " + e.getMessage();
+    private void onRemoteResult(int evaluationId, double result) {
+        if (Double.isNaN(result)) {
+            if (engine.isEvaluationPending(evaluationId)) {
+                calculateLocally();
             }
+            return;
         }
-
-        @Override
-        protected void onPostExecute(String result) {
-            super.onPostExecute(result);
-
-            if (result.startsWith("Error:") || result.startsWith("API Error:") || result.startsWith("Network Error:")) {
-                Toast.makeText(MainActivity.this, "API недоступен, используем локальные вычисления", Toast.LENGTH_SHORT).show();
-                useAPI = false;
-                calculateLocally(secondNum);
-            } else {
-                currentInput = formatResult(Double.parseDouble(result));
-                operator = "";
-                waitingForOperand = true;
-                updateDisplay();
-                Toast.makeText(MainActivity.this, "Вычислено через Laravel API", Toast.LENGTH_SHORT).show();
+        // В десятичном режиме double сервера только подтверждает вычисление, на дисплей идет точный результат
+        if (CalculatorArithmetic.isExact()) {
+            if (engine.isEvaluationPending(evaluationId)) {
+                calculateLocally();
             }
+            return;
         }
-    }
-
-    private String formatResult(double result) {
-        if (result == (long) result) {
-            return String.valueOf((long) result);
-        } else {
-            return String.valueOf(result);
+        // Устаревший ответ: пользователь уже продолжил ввод
+        if (!engine.completeEvaluation(evaluationId, result)) {
+            return;
         }
+        updateDisplay();
+        Toast.makeText(MainActivity.this, "Вычислено через Laravel API", Toast.LENGTH_SHORT).show();
     }
 
-    private void clear() {
-        currentInput = "0";
-        operator = "";
-        waitingForOperand = false;
-        updateDisplay();
+    private void onRemoteFailure(int evaluationId) {
+        if (!engine.isEvaluationPending(evaluationId)) {
+            return;
+        }
+        metrics.increment(MetricsRegistry.COUNTER_LOCAL_FALLBACKS);
+        if (calculateLocally()) {
+            CalculatorHistory.enqueueUnsynced(this, unsyncedSteps());
+        }
     }
 
-    private void toggleSign() {
-        if (!currentInput.equals("0")) {
-            currentInput = currentInput.startsWith("-") ? 
-                currentInput.substring(1) : "-" + currentInput;
-            updateDisplay();
+    private void onRemoteStateChanged(int state) {
+        CalculatorLog.d(TAG, "Remote API state: ", CircuitBreaker.stateName(state));
+        if (state == CircuitBreaker.STATE_OPEN) {
+            Toast.makeText(this, "API недоступен, используем локальные вычисления", Toast.LENGTH_SHORT).show();
+        } else if (state == CircuitBreaker.STATE_CLOSED) {
+            Toast.makeText(this, "Laravel API снова доступен", Toast.LENGTH_SHORT).show();
         }
     }
 
-    private void backspace() {
-        if (currentInput.length() > 1) {
-            currentInput = currentInput.substring(0, currentInput.length() - 1);
-        } else {
-            currentInput = "0";
+    private boolean calculateLocally() {
+        int operator = engine.getOperator();
+        long startedAt = System.nanoTime();
+        switch (engine.evaluateLocally(CalculatorArithmetic.get())) {
+            case CalculatorEngine.STATUS_DIVISION_BY_ZERO:
+                metrics.increment(MetricsRegistry.COUNTER_LOCAL_ERRORS);
+                Toast.makeText(this, "Cannot divide by zero", Toast.LENGTH_SHORT).show();
+                return false;
+            case CalculatorEngine.STATUS_INVALID_NUMBER:
+                metrics.increment(MetricsRegistry.COUNTER_LOCAL_ERRORS);
+                Toast.makeText(this, "Invalid number", Toast.LENGTH_SHORT).show();
+                return false;
         }
         updateDisplay();
+        metrics.record(MetricsRegistry.TIMER_CALCULATE_LOCAL, operator, System.nanoTime() - startedAt);
+        return true;
+    }
+
+    // Шаги, которые сохранил бы запрос "=": вся цепочка при объединении запросов, иначе последний шаг
+    private CalculationChain unsyncedSteps() {
+        CalculationChain chain = engine.getChain();
+        return chain.copyFrom(coalesceChainedRequests ? 0 : chain.size() - 1);
     }
 
+    // Текст обновится в ближайшем кадре, сколько бы нажатий ни пришлось на этот кадр
     private void updateDisplay() {
-        display.setText(currentInput);
+        display.invalidate();
     }
 
     @Override
     protected void onStart() {
         super.onStart();
-        Log.d(TAG, "onStart: Activity started");
+        CalculatorLog.d(TAG, "onStart: Activity started");
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        Log.d(TAG, "onResume: Activity resumed");
+        CalculatorLog.d(TAG, "onResume: Activity resumed");
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        Log.d(TAG, "onPause: Activity paused");
+        CalculatorLog.d(TAG, "onPause: Activity paused");
     }
 
     @Override
     protected void onStop() {
         super.onStop();
-        Log.d(TAG, "onStop: Activity stopped");
+        CalculatorLog.d(TAG, "onStop: Activity stopped");
     }
 
     @Override
     protected void onDestroy() {
+        // Ответ для уничтоженной активности уже не нужен
+        remoteSession.cancel();
+        remote.removeStateListener(remoteStateListener);
+        display.cancel();
+        if (mReactRootView != null) {
+            // Открепленный, но живой ReactRootView размонтируется вместе с активностью
+            mReactRootView.unmountReactApplication();
+            mReactRootView = null;
+        }
         super.onDestroy();
-        Log.d(TAG, "onDestroy: Activity destroyed");
+        CalculatorLog.d(TAG, "onDestroy: Activity destroyed");
     }
 
     @Override
     public void onBackPressed() {
-        Log.d(TAG, "onBackPressed: Back button pressed");
+        CalculatorLog.d(TAG, "onBackPressed: Back button pressed");
         super.onBackPressed();
     }
 }
\ No newline at end of file
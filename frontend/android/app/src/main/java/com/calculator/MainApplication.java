@@ -1,8 +1,11 @@
 package com.calculator;
 
 import android.app.Application;
+import android.os.Trace;
+import com.calculator.engine.startup.StartupTrace;
 import com.facebook.react.PackageList;
 import com.facebook.react.ReactApplication;
+import com.facebook.react.ReactInstanceManager;
 import com.facebook.react.ReactNativeHost;
 import com.facebook.react.ReactPackage;
 import com.facebook.react.defaults.DefaultNewArchitectureEntryPoint;
@@ -11,6 +14,9 @@ import com.facebook.soloader.SoLoader;
 import java.util.List;
 
 public class MainApplication extends Application implements ReactApplication {
+  private static final String TAG = "MainApplication";
+
+  private boolean reactNativePrewarmStarted = false;
 
   private final ReactNativeHost mReactNativeHost =
       new DefaultReactNativeHost(this) {
@@ -48,10 +54,38 @@ public class MainApplication extends Application implements ReactApplication {
     return mReactNativeHost;
   }
 
+  /**
+   * Заранее создает React context: JS bundle загружается и выполняется в фоновом потоке
+   * ReactInstanceManager, и кнопке "RN" остается подключить готовый экземпляр.
+   * Вызывается из главного потока; повторные вызовы ничего не делают.
+   */
+  public void prewarmReactNative() {
+    if (!BuildConfig.PREWARM_REACT_NATIVE || reactNativePrewarmStarted) {
+      return;
+    }
+    reactNativePrewarmStarted = true;
+    try {
+      ReactInstanceManager manager = mReactNativeHost.getReactInstanceManager();
+      CalculatorStartup.watchReactReady(manager);
+      if (!manager.hasStartedCreatingInitialContext()) {
+        CalculatorLog.d(TAG, "prewarmReactNative: Creating React context in background");
+        manager.createReactContextInBackground();
+      }
+    } catch (UnsatisfiedLinkError | RuntimeException e) {
+      // Без Hermes прогрев не нужен: по кнопке "RN" MainActivity покажет заглушку
+      CalculatorLog.w(TAG, "prewarmReactNative: React Native is unavailable", e);
+    }
+  }
+
   @Override
   public void onCreate() {
     super.onCreate();
+    CalculatorStartup.markProcessStart();
+    CalculatorStartup.mark(StartupTrace.PHASE_APPLICATION_CREATE);
+    Trace.beginSection("SoLoader.init");
     SoLoader.init(this, /* native exopackage */ false);
+    Trace.endSection();
+    CalculatorStartup.mark(StartupTrace.PHASE_SOLOADER_INIT);
     // New architecture disabled
   }
 }
\ No newline at end of file
@@ -3,18 +3,18 @@ package com.calculator;
 import android.content.Context;
 import android.widget.LinearLayout;
 import android.widget.TextView;
-import android.widget.Button;
 import android.view.View;
-import android.util.Log;
 
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.common.MapBuilder;
 import com.facebook.react.uimanager.SimpleViewManager;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.annotations.ReactProp;
 import com.facebook.react.uimanager.events.RCTEventEmitter;
 
+import java.util.ArrayDeque;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -25,6 +25,23 @@ public class NativeCalculatorViewManager extends SimpleViewManager<LinearLayout>
     // Команды для взаимодействия с RN
     private static final int COMMAND_CLEAR = 1;
     private static final int COMMAND_SET_VALUE = 2;
+    private static final String EVENT_CALCULATION_EVENTS = "onCalculationEvents";
+    // Сколько размонтированных калькуляторов держать для повторного монтирования
+    private static final int MAX_RECYCLED_VIEWS = 3;
+    private static final int BACKGROUND_COLOR = 0xFF1a1a1a;
+    // Ключи, под которыми BaseViewManager хранит testID и accessibility-пропсы
+    private static final int[] REACT_PROP_TAG_KEYS = {
+        com.facebook.react.R.id.react_test_id,
+        com.facebook.react.R.id.accessibility_role,
+        com.facebook.react.R.id.accessibility_state,
+        com.facebook.react.R.id.accessibility_label,
+        com.facebook.react.R.id.accessibility_hint,
+        com.facebook.react.R.id.accessibility_value,
+        com.facebook.react.R.id.accessibility_actions,
+    };
+
+    // Пул размонтированных view вместе с их логикой; только главный поток
+    private final ArrayDeque<LinearLayout> recycledViews = new ArrayDeque<>(MAX_RECYCLED_VIEWS);
 
     @Override
     public String getName() {
@@ -33,16 +50,85 @@ public class NativeCalculatorViewManager extends SimpleViewManager<LinearLayout>
 
     @Override
     protected LinearLayout createViewInstance(ThemedReactContext context) {
-        Log.d(TAG, "Creating native calculator view instance");
+        LinearLayout recycled = takeRecycledView(context);
+        if (recycled != null) {
+            CalculatorLog.d(TAG, "Reusing recycled native calculator view");
+            return recycled;
+        }
+        CalculatorLog.d(TAG, "Creating native calculator view instance");
         return createCalculatorLayout(context);
     }
 
+    /**
+     * View при размонтировании не выбрасывается, а сбрасывается и попадает в пул: повторное
+     * монтирование (вкладки, списки) обходится без создания layout, клавиатуры и логики.
+     * Пропсы нового монтирования RN применяет заново после createViewInstance.
+     */
+    @Override
+    public void onDropViewInstance(LinearLayout view) {
+        super.onDropViewInstance(view);
+        CalculatorLogic logic = logicOf(view);
+        if (logic == null) {
+            return;
+        }
+        if (view.getParent() == null && recycledViews.size() < MAX_RECYCLED_VIEWS) {
+            logic.reset();
+            resetBaseViewProperties(view);
+            recycledViews.push(view);
+        } else {
+            logic.release();
+        }
+    }
+
+    /**
+     * Пропсы BaseViewManager (opacity, transform, backgroundColor, accessibility*, testID) RN при
+     * новом монтировании применяет, только если они заданы, поэтому в пул view уходит с исходными
+     * значениями из createCalculatorLayout.
+     */
+    private static void resetBaseViewProperties(LinearLayout view) {
+        view.setAlpha(1f);
+        view.setTranslationX(0f);
+        view.setTranslationY(0f);
+        view.setTranslationZ(0f);
+        view.setScaleX(1f);
+        view.setScaleY(1f);
+        view.setRotation(0f);
+        view.setRotationX(0f);
+        view.setRotationY(0f);
+        view.setElevation(0f);
+        view.setBackgroundColor(BACKGROUND_COLOR);
+        view.setContentDescription(null);
+        view.setImportantForAccessibility(View.IMPORTANT_FOR_ACCESSIBILITY_AUTO);
+        view.setAccessibilityDelegate(null);
+        for (int key : REACT_PROP_TAG_KEYS) {
+            view.setTag(key, null);
+        }
+        // testID дублируется и в обычный tag
+        view.setTag(null);
+    }
+
+    private static CalculatorLogic logicOf(View view) {
+        return (CalculatorLogic) view.getTag(R.id.calculator_logic);
+    }
+
+    private LinearLayout takeRecycledView(ThemedReactContext context) {
+        LinearLayout view;
+        while ((view = recycledViews.poll()) != null) {
+            // View привязан к контексту своего корня: из другого корня (или после перезагрузки JS) не переиспользуем
+            if (view.getContext() == context) {
+                return view;
+            }
+            logicOf(view).release();
+        }
+        return null;
+    }
+
     private LinearLayout createCalculatorLayout(Context context) {
         // Создаем основной layout как в MainActivity
         LinearLayout mainLayout = new LinearLayout(context);
         mainLayout.setOrientation(LinearLayout.VERTICAL);
         mainLayout.setPadding(20, 20, 20, 20);
-        mainLayout.setBackgroundColor(0xFF1a1a1a);
+        mainLayout.setBackgroundColor(BACKGROUND_COLOR);
 
         // Создаем заголовок
         TextView title = new TextView(context);
@@ -59,66 +145,23 @@ public class NativeCalculatorViewManager extends SimpleViewManager<LinearLayout>
         display.setPadding(20, 20, 20, 20);
         display.setBackgroundColor(0xFF000000);
         display.setGravity(android.view.Gravity.END);
-        display.setTag("display"); // Для поиска в логике
 
-        // Создаем кнопки
-        LinearLayout buttonLayout = new LinearLayout(context);
-        buttonLayout.setOrientation(LinearLayout.VERTICAL);
+        // Логика создается до клавиатуры: дисплей и обработчик клавиш привязываются к ней один раз
+        CalculatorLogic calculatorLogic = new CalculatorLogic(context, mainLayout, display, this);
+        mainLayout.setTag(R.id.calculator_logic, calculatorLogic); // Сохраняем логику в layout для команд и пропсов
 
-        // Добавляем ряды кнопок
-        buttonLayout.addView(createButtonRow(context, new String[]{"C", "±", "%", "÷"}));
-        buttonLayout.addView(createButtonRow(context, new String[]{"7", "8", "9", "×"}));
-        buttonLayout.addView(createButtonRow(context, new String[]{"4", "5", "6", "−"}));
-        buttonLayout.addView(createButtonRow(context, new String[]{"1", "2", "3", "+"}));
-        buttonLayout.addView(createButtonRow(context, new String[]{"0", ".", "⌫", "="}));
+        // Клавиатура - один View с отрисовкой на canvas вместо дерева из Button
+        KeypadView keypad = new KeypadView(context, KeypadView.CALCULATOR_ROWS, 18);
+        keypad.setListener(calculatorLogic::onKey);
 
         // Добавляем все в основной layout
         mainLayout.addView(title);
         mainLayout.addView(display);
-        mainLayout.addView(buttonLayout);
-
-        // Создаем и привязываем логику калькулятора
-        CalculatorLogic calculatorLogic = new CalculatorLogic(context, mainLayout, this);
-        mainLayout.setTag(calculatorLogic); // Сохраняем логику в layout
+        mainLayout.addView(keypad);
 
         return mainLayout;
     }
 
-    private LinearLayout createButtonRow(Context context, String[] buttons) {
-        LinearLayout row = new LinearLayout(context);
-        row.setOrientation(LinearLayout.HORIZONTAL);
-
-        for (String buttonText : buttons) {
-            Button button = createButton(context, buttonText);
-            row.addView(button);
-        }
-
-        return row;
-    }
-
-    private Button createButton(Context context, String text) {
-        Button button = new Button(context);
-        button.setText(text);
-        button.setTextSize(18);
-        button.setTextColor(0xFFFFFFFF);
-        button.setBackgroundColor(0xFF333333);
-
-        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-            0, LinearLayout.LayoutParams.WRAP_CONTENT, 1.0f);
-        params.setMargins(5, 5, 5, 5);
-        button.setLayoutParams(params);
-
-        // Привязываем обработчик клика
-        button.setOnClickListener(v -> {
-            CalculatorLogic logic = (CalculatorLogic) ((LinearLayout) v.getParent().getParent().getParent()).getTag();
-            if (logic != null) {
-                logic.onButtonClick(text);
-            }
-        });
-
-        return button;
-    }
-
     // Методы для взаимодействия с React Native
     @Override
     public Map<String, Integer> getCommandsMap() {
@@ -130,7 +173,7 @@ public class NativeCalculatorViewManager extends SimpleViewManager<LinearLayout>
 
     @Override
     public void receiveCommand(LinearLayout view, int commandId, com.facebook.react.bridge.ReadableArray args) {
-        CalculatorLogic logic = (CalculatorLogic) view.getTag();
+        CalculatorLogic logic = logicOf(view);
         if (logic == null) return;
 
         switch (commandId) {
@@ -149,32 +192,48 @@ public class NativeCalculatorViewManager extends SimpleViewManager<LinearLayout>
     // Пропсы для React Native
     @ReactProp(name = "initialValue")
     public void setInitialValue(LinearLayout view, String value) {
-        CalculatorLogic logic = (CalculatorLogic) view.getTag();
+        CalculatorLogic logic = logicOf(view);
         if (logic != null) {
             logic.setValue(value);
         }
     }
 
-    // Метод для отправки событий в React Native
+    // События уходят в React Native пачкой в ближайшем кадре: {events: [{type, ...}], dropped}
+    @Override
+    public Map<String, Object> getExportedCustomDirectEventTypeConstants() {
+        Map<String, Object> events = new HashMap<>();
+        events.put(EVENT_CALCULATION_EVENTS, MapBuilder.of("registrationName", EVENT_CALCULATION_EVENTS));
+        return events;
+    }
+
     public void sendCalculationResult(LinearLayout view, String expression, String result) {
+        CalculatorLogic logic = logicOf(view);
+        if (logic == null) return;
+
         WritableMap event = Arguments.createMap();
+        event.putString("type", "result");
         event.putString("expression", expression);
         event.putString("result", result);
         event.putString("timestamp", String.valueOf(System.currentTimeMillis()));
-
-        ReactContext reactContext = (ReactContext) view.getContext();
-        reactContext
-            .getJSModule(RCTEventEmitter.class)
-            .receiveEvent(view.getId(), "onCalculationResult", event);
+        logic.getEvents().dispatch(CalculatorEventDispatcher.KIND_RESULT, event);
     }
 
     public void sendError(LinearLayout view, String error) {
+        CalculatorLogic logic = logicOf(view);
+        if (logic == null) return;
+
         WritableMap event = Arguments.createMap();
+        event.putString("type", "error");
         event.putString("error", error);
+        logic.getEvents().dispatch(CalculatorEventDispatcher.KIND_ERROR, event);
+    }
 
+    void emitEvents(LinearLayout view, WritableMap batch) {
         ReactContext reactContext = (ReactContext) view.getContext();
+        // Пачка могла дождаться кадра уже после уничтожения экземпляра React
+        if (!reactContext.hasActiveReactInstance()) return;
         reactContext
             .getJSModule(RCTEventEmitter.class)
-            .receiveEvent(view.getId(), "onError", event);
+            .receiveEvent(view.getId(), EVENT_CALCULATION_EVENTS, batch);
     }
 }
@@ -0,0 +1,94 @@
+package com.calculator.benchmarks;
+
+import com.calculator.engine.Operators;
+import com.calculator.engine.number.Arithmetic;
+import com.calculator.engine.number.BigDecimalArithmetic;
+import com.calculator.engine.number.DoubleArithmetic;
+import com.calculator.engine.number.FixedDecimalArithmetic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Числовые бэкенды на обычных для калькулятора операндах: четыре операции подряд,
+ * от записи операндов до текста результата. "naive" - BigDecimal на каждое вычисление,
+ * как без быстрого пути в long.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArithmeticBenchmark {
+    private static final String[][] OPERANDS = {
+        {"0.1", "0.2"}, {"199.99", "0.01"}, {"12.5", "4"}, {"10", "4"}
+    };
+    private static final int[] OPERATORS = {
+        Operators.ADD, Operators.SUBTRACT, Operators.MULTIPLY, Operators.DIVIDE
+    };
+
+    @Param({"double", "decimal", "bigdecimal"})
+    public String backend;
+
+    private Arithmetic arithmetic;
+    private final Arithmetic.Result result = new Arithmetic.Result();
+    private char[][] first;
+    private char[][] second;
+
+    @Setup
+    public void setUp() {
+        switch (backend) {
+            case "decimal":
+                arithmetic = new FixedDecimalArithmetic();
+                break;
+            case "bigdecimal":
+                arithmetic = new BigDecimalArithmetic(MathContext.DECIMAL128);
+                break;
+            default:
+                arithmetic = DoubleArithmetic.INSTANCE;
+                break;
+        }
+        first = new char[OPERANDS.length][];
+        second = new char[OPERANDS.length][];
+        for (int i = 0; i < OPERANDS.length; i++) {
+            first[i] = OPERANDS[i][0].toCharArray();
+            second[i] = OPERANDS[i][1].toCharArray();
+        }
+    }
+
+    @Benchmark
+    public int backend() {
+        int length = 0;
+        for (int i = 0; i < OPERATORS.length; i++) {
+            arithmetic.apply(OPERATORS[i], first[i], first[i].length, second[i], second[i].length, result);
+            length += result.text.length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int naive() {
+        int length = 0;
+        for (int i = 0; i < OPERATORS.length; i++) {
+            BigDecimal a = new BigDecimal(first[i]);
+            BigDecimal b = new BigDecimal(second[i]);
+            BigDecimal value;
+            switch (OPERATORS[i]) {
+                case Operators.ADD: value = a.add(b, MathContext.DECIMAL128); break;
+                case Operators.SUBTRACT: value = a.subtract(b, MathContext.DECIMAL128); break;
+                case Operators.MULTIPLY: value = a.multiply(b, MathContext.DECIMAL128); break;
+                default: value = a.divide(b, MathContext.DECIMAL128); break;
+            }
+            length += value.stripTrailingZeros().toPlainString().length();
+        }
+        return length;
+    }
+}
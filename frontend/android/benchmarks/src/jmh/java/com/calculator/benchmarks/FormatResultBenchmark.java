@@ -0,0 +1,70 @@
+package com.calculator.benchmarks;
+
+import com.calculator.engine.CalculatorEngine;
+import com.calculator.engine.number.DisplayFormatter;
+import com.calculator.engine.number.ShortestDecimal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Форматирование результата для дисплея: строковый formatResult и DecimalFormat
+ * против кратчайшей записи в буфер движка и оформления DisplayFormatter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormatResultBenchmark {
+    @Param({"42", "-1234567890", "0.30000000000000004", "3.3333333333333335", "1.0E20"})
+    public double value;
+
+    private CalculatorEngine engine;
+    private final ShortestDecimal shortest = new ShortestDecimal();
+    private final char[] chars = new char[ShortestDecimal.MAX_LENGTH];
+    private DisplayFormatter formatter;
+    private DecimalFormat decimalFormat;
+
+    @Setup
+    public void setUp() {
+        engine = new CalculatorEngine();
+        formatter = DisplayFormatter.forLocale(Locale.US, 16);
+        decimalFormat = new DecimalFormat("#,##0.###############", DecimalFormatSymbols.getInstance(Locale.US));
+    }
+
+    @Benchmark
+    public String formatResult() {
+        return LegacyCalculator.formatResult(value);
+    }
+
+    @Benchmark
+    public int engineBuffer() {
+        engine.completeEvaluation(value);
+        return engine.getDisplayLength();
+    }
+
+    @Benchmark
+    public int shortest() {
+        return shortest.set(value).write(chars, 0);
+    }
+
+    @Benchmark
+    public String decimalFormat() {
+        return decimalFormat.format(value);
+    }
+
+    @Benchmark
+    public int displayFormatter() {
+        return formatter.format(value).length();
+    }
+}
@@ -0,0 +1,89 @@
+package com.calculator.benchmarks;
+
+import com.calculator.engine.Operators;
+import com.calculator.engine.history.HistoryLog;
+import com.calculator.engine.history.HistoryPage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Журнал истории: RECORDS записей подряд в новый файл (включая удвоения отображения)
+ * и чтение страницы самых новых записей из журнала такого размера.
+ */
+@BenchmarkMode(Mode.AverageTime)
+public class HistoryLogBenchmark {
+    static final int RECORDS = 300_000;
+    static final int PAGE_SIZE = 50;
+
+    @State(Scope.Thread)
+    public static class EmptyLog {
+        File file;
+        HistoryLog log;
+
+        @Setup(Level.Invocation)
+        public void open() throws IOException {
+            file = File.createTempFile("history", ".log");
+            file.delete();
+            log = HistoryLog.open(file);
+        }
+
+        @TearDown(Level.Invocation)
+        public void close() throws IOException {
+            log.close();
+            file.delete();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FullLog {
+        File file;
+        HistoryLog log;
+        final HistoryPage page = new HistoryPage();
+
+        @Setup(Level.Trial)
+        public void open() throws IOException {
+            file = File.createTempFile("history", ".log");
+            file.delete();
+            log = HistoryLog.open(file);
+            append(log);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            log.close();
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int append300k(EmptyLog state) throws IOException {
+        return append(state.log);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int readNewestPage(FullLog state) {
+        return state.log.readNewest(0, PAGE_SIZE, state.page);
+    }
+
+    static int append(HistoryLog log) throws IOException {
+        int last = 0;
+        for (int i = 0; i < RECORDS; i++) {
+            last = log.append(i, i, Operators.ADD, 1, i + 1);
+        }
+        return last;
+    }
+}
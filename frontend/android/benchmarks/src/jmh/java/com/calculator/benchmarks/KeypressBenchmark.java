@@ -0,0 +1,65 @@
+package com.calculator.benchmarks;
+
+import com.calculator.engine.CalculatorEngine;
+import com.calculator.engine.Keys;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обработка нажатий без вычислений: цифры, точка, смена знака, стирание и сброс.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KeypressBenchmark {
+    private static final String[] LABELS = {
+        "1", "2", "3", ".", "4", "5", "±", "6", "⌫", "7", "±", "8", "9", "C"
+    };
+
+    private int[] keys;
+    private CalculatorEngine engine;
+    private LegacyCalculator legacy;
+
+    @Setup
+    public void setUp() {
+        keys = new int[LABELS.length];
+        for (int i = 0; i < LABELS.length; i++) {
+            keys[i] = Keys.forLabel(LABELS[i]);
+        }
+        engine = new CalculatorEngine();
+        legacy = new LegacyCalculator();
+    }
+
+    @Benchmark
+    public void engine(Blackhole bh) {
+        for (int key : keys) {
+            bh.consume(engine.press(key));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        for (String label : LABELS) {
+            legacy.onButtonClick(label);
+        }
+        bh.consume(legacy.getCurrentValue());
+    }
+
+    @Benchmark
+    public int labelLookup() {
+        int sum = 0;
+        for (String label : LABELS) {
+            sum += Keys.forLabel(label);
+        }
+        return sum;
+    }
+}
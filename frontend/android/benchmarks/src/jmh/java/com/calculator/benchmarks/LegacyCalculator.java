@@ -0,0 +1,134 @@
+package com.calculator.benchmarks;
+
+/**
+ * Прежняя строковая реализация машины состояний из CalculatorLogic/MainActivity
+ * без Android-зависимостей. Нужна только как точка отсчета для сравнения с движком.
+ */
+final class LegacyCalculator {
+    private String currentInput = "0";
+    private String operator = "";
+    private double firstNumber = 0;
+    private boolean waitingForOperand = false;
+
+    void onButtonClick(String buttonText) {
+        switch (buttonText) {
+            case "C":
+                clear();
+                break;
+            case "±":
+                toggleSign();
+                break;
+            case "⌫":
+                backspace();
+                break;
+            case ".":
+                inputDecimal();
+                break;
+            case "=":
+                calculate();
+                break;
+            case "+":
+            case "−":
+            case "×":
+            case "÷":
+                inputOperator(buttonText);
+                break;
+            default:
+                if (buttonText.matches("[0-9]")) {
+                    inputNumber(buttonText);
+                }
+                break;
+        }
+    }
+
+    private void inputNumber(String num) {
+        if (waitingForOperand) {
+            currentInput = num;
+            waitingForOperand = false;
+        } else {
+            currentInput = currentInput.equals("0") ? num : currentInput + num;
+        }
+    }
+
+    private void inputDecimal() {
+        if (waitingForOperand) {
+            currentInput = "0.";
+            waitingForOperand = false;
+        } else if (!currentInput.contains(".")) {
+            currentInput += ".";
+        }
+    }
+
+    private void inputOperator(String op) {
+        if (!operator.isEmpty()) {
+            calculate();
+        }
+
+        firstNumber = Double.parseDouble(currentInput);
+        operator = op;
+        waitingForOperand = true;
+    }
+
+    private void calculate() {
+        if (!operator.isEmpty()) {
+            double secondNumber = Double.parseDouble(currentInput);
+            double result = 0;
+
+            switch (operator) {
+                case "+":
+                    result = firstNumber + secondNumber;
+                    break;
+                case "−":
+                    result = firstNumber - secondNumber;
+                    break;
+                case "×":
+                    result = firstNumber * secondNumber;
+                    break;
+                case "÷":
+                    if (secondNumber != 0) {
+                        result = firstNumber / secondNumber;
+                    } else {
+                        return;
+                    }
+                    break;
+            }
+
+            currentInput = formatResult(result);
+            operator = "";
+            waitingForOperand = true;
+        }
+    }
+
+    static String formatResult(double result) {
+        if (result == (long) result) {
+            return String.valueOf((long) result);
+        } else {
+            return String.valueOf(result);
+        }
+    }
+
+    void clear() {
+        currentInput = "0";
+        operator = "";
+        waitingForOperand = false;
+    }
+
+    private void toggleSign() {
+        if (!currentInput.equals("0")) {
+            currentInput = currentInput.startsWith("-") ?
+                currentInput.substring(1) : "-" + currentInput;
+        }
+    }
+
+    private void backspace() {
+        if (currentInput.length() > 1) {
+            currentInput = currentInput.substring(0, currentInput.length() - 1);
+        } else {
+            currentInput = "0";
+        }
+    }
+
+    String getCurrentValue() {
+        return currentInput;
+    }
+}
@@ -0,0 +1,76 @@
+package com.calculator.benchmarks;
+
+import com.calculator.engine.Operators;
+import com.calculator.engine.number.Arithmetic;
+import com.calculator.engine.number.DoubleArithmetic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы вызова одной операции: синхронный метод CalculatorSync против асинхронного
+ * performNativeCalculation. Оба плеча делают одну и ту же работу модуля - вычисление в
+ * переиспользуемый Result и карту {result, text, success}; "sync" выполняет ее в вызывающем
+ * потоке, как блокирующий метод в JS-потоке, "async" - в потоке native modules с ожиданием
+ * ответа, как Promise. Разница между ними - цена перехода между потоками.
+ * Сериализация сообщений моста здесь не учитывается, на устройстве разница только больше:
+ * см. CalculatorService.measureNativeCallOverhead().
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NativeCallBenchmark {
+    private final Arithmetic arithmetic = DoubleArithmetic.INSTANCE;
+    private final Arithmetic.Result result = new Arithmetic.Result();
+    // Как arithmeticResult в CalculatorBridgeModule: используется только в потоке native modules
+    private final Arithmetic.Result asyncResult = new Arithmetic.Result();
+    private ExecutorService nativeModulesThread;
+    private double operand;
+
+    @Setup
+    public void setUp() {
+        nativeModulesThread = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        nativeModulesThread.shutdownNow();
+    }
+
+    @Benchmark
+    public Object sync() {
+        operand += 1;
+        return calculate(operand, result);
+    }
+
+    @Benchmark
+    public Object async() throws Exception {
+        final double a = operand += 1;
+        CompletableFuture<Map<String, Object>> promise = new CompletableFuture<>();
+        nativeModulesThread.execute(() -> promise.complete(calculate(a, asyncResult)));
+        return promise.get();
+    }
+
+    // Работа модуля на один вызов: то же, что строят calculateSync и performNativeCalculation
+    private Map<String, Object> calculate(double a, Arithmetic.Result target) {
+        arithmetic.apply(Operators.ADD, a, 3, target);
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("result", target.value);
+        resultMap.put("text", target.text.toString());
+        resultMap.put("success", true);
+        return resultMap;
+    }
+}
@@ -0,0 +1,63 @@
+package com.calculator.benchmarks;
+
+import com.calculator.engine.CalculatorEngine;
+import com.calculator.engine.Keys;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цепочка операторов "12.5 + 3 × 4 − 7 ÷ 2 =" с локальным вычислением на каждом шаге,
+ * включая разбор операндов (Double.parseDouble в прежнем inputOperator).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OperatorChainBenchmark {
+    private static final String[] LABELS = {
+        "1", "2", ".", "5", "+", "3", "×", "4", "−", "7", "÷", "2", "=", "C"
+    };
+
+    private int[] keys;
+    private CalculatorEngine engine;
+    private LegacyCalculator legacy;
+
+    @Setup
+    public void setUp() {
+        keys = new int[LABELS.length];
+        for (int i = 0; i < LABELS.length; i++) {
+            keys[i] = Keys.forLabel(LABELS[i]);
+        }
+        engine = new CalculatorEngine();
+        legacy = new LegacyCalculator();
+    }
+
+    @Benchmark
+    public int engine() {
+        int length = 0;
+        for (int key : keys) {
+            if (engine.press(key) == CalculatorEngine.ACTION_EVALUATE) {
+                engine.evaluateLocally();
+            }
+            length += engine.getDisplayLength();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int legacy() {
+        int length = 0;
+        for (String label : LABELS) {
+            legacy.onButtonClick(label);
+            length += legacy.getCurrentValue().length();
+        }
+        return length;
+    }
+}
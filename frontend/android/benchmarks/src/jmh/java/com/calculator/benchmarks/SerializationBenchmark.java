@@ -0,0 +1,87 @@
+package com.calculator.benchmarks;
+
+import com.calculator.engine.json.JsonWriter;
+import com.calculator.engine.remote.CalculatorCodec;
+
+import org.json.JSONObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование запроса и разбор ответа /calculate так, как это делал CalculateTask.doInBackground
+ * (org.json), против потокового CalculatorCodec. Без сетевой части.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+    private static final String RESPONSE =
+        "{\"success\":true,\"result\":0.30000000000000004,"
+            + "\"calculation\":{\"a\":0.1,\"b\":0.2,\"operation\":\"+\",\"result\":0.30000000000000004}}";
+
+    private byte[] responseBytes;
+    private final JsonWriter writer = new JsonWriter();
+    private final CalculatorCodec.Response response = new CalculatorCodec.Response();
+
+    @Setup
+    public void setUp() {
+        responseBytes = RESPONSE.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeRequest() throws Exception {
+        JSONObject requestData = new JSONObject();
+        requestData.put("a", 0.1);
+        requestData.put("b", 0.2);
+        requestData.put("operation", "+");
+        return requestData.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public double decodeResponse() throws Exception {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new ByteArrayInputStream(responseBytes)));
+        StringBuilder response = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            response.append(line);
+        }
+        reader.close();
+
+        JSONObject jsonResponse = new JSONObject(response.toString());
+        if (!jsonResponse.getBoolean("success")) {
+            throw new IOException(jsonResponse.getString("error"));
+        }
+        // Результат проходит через строку, как в onPostExecute
+        return Double.parseDouble(String.valueOf(jsonResponse.getDouble("result")));
+    }
+
+    @Benchmark
+    public int encodeRequestStreaming() {
+        // Буфер переиспользуется, в сеть уходит writer.writeTo(outputStream)
+        CalculatorCodec.writeCalculateRequest(writer.reset(), 0.1, 0.2, "+");
+        return writer.size();
+    }
+
+    @Benchmark
+    public double decodeResponseStreaming() throws Exception {
+        CalculatorCodec.readResponse(new ByteArrayInputStream(responseBytes), response);
+        if (!response.success) {
+            throw new IOException(response.error);
+        }
+        return response.result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.calculator.engine;
+
+import java.util.Arrays;
+
+/**
+ * Шаги текущей цепочки операторов ("1 + 2 + 3 + 4 =") в порядке выполнения.
+ * Хранится в параллельных массивах, которые переиспользуются между цепочками.
+ */
+public final class CalculationChain {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private double[] firstOperands = new double[INITIAL_CAPACITY];
+    private double[] secondOperands = new double[INITIAL_CAPACITY];
+    private int[] operators = new int[INITIAL_CAPACITY];
+    private double[] results = new double[INITIAL_CAPACITY];
+    private int size;
+
+    void add(double firstOperand, int operator, double secondOperand, double result) {
+        if (size == operators.length) {
+            int capacity = size * 2;
+            firstOperands = Arrays.copyOf(firstOperands, capacity);
+            secondOperands = Arrays.copyOf(secondOperands, capacity);
+            operators = Arrays.copyOf(operators, capacity);
+            results = Arrays.copyOf(results, capacity);
+        }
+        firstOperands[size] = firstOperand;
+        secondOperands[size] = secondOperand;
+        operators[size] = operator;
+        results[size] = result;
+        size++;
+    }
+
+    void replaceLastResult(double result) {
+        if (size > 0) {
+            results[size - 1] = result;
+        }
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    /**
+     * Копия шагов начиная с fromIndex: цепочка переиспользуется, а копия нужна после ответа сервера.
+     */
+    public CalculationChain copyFrom(int fromIndex) {
+        CalculationChain copy = new CalculationChain();
+        for (int i = Math.max(fromIndex, 0); i < size; i++) {
+            copy.add(firstOperands[i], operators[i], secondOperands[i], results[i]);
+        }
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getFirstOperand(int index) {
+        return firstOperands[index];
+    }
+
+    public double getSecondOperand(int index) {
+        return secondOperands[index];
+    }
+
+    public int getOperator(int index) {
+        return operators[index];
+    }
+
+    public double getResult(int index) {
+        return results[index];
+    }
+}
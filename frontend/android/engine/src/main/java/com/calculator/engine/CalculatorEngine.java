@@ -0,0 +1,393 @@
+package com.calculator.engine;
+
+import com.calculator.engine.number.Arithmetic;
+import com.calculator.engine.number.Decimals;
+import com.calculator.engine.number.DoubleArithmetic;
+import com.calculator.engine.number.ShortestDecimal;
+
+import java.util.Arrays;
+
+/**
+ * Машина состояний калькулятора, общая для MainActivity и NativeCalculatorViewManager.
+ *
+ * Ввод хранится в переиспользуемом массиве char, поэтому нажатия цифр, точки,
+ * смены знака, стирания и операторов не создают объектов. Вычисление пары
+ * операндов выполняет вызывающий код (локально или через API), движок лишь
+ * сообщает, что оно требуется, и принимает результат. Локальное вычисление идет
+ * через выбранный числовой бэкенд ({@link Arithmetic}) по десятичной записи операндов.
+ */
+public final class CalculatorEngine {
+    // Что должен сделать вызывающий код после нажатия
+    public static final int ACTION_NONE = 0;
+    public static final int ACTION_DISPLAY_CHANGED = 1;
+    public static final int ACTION_EVALUATE = 2;
+
+    // Результат локального вычисления
+    public static final int STATUS_OK = 0;
+    public static final int STATUS_DIVISION_BY_ZERO = Arithmetic.STATUS_DIVISION_BY_ZERO;
+    // Операнд не число (например, "Infinity" в точном бэкенде)
+    public static final int STATUS_INVALID_NUMBER = Arithmetic.STATUS_INVALID_NUMBER;
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private char[] input = new char[INITIAL_CAPACITY];
+    private int length;
+    // Запись первого операнда: точные бэкенды считают по ней, а не по double
+    private char[] firstInput = new char[INITIAL_CAPACITY];
+    private int firstLength;
+    private final Arithmetic.Result localResult = new Arithmetic.Result();
+    private final ShortestDecimal shortest = new ShortestDecimal();
+    private int operator = Operators.NONE;
+    private int chainedOperator = Operators.NONE;
+    private double firstNumber;
+    private double secondNumber;
+    private boolean waitingForOperand;
+
+    // Ожидающее вычисление: результат с устаревшим id отбрасывается
+    private int evaluationId;
+    private boolean evaluationPending;
+    private final CalculationChain chain = new CalculationChain();
+    // Вычисление, чей результат сейчас на дисплее и еще не затронут вводом
+    private int displayedResultId = -1;
+
+    public CalculatorEngine() {
+        clear();
+    }
+
+    public int press(int key) {
+        displayedResultId = -1;
+        if (evaluationPending && key != Keys.EQUALS && Operators.fromKey(key) == Operators.NONE) {
+            // Пользователь продолжил ввод, пока шло вычисление: его результат больше не актуален
+            invalidateEvaluation();
+        }
+        switch (key) {
+            case Keys.CLEAR:
+                clear();
+                return ACTION_DISPLAY_CHANGED;
+            case Keys.TOGGLE_SIGN:
+                return toggleSign() ? ACTION_DISPLAY_CHANGED : ACTION_NONE;
+            case Keys.BACKSPACE:
+                backspace();
+                return ACTION_DISPLAY_CHANGED;
+            case Keys.DECIMAL:
+                inputDecimal();
+                return ACTION_DISPLAY_CHANGED;
+            case Keys.EQUALS:
+                return beginEvaluation(Operators.NONE);
+            case Keys.ADD:
+            case Keys.SUBTRACT:
+            case Keys.MULTIPLY:
+            case Keys.DIVIDE:
+                return inputOperator(Operators.fromKey(key));
+            default:
+                if (Keys.isDigit(key)) {
+                    inputDigit((char) ('0' + key));
+                    return ACTION_DISPLAY_CHANGED;
+                }
+                return ACTION_NONE;
+        }
+    }
+
+    private void inputDigit(char digit) {
+        if (waitingForOperand) {
+            length = 0;
+            waitingForOperand = false;
+        } else if (isZero()) {
+            length = 0;
+        }
+        append(digit);
+    }
+
+    private void inputDecimal() {
+        if (waitingForOperand) {
+            length = 0;
+            append('0');
+            append('.');
+            waitingForOperand = false;
+        } else if (indexOf('.') < 0) {
+            append('.');
+        }
+    }
+
+    private int inputOperator(int op) {
+        if (operator != Operators.NONE) {
+            return beginEvaluation(op);
+        }
+        // Первый оператор начинает новую цепочку
+        chain.reset();
+        captureFirstOperand();
+        operator = op;
+        waitingForOperand = true;
+        return ACTION_NONE;
+    }
+
+    private int beginEvaluation(int nextOperator) {
+        if (operator == Operators.NONE) {
+            return ACTION_NONE;
+        }
+        secondNumber = parseInput();
+        chainedOperator = nextOperator;
+        evaluationId++;
+        evaluationPending = true;
+        return ACTION_EVALUATE;
+    }
+
+    /**
+     * Идентификатор текущего ожидающего вычисления, выданного последним ACTION_EVALUATE.
+     */
+    public int getEvaluationId() {
+        return evaluationId;
+    }
+
+    /**
+     * Вычисление вызвано оператором в цепочке, а не кнопкой "=".
+     */
+    public boolean isChainedEvaluation() {
+        return chainedOperator != Operators.NONE;
+    }
+
+    public CalculationChain getChain() {
+        return chain;
+    }
+
+    /**
+     * Вычисляет ожидающую операцию на месте в double.
+     */
+    public int evaluateLocally() {
+        return evaluateLocally(DoubleArithmetic.INSTANCE);
+    }
+
+    /**
+     * Вычисляет ожидающую операцию на месте выбранным бэкендом.
+     */
+    public int evaluateLocally(Arithmetic arithmetic) {
+        int status = arithmetic.apply(operator, firstInput, firstLength, input, length, localResult);
+        if (status != STATUS_OK) {
+            failEvaluation();
+            return status;
+        }
+        chain.add(firstNumber, operator, secondNumber, localResult.value);
+        writeChars(localResult.text);
+        finishEvaluation();
+        return STATUS_OK;
+    }
+
+    /**
+     * Принимает результат ожидающей операции, полученный вне движка (например, от API).
+     */
+    public void completeEvaluation(double result) {
+        chain.add(firstNumber, operator, secondNumber, result);
+        setInput(result);
+        finishEvaluation();
+    }
+
+    private void finishEvaluation() {
+        evaluationPending = false;
+        displayedResultId = evaluationId;
+        operator = Operators.NONE;
+        waitingForOperand = true;
+        applyChainedOperator();
+    }
+
+    /**
+     * Отменяет ожидающую операцию, оставляя введенное значение как есть.
+     */
+    public void failEvaluation() {
+        evaluationPending = false;
+        applyChainedOperator();
+    }
+
+    /**
+     * Асинхронный вариант: применяет результат, только если вычисление с этим id
+     * все еще ожидается. Поздние и вытесненные ответы игнорируются.
+     */
+    public boolean completeEvaluation(int id, double result) {
+        if (!evaluationPending || id != evaluationId) {
+            return false;
+        }
+        completeEvaluation(result);
+        return true;
+    }
+
+    public boolean failEvaluation(int id) {
+        if (!evaluationPending || id != evaluationId) {
+            return false;
+        }
+        failEvaluation();
+        return true;
+    }
+
+    public boolean isEvaluationPending(int id) {
+        return evaluationPending && id == evaluationId;
+    }
+
+    /**
+     * Заменяет уже показанный результат вычисления id другим значением (например,
+     * ответом сервера), если после него не было ввода.
+     */
+    public boolean reconcileResult(int id, double result) {
+        if (displayedResultId != id || id != evaluationId) {
+            return false;
+        }
+        chain.replaceLastResult(result);
+        setInput(result);
+        if (operator != Operators.NONE && waitingForOperand) {
+            // Результат уже стал первым операндом следующего оператора цепочки
+            captureFirstOperand();
+        }
+        return true;
+    }
+
+    private void invalidateEvaluation() {
+        evaluationPending = false;
+        chainedOperator = Operators.NONE;
+        evaluationId++;
+    }
+
+    private void applyChainedOperator() {
+        if (chainedOperator != Operators.NONE) {
+            captureFirstOperand();
+            operator = chainedOperator;
+            chainedOperator = Operators.NONE;
+            waitingForOperand = true;
+        }
+    }
+
+    public void clear() {
+        displayedResultId = -1;
+        length = 0;
+        append('0');
+        operator = Operators.NONE;
+        chainedOperator = Operators.NONE;
+        waitingForOperand = false;
+        invalidateEvaluation();
+        chain.reset();
+    }
+
+    private boolean toggleSign() {
+        if (isZero()) {
+            return false;
+        }
+        if (input[0] == '-') {
+            System.arraycopy(input, 1, input, 0, length - 1);
+            length--;
+        } else {
+            ensureCapacity(length + 1);
+            System.arraycopy(input, 0, input, 1, length);
+            input[0] = '-';
+            length++;
+        }
+        return true;
+    }
+
+    private void backspace() {
+        if (length > 1) {
+            length--;
+        } else {
+            length = 0;
+            append('0');
+        }
+    }
+
+    // Публичные методы для платформенного слоя
+    public char[] getDisplayChars() {
+        return input;
+    }
+
+    public int getDisplayLength() {
+        return length;
+    }
+
+    /**
+     * На дисплее результат вычисления, а не набираемое число.
+     */
+    public boolean isResultDisplayed() {
+        return displayedResultId >= 0;
+    }
+
+    public String getCurrentValue() {
+        return new String(input, 0, length);
+    }
+
+    public void setValue(CharSequence value) {
+        displayedResultId = -1;
+        if (evaluationPending) {
+            invalidateEvaluation();
+        }
+        writeChars(value);
+    }
+
+    private void writeChars(CharSequence value) {
+        length = 0;
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            input[length++] = value.charAt(i);
+        }
+    }
+
+    public int getOperator() {
+        return operator;
+    }
+
+    public double getFirstOperand() {
+        return firstNumber;
+    }
+
+    public double getSecondOperand() {
+        return secondNumber;
+    }
+
+    public boolean isWaitingForOperand() {
+        return waitingForOperand;
+    }
+
+    /**
+     * Текстовое описание ожидающей операции для событий в React Native.
+     */
+    public String pendingExpression() {
+        return firstNumber + " " + Operators.displaySymbol(operator) + " " + secondNumber;
+    }
+
+    private void setInput(double value) {
+        ensureCapacity(ShortestDecimal.MAX_LENGTH);
+        length = shortest.set(value).write(input, 0);
+    }
+
+    private void captureFirstOperand() {
+        firstNumber = parseInput();
+        if (firstInput.length < length) {
+            firstInput = Arrays.copyOf(input, input.length);
+        } else {
+            System.arraycopy(input, 0, firstInput, 0, length);
+        }
+        firstLength = length;
+    }
+
+    private double parseInput() {
+        return Decimals.parseDouble(input, length);
+    }
+
+    private boolean isZero() {
+        return length == 1 && input[0] == '0';
+    }
+
+    private int indexOf(char c) {
+        for (int i = 0; i < length; i++) {
+            if (input[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void append(char c) {
+        ensureCapacity(length + 1);
+        input[length++] = c;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > input.length) {
+            input = Arrays.copyOf(input, Math.max(capacity, input.length * 2));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.calculator.engine;
+
+/**
+ * Коды клавиш калькулятора.
+ * Подпись кнопки переводится в код один раз при создании кнопки,
+ * дальше движок работает только с int без сравнения строк.
+ */
+public final class Keys {
+    public static final int UNKNOWN = -1;
+
+    // Цифры 0-9 совпадают со своим значением
+    public static final int DIGIT_0 = 0;
+    public static final int DIGIT_9 = 9;
+
+    public static final int DECIMAL = 10;
+    public static final int ADD = 11;
+    public static final int SUBTRACT = 12;
+    public static final int MULTIPLY = 13;
+    public static final int DIVIDE = 14;
+    public static final int EQUALS = 15;
+    public static final int CLEAR = 16;
+    public static final int TOGGLE_SIGN = 17;
+    public static final int BACKSPACE = 18;
+    public static final int PERCENT = 19;
+
+    private Keys() {
+    }
+
+    public static int forLabel(String label) {
+        if (label == null || label.length() != 1) {
+            return UNKNOWN;
+        }
+        char c = label.charAt(0);
+        if (c >= '0' && c <= '9') {
+            return DIGIT_0 + (c - '0');
+        }
+        switch (c) {
+            case '.': return DECIMAL;
+            case '+': return ADD;
+            case '−': return SUBTRACT;
+            case '×': return MULTIPLY;
+            case '÷': return DIVIDE;
+            case '=': return EQUALS;
+            case 'C': return CLEAR;
+            case '±': return TOGGLE_SIGN;
+            case '⌫': return BACKSPACE;
+            case '%': return PERCENT;
+            default: return UNKNOWN;
+        }
+    }
+
+    public static boolean isDigit(int key) {
+        return key >= DIGIT_0 && key <= DIGIT_9;
+    }
+}
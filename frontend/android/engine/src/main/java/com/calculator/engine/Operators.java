@@ -0,0 +1,59 @@
+package com.calculator.engine;
+
+/**
+ * Бинарные операции калькулятора и их представления для дисплея и для API.
+ */
+public final class Operators {
+    public static final int NONE = 0;
+    public static final int ADD = 1;
+    public static final int SUBTRACT = 2;
+    public static final int MULTIPLY = 3;
+    public static final int DIVIDE = 4;
+
+    private static final String[] DISPLAY_SYMBOLS = {"", "+", "−", "×", "÷"};
+    private static final String[] API_SYMBOLS = {"", "+", "-", "*", "/"};
+
+    private Operators() {
+    }
+
+    public static String displaySymbol(int operator) {
+        return DISPLAY_SYMBOLS[operator];
+    }
+
+    public static String apiSymbol(int operator) {
+        return API_SYMBOLS[operator];
+    }
+
+    public static int fromKey(int key) {
+        switch (key) {
+            case Keys.ADD: return ADD;
+            case Keys.SUBTRACT: return SUBTRACT;
+            case Keys.MULTIPLY: return MULTIPLY;
+            case Keys.DIVIDE: return DIVIDE;
+            default: return NONE;
+        }
+    }
+
+    public static int fromApiSymbol(String symbol) {
+        if (symbol == null || symbol.length() != 1) {
+            return NONE;
+        }
+        switch (symbol.charAt(0)) {
+            case '+': return ADD;
+            case '-': return SUBTRACT;
+            case '*': return MULTIPLY;
+            case '/': return DIVIDE;
+            default: return NONE;
+        }
+    }
+
+    public static double apply(int operator, double a, double b) {
+        switch (operator) {
+            case ADD: return a + b;
+            case SUBTRACT: return a - b;
+            case MULTIPLY: return a * b;
+            case DIVIDE: return a / b;
+            default: return 0;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.calculator.engine.event;
+
+/**
+ * Очередь событий, отправляемых пачкой, с ограничением частоты отправки.
+ *
+ * События копятся между сбросами в параллельных массивах фиксированной емкости. Заменяемое
+ * событие (например, промежуточный результат, который следующий все равно перекроет) при
+ * POLICY_DROP_SUPERSEDED вытесняет ожидающее заменяемое событие того же вида; при переполнении
+ * отбрасывается самое старое. Отброшенные события считаются до следующего сброса.
+ * Не потокобезопасна: очередью владеет один поток.
+ */
+public final class EventQueue<T> {
+    public static final int POLICY_KEEP_ALL = 0;
+    public static final int POLICY_DROP_SUPERSEDED = 1;
+
+    private static final String[] POLICY_NAMES = {"keepAll", "dropSuperseded"};
+
+    private final int[] kinds;
+    private final boolean[] supersedable;
+    private final Object[] payloads;
+    private int size;
+    private int dropped;
+    private int policy = POLICY_DROP_SUPERSEDED;
+    private long minIntervalNanos;
+    private boolean flushedBefore;
+    private long lastFlushNanos;
+
+    public EventQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        kinds = new int[capacity];
+        supersedable = new boolean[capacity];
+        payloads = new Object[capacity];
+    }
+
+    public static String policyName(int policy) {
+        return POLICY_NAMES[policy];
+    }
+
+    /**
+     * Политика по имени из policyName(), -1 - неизвестное имя.
+     */
+    public static int policyForName(String name) {
+        for (int i = 0; i < POLICY_NAMES.length; i++) {
+            if (POLICY_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void setPolicy(int policy) {
+        this.policy = policy;
+    }
+
+    public int getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Минимальный промежуток между сбросами, 0 - без ограничения.
+     */
+    public void setMinIntervalNanos(long minIntervalNanos) {
+        this.minIntervalNanos = minIntervalNanos;
+    }
+
+    public void offer(int kind, boolean supersedable, T payload) {
+        if (supersedable && policy == POLICY_DROP_SUPERSEDED) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (this.supersedable[i] && kinds[i] == kind) {
+                    removeAt(i);
+                    dropped++;
+                    break;
+                }
+            }
+        }
+        if (size == kinds.length) {
+            removeAt(0);
+            dropped++;
+        }
+        kinds[size] = kind;
+        this.supersedable[size] = supersedable;
+        payloads[size] = payload;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getKind(int index) {
+        return kinds[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) payloads[index];
+    }
+
+    /**
+     * Сколько событий вытеснено или отброшено с прошлого сброса.
+     */
+    public int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Сколько осталось ждать до разрешенного сброса, 0 - сбрасывать можно сейчас.
+     */
+    public long delayNanos(long nowNanos) {
+        if (!flushedBefore || minIntervalNanos <= 0) {
+            return 0;
+        }
+        return Math.max(0, lastFlushNanos + minIntervalNanos - nowNanos);
+    }
+
+    /**
+     * Отмечает отправку накопленных событий и очищает очередь.
+     */
+    public void flushed(long nowNanos) {
+        clear();
+        flushedBefore = true;
+        lastFlushNanos = nowNanos;
+    }
+
+    /**
+     * Отбрасывает накопленное без отправки; отсчет частоты не сбрасывается.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            payloads[i] = null;
+        }
+        size = 0;
+        dropped = 0;
+    }
+
+    private void removeAt(int index) {
+        int tail = size - index - 1;
+        System.arraycopy(kinds, index + 1, kinds, index, tail);
+        System.arraycopy(supersedable, index + 1, supersedable, index, tail);
+        System.arraycopy(payloads, index + 1, payloads, index, tail);
+        size--;
+        payloads[size] = null;
+    }
+}
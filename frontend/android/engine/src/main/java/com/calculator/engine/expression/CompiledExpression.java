@@ -0,0 +1,143 @@
+package com.calculator.engine.expression;
+
+/**
+ * Скомпилированное выражение: постфиксный байткод над стеком double.
+ *
+ * Каждая инструкция - один int: младший байт содержит код операции, остальные биты -
+ * операнд (номер константы, слота переменной или функции). Объект неизменяемый
+ * и может использоваться из нескольких потоков, если каждый поток передает свой стек.
+ */
+public final class CompiledExpression {
+    static final int OPERAND_SHIFT = 8;
+    private static final int OPCODE_MASK = 0xFF;
+
+    static final int CONST = 0;
+    static final int LOAD = 1;
+    static final int NEG = 2;
+    static final int ADD = 3;
+    static final int SUB = 4;
+    static final int MUL = 5;
+    static final int DIV = 6;
+    static final int MOD = 7;
+    static final int POW = 8;
+    static final int CALL1 = 9;
+    static final int CALL2 = 10;
+
+    private static final double[] NO_VARIABLES = new double[0];
+
+    private final String source;
+    private final int[] code;
+    private final double[] constants;
+    private final String[] variableNames;
+    private final int maxStackDepth;
+
+    CompiledExpression(String source, int[] code, double[] constants, String[] variableNames, int maxStackDepth) {
+        this.source = source;
+        this.code = code;
+        this.constants = constants;
+        this.variableNames = variableNames;
+        this.maxStackDepth = maxStackDepth;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getVariableCount() {
+        return variableNames.length;
+    }
+
+    public String getVariableName(int slot) {
+        return variableNames[slot];
+    }
+
+    public int getVariableSlot(String name) {
+        for (int i = 0; i < variableNames.length; i++) {
+            if (variableNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getInstructionCount() {
+        return code.length;
+    }
+
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    /**
+     * Стек нужного размера для повторных вызовов {@link #evaluate(double[], double[])}.
+     */
+    public double[] newStack() {
+        return new double[maxStackDepth];
+    }
+
+    public double evaluate() {
+        return evaluate(NO_VARIABLES);
+    }
+
+    public double evaluate(double[] variables) {
+        return evaluate(variables, newStack());
+    }
+
+    public double evaluate(double[] variables, double[] stack) {
+        if (variables.length < variableNames.length) {
+            throw new IllegalArgumentException("Missing value for variable '"
+                + variableNames[variables.length] + "'");
+        }
+        if (stack.length < maxStackDepth) {
+            throw new IllegalArgumentException("Stack is too small: " + stack.length + " < " + maxStackDepth);
+        }
+        int sp = 0;
+        for (int insn : code) {
+            int opcode = insn & OPCODE_MASK;
+            int operand = insn >>> OPERAND_SHIFT;
+            switch (opcode) {
+                case CONST:
+                    stack[sp++] = constants[operand];
+                    break;
+                case LOAD:
+                    stack[sp++] = variables[operand];
+                    break;
+                case NEG:
+                    stack[sp - 1] = -stack[sp - 1];
+                    break;
+                case CALL1:
+                    stack[sp - 1] = Functions.apply(operand, stack[sp - 1]);
+                    break;
+                case CALL2:
+                    sp--;
+                    stack[sp - 1] = Functions.apply(operand, stack[sp - 1], stack[sp]);
+                    break;
+                default:
+                    sp--;
+                    if ((opcode == DIV || opcode == MOD) && stack[sp] == 0) {
+                        throw new ArithmeticException("Division by zero");
+                    }
+                    stack[sp - 1] = applyBinary(opcode, stack[sp - 1], stack[sp]);
+                    break;
+            }
+        }
+        return stack[0];
+    }
+
+    static double applyBinary(int opcode, double a, double b) {
+        switch (opcode) {
+            case ADD: return a + b;
+            case SUB: return a - b;
+            case MUL: return a * b;
+            case DIV: return a / b;
+            case MOD: return a % b;
+            case POW: return Math.pow(a, b);
+            default: throw new IllegalStateException("Unknown opcode: " + opcode);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,167 @@
+package com.calculator.engine.expression;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограниченный LRU кэш скомпилированных выражений.
+ *
+ * Ключ - нормализованный текст выражения (без лишних пробелов, символы дисплея заменены на ASCII),
+ * поэтому "2 × x" и "2*x" разделяют одну запись. Каждой записи выдается числовой handle,
+ * по которому выражение можно вычислять повторно без разбора. После вытеснения handle
+ * перестает действовать и выражение нужно скомпилировать заново.
+ */
+public final class ExpressionCache {
+    private final int capacity;
+    // Порядок доступа: первый элемент - давно не использованный
+    private final LinkedHashMap<String, Entry> byText;
+    private final Map<Integer, Entry> byHandle = new HashMap<>();
+    private int nextHandle = 1;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ExpressionCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.byText = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Возвращает handle выражения, компилируя его только при промахе.
+     */
+    public synchronized int compile(String source) {
+        return lookup(source).handle;
+    }
+
+    public synchronized CompiledExpression getOrCompile(String source) {
+        return lookup(source).expression;
+    }
+
+    /**
+     * Выражение по handle или null, если запись уже вытеснена.
+     */
+    public synchronized CompiledExpression get(int handle) {
+        Entry entry = byHandle.get(handle);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        // Обновляем позицию в LRU порядке
+        byText.get(entry.key);
+        hits++;
+        return entry.expression;
+    }
+
+    /**
+     * То же, что {@link #get(int)}, но без учета в статистике и без обновления LRU порядка.
+     */
+    public synchronized CompiledExpression peek(int handle) {
+        Entry entry = byHandle.get(handle);
+        return entry != null ? entry.expression : null;
+    }
+
+    private Entry lookup(String source) {
+        String key = normalize(source);
+        Entry entry = byText.get(key);
+        if (entry != null) {
+            hits++;
+            return entry;
+        }
+        misses++;
+        entry = new Entry(nextHandle++, key, ExpressionParser.compile(key));
+        byText.put(key, entry);
+        byHandle.put(entry.handle, entry);
+        evictIfNeeded();
+        return entry;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Entry> iterator = byText.values().iterator();
+        while (byText.size() > capacity && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            byHandle.remove(eldest.handle);
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        byText.clear();
+        byHandle.clear();
+    }
+
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return byText.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    static String normalize(String source) {
+        if (source == null) {
+            throw new ExpressionException("Empty expression", 0);
+        }
+        StringBuilder normalized = new StringBuilder(source.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            // Пробел между двумя операндами ("2 3", "x y") значим: без него получился бы другой токен
+            if (pendingSpace && isOperandChar(c) && isOperandChar(normalized.charAt(normalized.length() - 1))) {
+                normalized.append(' ');
+            }
+            pendingSpace = false;
+            switch (c) {
+                case '−': normalized.append('-'); break;
+                case '×': normalized.append('*'); break;
+                case '÷': normalized.append('/'); break;
+                default: normalized.append(c); break;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isOperandChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.' || c == '_';
+    }
+
+    private static final class Entry {
+        final int handle;
+        final String key;
+        final CompiledExpression expression;
+
+        Entry(int handle, String key, CompiledExpression expression) {
+            this.handle = handle;
+            this.key = key;
+            this.expression = expression;
+        }
+    }
+}
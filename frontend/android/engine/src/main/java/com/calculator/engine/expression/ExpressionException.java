@@ -0,0 +1,19 @@
+package com.calculator.engine.expression;
+
+/**
+ * Ошибка разбора выражения. Позиция указывает на символ исходного текста.
+ */
+public class ExpressionException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final int position;
+
+    public ExpressionException(String message, int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
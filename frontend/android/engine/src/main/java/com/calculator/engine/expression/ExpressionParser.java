@@ -0,0 +1,300 @@
+package com.calculator.engine.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбор выражения методом precedence climbing и компиляция дерева
+ * в постфиксный байткод {@link CompiledExpression}.
+ *
+ * Поддерживаются + - * / % ^, унарные плюс и минус, скобки, константы pi и e,
+ * функции из {@link Functions} и именованные переменные.
+ */
+public final class ExpressionParser {
+    private static final int MAX_DEPTH = 128;
+
+    private final String source;
+    private final Tokenizer tokenizer;
+    private final List<String> variables = new ArrayList<>();
+    private int depth;
+
+    private ExpressionParser(String source) {
+        this.source = source;
+        this.tokenizer = new Tokenizer(source);
+    }
+
+    public static CompiledExpression compile(String source) {
+        if (source == null) {
+            throw new ExpressionException("Empty expression", 0);
+        }
+        ExpressionParser parser = new ExpressionParser(source);
+        parser.tokenizer.next();
+        if (parser.tokenizer.type == Tokenizer.END) {
+            throw new ExpressionException("Empty expression", 0);
+        }
+        Node root = parser.parseExpression(1);
+        if (parser.tokenizer.type != Tokenizer.END) {
+            throw new ExpressionException("Unexpected token", parser.tokenizer.start);
+        }
+        return new Compiler(source, parser.variables).compile(root);
+    }
+
+    private Node parseExpression(int minPrecedence) {
+        enter();
+        Node left = parseUnary();
+        while (true) {
+            int opcode = binaryOpcode(tokenizer.type);
+            int precedence = precedence(opcode);
+            if (opcode < 0 || precedence < minPrecedence) {
+                break;
+            }
+            tokenizer.next();
+            // Все бинарные операторы этого уровня левоассоциативны
+            Node right = parseExpression(precedence + 1);
+            left = fold(Node.binary(opcode, left, right));
+        }
+        depth--;
+        return left;
+    }
+
+    private Node parseUnary() {
+        if (tokenizer.type == Tokenizer.MINUS) {
+            tokenizer.next();
+            enter();
+            Node operand = parseUnary();
+            depth--;
+            return fold(Node.negate(operand));
+        }
+        // Унарный плюс ничего не меняет: пропускаем циклом, без рекурсии и без расхода глубины
+        if (tokenizer.type == Tokenizer.PLUS) {
+            do {
+                tokenizer.next();
+            } while (tokenizer.type == Tokenizer.PLUS);
+            return parseUnary();
+        }
+        return parsePower();
+    }
+
+    // Степень связывает сильнее унарного минуса и правоассоциативна: -2^2 = -4, 2^3^2 = 512
+    private Node parsePower() {
+        Node base = parsePrimary();
+        if (tokenizer.type == Tokenizer.CARET) {
+            tokenizer.next();
+            enter();
+            Node exponent = parseUnary();
+            depth--;
+            return fold(Node.binary(CompiledExpression.POW, base, exponent));
+        }
+        return base;
+    }
+
+    private Node parsePrimary() {
+        int start = tokenizer.start;
+        switch (tokenizer.type) {
+            case Tokenizer.NUMBER: {
+                double value = tokenizer.number;
+                tokenizer.next();
+                return Node.constant(value);
+            }
+            case Tokenizer.LEFT_PAREN: {
+                tokenizer.next();
+                Node inner = parseExpression(1);
+                expect(Tokenizer.RIGHT_PAREN, "Missing ')'");
+                return inner;
+            }
+            case Tokenizer.IDENTIFIER: {
+                String name = tokenizer.identifier;
+                tokenizer.next();
+                if (tokenizer.type == Tokenizer.LEFT_PAREN) {
+                    return parseCall(name, start);
+                }
+                double constant = Functions.constant(name);
+                if (!Double.isNaN(constant)) {
+                    return Node.constant(constant);
+                }
+                return Node.variable(slotFor(name));
+            }
+            case Tokenizer.END:
+                throw new ExpressionException("Unexpected end of expression", start);
+            default:
+                throw new ExpressionException("Unexpected token", start);
+        }
+    }
+
+    private Node parseCall(String name, int start) {
+        int function = Functions.lookup(name);
+        if (function == Functions.UNKNOWN) {
+            throw new ExpressionException("Unknown function '" + name + "'", start);
+        }
+        tokenizer.next();
+        Node first = parseExpression(1);
+        Node second = null;
+        if (Functions.arity(function) == 2) {
+            expect(Tokenizer.COMMA, "Function '" + name + "' expects 2 arguments");
+            second = parseExpression(1);
+        }
+        expect(Tokenizer.RIGHT_PAREN, "Missing ')'");
+        return fold(Node.call(function, first, second));
+    }
+
+    private void expect(int type, String message) {
+        if (tokenizer.type != type) {
+            throw new ExpressionException(message, tokenizer.start);
+        }
+        tokenizer.next();
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw new ExpressionException("Expression is too deeply nested", tokenizer.start);
+        }
+    }
+
+    private int slotFor(String name) {
+        int slot = variables.indexOf(name);
+        if (slot < 0) {
+            slot = variables.size();
+            variables.add(name);
+        }
+        return slot;
+    }
+
+    // Свертка констант на этапе компиляции
+    private static Node fold(Node node) {
+        switch (node.kind) {
+            case Node.NEGATE:
+                return node.left.isConstant() ? Node.constant(-node.left.value) : node;
+            case Node.BINARY:
+                if (node.left.isConstant() && node.right.isConstant()) {
+                    boolean byZero = (node.index == CompiledExpression.DIV || node.index == CompiledExpression.MOD)
+                        && node.right.value == 0;
+                    // Деление на ноль оставляем до выполнения, чтобы ошибка была единообразной
+                    if (!byZero) {
+                        return Node.constant(CompiledExpression.applyBinary(node.index, node.left.value, node.right.value));
+                    }
+                }
+                return node;
+            case Node.CALL:
+                if (node.left.isConstant() && (node.right == null || node.right.isConstant())) {
+                    double value = node.right == null
+                        ? Functions.apply(node.index, node.left.value)
+                        : Functions.apply(node.index, node.left.value, node.right.value);
+                    return Node.constant(value);
+                }
+                return node;
+            default:
+                return node;
+        }
+    }
+
+    private static int binaryOpcode(int tokenType) {
+        switch (tokenType) {
+            case Tokenizer.PLUS: return CompiledExpression.ADD;
+            case Tokenizer.MINUS: return CompiledExpression.SUB;
+            case Tokenizer.STAR: return CompiledExpression.MUL;
+            case Tokenizer.SLASH: return CompiledExpression.DIV;
+            case Tokenizer.PERCENT: return CompiledExpression.MOD;
+            default: return -1;
+        }
+    }
+
+    private static int precedence(int opcode) {
+        switch (opcode) {
+            case CompiledExpression.ADD:
+            case CompiledExpression.SUB:
+                return 1;
+            case CompiledExpression.MUL:
+            case CompiledExpression.DIV:
+            case CompiledExpression.MOD:
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Обход дерева в постфиксном порядке с подсчетом глубины стека.
+     */
+    private static final class Compiler {
+        private final String source;
+        private final List<String> variables;
+        private int[] code = new int[16];
+        private int codeLength;
+        private double[] constants = new double[8];
+        private int constantCount;
+        private int stackDepth;
+        private int maxStackDepth;
+
+        Compiler(String source, List<String> variables) {
+            this.source = source;
+            this.variables = variables;
+        }
+
+        CompiledExpression compile(Node root) {
+            emitNode(root);
+            int[] finalCode = new int[codeLength];
+            System.arraycopy(code, 0, finalCode, 0, codeLength);
+            double[] finalConstants = new double[constantCount];
+            System.arraycopy(constants, 0, finalConstants, 0, constantCount);
+            return new CompiledExpression(source, finalCode, finalConstants,
+                variables.toArray(new String[0]), maxStackDepth);
+        }
+
+        private void emitNode(Node node) {
+            switch (node.kind) {
+                case Node.CONSTANT:
+                    emit(CompiledExpression.CONST, addConstant(node.value), 1);
+                    break;
+                case Node.VARIABLE:
+                    emit(CompiledExpression.LOAD, node.index, 1);
+                    break;
+                case Node.NEGATE:
+                    emitNode(node.left);
+                    emit(CompiledExpression.NEG, 0, 0);
+                    break;
+                case Node.BINARY:
+                    emitNode(node.left);
+                    emitNode(node.right);
+                    emit(node.index, 0, -1);
+                    break;
+                case Node.CALL:
+                    emitNode(node.left);
+                    if (node.right == null) {
+                        emit(CompiledExpression.CALL1, node.index, 0);
+                    } else {
+                        emitNode(node.right);
+                        emit(CompiledExpression.CALL2, node.index, -1);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown node kind: " + node.kind);
+            }
+        }
+
+        private int addConstant(double value) {
+            for (int i = 0; i < constantCount; i++) {
+                if (Double.doubleToLongBits(constants[i]) == Double.doubleToLongBits(value)) {
+                    return i;
+                }
+            }
+            if (constantCount == constants.length) {
+                double[] grown = new double[constants.length * 2];
+                System.arraycopy(constants, 0, grown, 0, constantCount);
+                constants = grown;
+            }
+            constants[constantCount] = value;
+            return constantCount++;
+        }
+
+        private void emit(int opcode, int operand, int stackDelta) {
+            if (codeLength == code.length) {
+                int[] grown = new int[code.length * 2];
+                System.arraycopy(code, 0, grown, 0, codeLength);
+                code = grown;
+            }
+            code[codeLength++] = (operand << CompiledExpression.OPERAND_SHIFT) | opcode;
+            stackDepth += stackDelta;
+            maxStackDepth = Math.max(maxStackDepth, stackDepth);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.calculator.engine.expression;
+
+/**
+ * Встроенные функции и константы выражений.
+ */
+final class Functions {
+    static final int UNKNOWN = -1;
+
+    // Функции одного аргумента
+    static final int SQRT = 0;
+    static final int ABS = 1;
+    static final int SIN = 2;
+    static final int COS = 3;
+    static final int TAN = 4;
+    static final int ASIN = 5;
+    static final int ACOS = 6;
+    static final int ATAN = 7;
+    static final int LN = 8;
+    static final int LOG = 9;
+    static final int EXP = 10;
+    static final int FLOOR = 11;
+    static final int CEIL = 12;
+    static final int ROUND = 13;
+
+    // Функции двух аргументов
+    static final int MIN = 14;
+    static final int MAX = 15;
+    static final int POW = 16;
+
+    private static final String[] NAMES = {
+        "sqrt", "abs", "sin", "cos", "tan", "asin", "acos", "atan",
+        "ln", "log", "exp", "floor", "ceil", "round", "min", "max", "pow"
+    };
+
+    private Functions() {
+    }
+
+    static int lookup(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    static int arity(int function) {
+        return function >= MIN ? 2 : 1;
+    }
+
+    static String name(int function) {
+        return NAMES[function];
+    }
+
+    static double constant(String name) {
+        switch (name) {
+            case "pi":
+            case "π":
+                return Math.PI;
+            case "e":
+                return Math.E;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    static double apply(int function, double x) {
+        switch (function) {
+            case SQRT: return Math.sqrt(x);
+            case ABS: return Math.abs(x);
+            case SIN: return Math.sin(x);
+            case COS: return Math.cos(x);
+            case TAN: return Math.tan(x);
+            case ASIN: return Math.asin(x);
+            case ACOS: return Math.acos(x);
+            case ATAN: return Math.atan(x);
+            case LN: return Math.log(x);
+            case LOG: return Math.log10(x);
+            case EXP: return Math.exp(x);
+            case FLOOR: return Math.floor(x);
+            case CEIL: return Math.ceil(x);
+            case ROUND: return Math.round(x);
+            default: throw new IllegalStateException("Not a unary function: " + function);
+        }
+    }
+
+    static double apply(int function, double x, double y) {
+        switch (function) {
+            case MIN: return Math.min(x, y);
+            case MAX: return Math.max(x, y);
+            case POW: return Math.pow(x, y);
+            default: throw new IllegalStateException("Not a binary function: " + function);
+        }
+    }
+}
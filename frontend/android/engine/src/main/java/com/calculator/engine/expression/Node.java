@@ -0,0 +1,62 @@
+package com.calculator.engine.expression;
+
+/**
+ * Узел синтаксического дерева. Живет только во время компиляции.
+ */
+final class Node {
+    static final int CONSTANT = 0;
+    static final int VARIABLE = 1;
+    static final int NEGATE = 2;
+    static final int BINARY = 3;
+    static final int CALL = 4;
+
+    final int kind;
+    // Значение константы
+    double value;
+    // Номер слота переменной, код бинарного оператора или номер функции
+    int index;
+    Node left;
+    Node right;
+
+    private Node(int kind) {
+        this.kind = kind;
+    }
+
+    static Node constant(double value) {
+        Node node = new Node(CONSTANT);
+        node.value = value;
+        return node;
+    }
+
+    static Node variable(int slot) {
+        Node node = new Node(VARIABLE);
+        node.index = slot;
+        return node;
+    }
+
+    static Node negate(Node operand) {
+        Node node = new Node(NEGATE);
+        node.left = operand;
+        return node;
+    }
+
+    static Node binary(int opcode, Node left, Node right) {
+        Node node = new Node(BINARY);
+        node.index = opcode;
+        node.left = left;
+        node.right = right;
+        return node;
+    }
+
+    static Node call(int function, Node first, Node second) {
+        Node node = new Node(CALL);
+        node.index = function;
+        node.left = first;
+        node.right = second;
+        return node;
+    }
+
+    boolean isConstant() {
+        return kind == CONSTANT;
+    }
+}
@@ -0,0 +1,114 @@
+package com.calculator.engine.expression;
+
+/**
+ * Лексер выражений. Понимает как ASCII-операторы, так и символы дисплея (−, ×, ÷).
+ */
+final class Tokenizer {
+    static final int END = 0;
+    static final int NUMBER = 1;
+    static final int IDENTIFIER = 2;
+    static final int PLUS = 3;
+    static final int MINUS = 4;
+    static final int STAR = 5;
+    static final int SLASH = 6;
+    static final int PERCENT = 7;
+    static final int CARET = 8;
+    static final int LEFT_PAREN = 9;
+    static final int RIGHT_PAREN = 10;
+    static final int COMMA = 11;
+
+    private final String source;
+    private int position;
+
+    // Текущий токен
+    int type;
+    int start;
+    double number;
+    String identifier;
+
+    Tokenizer(String source) {
+        this.source = source;
+    }
+
+    void next() {
+        int length = source.length();
+        while (position < length && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+        start = position;
+        if (position >= length) {
+            type = END;
+            return;
+        }
+        char c = source.charAt(position);
+        if ((c >= '0' && c <= '9') || c == '.') {
+            readNumber();
+            return;
+        }
+        if (Character.isLetter(c) || c == '_') {
+            readIdentifier();
+            return;
+        }
+        position++;
+        switch (c) {
+            case '+': type = PLUS; break;
+            case '-':
+            case '−': type = MINUS; break;
+            case '*':
+            case '×': type = STAR; break;
+            case '/':
+            case '÷': type = SLASH; break;
+            case '%': type = PERCENT; break;
+            case '^': type = CARET; break;
+            case '(': type = LEFT_PAREN; break;
+            case ')': type = RIGHT_PAREN; break;
+            case ',': type = COMMA; break;
+            default: throw new ExpressionException("Unexpected character '" + c + "'", start);
+        }
+    }
+
+    private void readNumber() {
+        int length = source.length();
+        boolean seenDot = false;
+        boolean seenDigit = false;
+        while (position < length) {
+            char c = source.charAt(position);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                break;
+            }
+            position++;
+        }
+        if (!seenDigit) {
+            throw new ExpressionException("Malformed number", start);
+        }
+        // Экспонента читается, только если за 'e' действительно идут цифры
+        if (position < length && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+            int exponent = position + 1;
+            if (exponent < length && (source.charAt(exponent) == '+' || source.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < length && Character.isDigit(source.charAt(exponent))) {
+                position = exponent;
+                while (position < length && Character.isDigit(source.charAt(position))) {
+                    position++;
+                }
+            }
+        }
+        type = NUMBER;
+        number = Double.parseDouble(source.substring(start, position));
+    }
+
+    private void readIdentifier() {
+        int length = source.length();
+        while (position < length
+                && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_')) {
+            position++;
+        }
+        type = IDENTIFIER;
+        identifier = source.substring(start, position);
+    }
+}
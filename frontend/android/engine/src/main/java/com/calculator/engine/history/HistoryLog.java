@@ -0,0 +1,68 @@
+package com.calculator.engine.history;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Локальная история вычислений: двоичный журнал только на добавление, отображенный в память.
+ *
+ * Записи фиксированного размера RECORD_SIZE: время (long), a, b (double), оператор (int), результат (double).
+ * Чтение страницы - прямой доступ по смещению без разбора и без JSON.
+ */
+public final class HistoryLog extends MappedLog {
+    private static final int MAGIC = 0x43484c47; // "CHLG"
+    private static final int VERSION = 1;
+    private static final int RECORD_SIZE = 40;
+
+    private static final int FIELD_TIMESTAMP = 0;
+    private static final int FIELD_A = 8;
+    private static final int FIELD_B = 16;
+    private static final int FIELD_OPERATOR = 24;
+    private static final int FIELD_RESULT = 28;
+
+    private HistoryLog(File path) throws IOException {
+        super(path, MAGIC, VERSION, RECORD_SIZE);
+    }
+
+    public static HistoryLog open(File path) throws IOException {
+        return new HistoryLog(path);
+    }
+
+    /**
+     * Добавляет запись и возвращает ее порядковый номер (с нуля, от самой старой).
+     */
+    public synchronized int append(long timestampMillis, double a, int operator, double b, double result)
+            throws IOException {
+        int position = reserve();
+        buffer.putLong(position + FIELD_TIMESTAMP, timestampMillis);
+        buffer.putDouble(position + FIELD_A, a);
+        buffer.putDouble(position + FIELD_B, b);
+        buffer.putInt(position + FIELD_OPERATOR, operator);
+        buffer.putDouble(position + FIELD_RESULT, result);
+        int index = count;
+        commitCount(count + 1);
+        return index;
+    }
+
+    /**
+     * Заполняет page записями, начиная с offset-й от самой новой, не более limit штук.
+     * Идентификатор записи - ее порядковый номер. Возвращает число прочитанных записей.
+     */
+    public synchronized int readNewest(int offset, int limit, HistoryPage page) {
+        page.reset(limit);
+        for (int i = count - 1 - Math.max(offset, 0); i >= 0 && page.size() < limit; i--) {
+            int position = position(i);
+            page.add(i,
+                buffer.getLong(position + FIELD_TIMESTAMP),
+                buffer.getDouble(position + FIELD_A),
+                buffer.getInt(position + FIELD_OPERATOR),
+                buffer.getDouble(position + FIELD_B),
+                buffer.getDouble(position + FIELD_RESULT));
+        }
+        return page.size();
+    }
+
+    public synchronized void clear() {
+        commitCount(0);
+    }
+}
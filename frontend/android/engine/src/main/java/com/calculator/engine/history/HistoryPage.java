@@ -0,0 +1,69 @@
+package com.calculator.engine.history;
+
+import java.util.Arrays;
+
+/**
+ * Страница записей журнала в параллельных массивах. Переиспользуется между чтениями.
+ */
+public final class HistoryPage {
+    private long[] ids = new long[0];
+    private long[] timestamps = new long[0];
+    private double[] firstOperands = new double[0];
+    private double[] secondOperands = new double[0];
+    private int[] operators = new int[0];
+    private double[] results = new double[0];
+    private int size;
+
+    void reset(int capacity) {
+        size = 0;
+        if (capacity > operators.length) {
+            ids = Arrays.copyOf(ids, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            firstOperands = Arrays.copyOf(firstOperands, capacity);
+            secondOperands = Arrays.copyOf(secondOperands, capacity);
+            operators = Arrays.copyOf(operators, capacity);
+            results = Arrays.copyOf(results, capacity);
+        }
+    }
+
+    void add(long id, long timestamp, double firstOperand, int operator, double secondOperand, double result) {
+        ids[size] = id;
+        timestamps[size] = timestamp;
+        firstOperands[size] = firstOperand;
+        secondOperands[size] = secondOperand;
+        operators[size] = operator;
+        results[size] = result;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Номер записи в журнале истории или последовательный номер в очереди отправки.
+     */
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public double getFirstOperand(int index) {
+        return firstOperands[index];
+    }
+
+    public double getSecondOperand(int index) {
+        return secondOperands[index];
+    }
+
+    public int getOperator(int index) {
+        return operators[index];
+    }
+
+    public double getResult(int index) {
+        return results[index];
+    }
+}
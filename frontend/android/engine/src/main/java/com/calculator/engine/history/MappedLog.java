@@ -0,0 +1,108 @@
+package com.calculator.engine.history;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Общая часть журналов с записями фиксированного размера, отображенных в память.
+ *
+ * Заголовок HEADER_SIZE байт: magic, версия, число записей и поля наследника.
+ * Запись сначала пишется в буфер, и только потом увеличивается счетчик в заголовке,
+ * поэтому оборванная запись после падения процесса просто не видна.
+ * Отображение удваивается при заполнении, переотображение редкое даже для сотен тысяч записей.
+ */
+abstract class MappedLog implements Closeable {
+    static final int HEADER_SIZE = 64;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_COUNT = 8;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final File path;
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final int recordSize;
+    MappedByteBuffer buffer;
+    private int capacity;
+    int count;
+
+    MappedLog(File path, int magic, int version, int recordSize) throws IOException {
+        this.recordSize = recordSize;
+        this.path = path;
+        this.file = new RandomAccessFile(path, "rw");
+        this.channel = file.getChannel();
+        try {
+            load(magic, version);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private void load(int magic, int version) throws IOException {
+        long length = channel.size();
+        if (length < HEADER_SIZE) {
+            map(INITIAL_CAPACITY);
+            buffer.putInt(OFFSET_MAGIC, magic);
+            buffer.putInt(OFFSET_VERSION, version);
+            buffer.putLong(OFFSET_COUNT, 0);
+            count = 0;
+            return;
+        }
+        map((int) Math.max(INITIAL_CAPACITY, (length - HEADER_SIZE) / recordSize));
+        if (buffer.getInt(OFFSET_MAGIC) != magic || buffer.getInt(OFFSET_VERSION) != version) {
+            throw new IOException("Unexpected log format in " + path);
+        }
+        // Счетчик не может указывать за пределы файла, даже если заголовок поврежден
+        count = (int) Math.min(Math.max(buffer.getLong(OFFSET_COUNT), 0), capacity);
+    }
+
+    private void map(int newCapacity) throws IOException {
+        capacity = newCapacity;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * recordSize);
+    }
+
+    /**
+     * Позиция следующей записи; при необходимости расширяет отображение.
+     */
+    final int reserve() throws IOException {
+        if (count == capacity) {
+            map(capacity * 2);
+        }
+        return position(count);
+    }
+
+    final int position(int index) {
+        return HEADER_SIZE + index * recordSize;
+    }
+
+    // Запись видна только после обновления счетчика
+    final void commitCount(int newCount) {
+        buffer.putLong(OFFSET_COUNT, newCount);
+        count = newCount;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Сбрасывает страницы на диск. Без вызова данные переживают падение процесса,
+     * но не обязательно выключение устройства.
+     */
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+}
@@ -0,0 +1,122 @@
+package com.calculator.engine.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.SecureRandom;
+
+/**
+ * Надежная очередь отправки: вычисления, которые сервер еще не сохранил.
+ *
+ * Журнал, отображенный в память, с курсором head в заголовке: записи [head, count) ждут
+ * отправки. Каждой записи выдается последовательный номер, который вместе со
+ * случайным идентификатором установки образует client_id для дедупликации на сервере:
+ * повторная отправка той же записи после обрыва связи не создает дубликат.
+ * Когда все записи подтверждены, файл начинается заново, а нумерация продолжается.
+ */
+public final class OutboxLog extends MappedLog {
+    private static final int MAGIC = 0x43434f42; // "CCOB"
+    private static final int VERSION = 1;
+    private static final int RECORD_SIZE = 48;
+
+    private static final int OFFSET_HEAD = 16;
+    private static final int OFFSET_NEXT_SEQUENCE = 24;
+    private static final int OFFSET_INSTALLATION_ID = 32;
+
+    private static final int FIELD_SEQUENCE = 0;
+    private static final int FIELD_TIMESTAMP = 8;
+    private static final int FIELD_A = 16;
+    private static final int FIELD_B = 24;
+    private static final int FIELD_OPERATOR = 32;
+    private static final int FIELD_RESULT = 40;
+
+    private final String installationId;
+    private int head;
+    private long nextSequence;
+
+    private OutboxLog(File path) throws IOException {
+        super(path, MAGIC, VERSION, RECORD_SIZE);
+        long high = buffer.getLong(OFFSET_INSTALLATION_ID);
+        long low = buffer.getLong(OFFSET_INSTALLATION_ID + 8);
+        if (high == 0 && low == 0) {
+            SecureRandom random = new SecureRandom();
+            high = random.nextLong();
+            low = random.nextLong();
+            buffer.putLong(OFFSET_INSTALLATION_ID, high);
+            buffer.putLong(OFFSET_INSTALLATION_ID + 8, low);
+        }
+        installationId = toHex(high) + toHex(low);
+        head = (int) Math.min(Math.max(buffer.getLong(OFFSET_HEAD), 0), count);
+        nextSequence = buffer.getLong(OFFSET_NEXT_SEQUENCE);
+    }
+
+    public static OutboxLog open(File path) throws IOException {
+        return new OutboxLog(path);
+    }
+
+    /**
+     * Ставит вычисление в очередь и возвращает его последовательный номер.
+     */
+    public synchronized long append(long timestampMillis, double a, int operator, double b, double result)
+            throws IOException {
+        int position = reserve();
+        long sequence = nextSequence++;
+        buffer.putLong(position + FIELD_SEQUENCE, sequence);
+        buffer.putLong(position + FIELD_TIMESTAMP, timestampMillis);
+        buffer.putDouble(position + FIELD_A, a);
+        buffer.putDouble(position + FIELD_B, b);
+        buffer.putInt(position + FIELD_OPERATOR, operator);
+        buffer.putDouble(position + FIELD_RESULT, result);
+        buffer.putLong(OFFSET_NEXT_SEQUENCE, nextSequence);
+        commitCount(count + 1);
+        return sequence;
+    }
+
+    public synchronized int pendingCount() {
+        return count - head;
+    }
+
+    /**
+     * Самые старые неподтвержденные записи, не более limit. Идентификатор - последовательный номер.
+     */
+    public synchronized int readPending(int limit, HistoryPage page) {
+        page.reset(limit);
+        for (int i = head; i < count && page.size() < limit; i++) {
+            int position = position(i);
+            page.add(
+                buffer.getLong(position + FIELD_SEQUENCE),
+                buffer.getLong(position + FIELD_TIMESTAMP),
+                buffer.getDouble(position + FIELD_A),
+                buffer.getInt(position + FIELD_OPERATOR),
+                buffer.getDouble(position + FIELD_B),
+                buffer.getDouble(position + FIELD_RESULT));
+        }
+        return page.size();
+    }
+
+    /**
+     * Удаляет из очереди первые n записей, сохраненных сервером.
+     */
+    public synchronized void acknowledge(int n) {
+        head = Math.min(head + n, count);
+        if (head == count) {
+            // Очередь пуста: начинаем файл сначала. Если процесс упадет между двумя
+            // записями, head больше count и при открытии будет ограничен им
+            commitCount(0);
+            head = 0;
+        }
+        buffer.putLong(OFFSET_HEAD, head);
+    }
+
+    public String clientId(long sequence) {
+        return installationId + "-" + sequence;
+    }
+
+    private static String toHex(long value) {
+        String hex = Long.toHexString(value);
+        StringBuilder padded = new StringBuilder(16);
+        for (int i = hex.length(); i < 16; i++) {
+            padded.append('0');
+        }
+        return padded.append(hex).toString();
+    }
+}
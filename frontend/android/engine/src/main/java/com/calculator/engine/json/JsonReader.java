@@ -0,0 +1,500 @@
+package com.calculator.engine.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Потоковый разбор JSON прямо из InputStream.
+ *
+ * Имена полей сопоставляются с заранее заданным набором {@link Names} без создания строк,
+ * числа разбираются из буфера символов без String и Double.parseDouble в обычном случае.
+ * Строки создаются только для строковых значений, которые запросил вызывающий код.
+ */
+public final class JsonReader implements Closeable {
+    private static final int OBJECT = 1;
+    private static final int ARRAY = 2;
+
+    // Точно представимые степени десяти для быстрого разбора чисел
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_FAST_DIGITS = 15;
+
+    /**
+     * Набор ожидаемых имен полей для {@link #selectName(Names)}.
+     */
+    public static final class Names {
+        final char[][] names;
+
+        private Names(char[][] names) {
+            this.names = names;
+        }
+
+        public static Names of(String... names) {
+            char[][] chars = new char[names.length][];
+            for (int i = 0; i < names.length; i++) {
+                chars[i] = names[i].toCharArray();
+            }
+            return new Names(chars);
+        }
+    }
+
+    private static final Names NO_NAMES = Names.of();
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    private int[] scopes = new int[8];
+    private boolean[] nonEmpty = new boolean[8];
+    private int depth;
+    // Запятая перед текущим элементом уже прочитана
+    private boolean elementStarted;
+    // Прочитано имя поля, следующее значение принадлежит ему
+    private boolean afterName;
+
+    private char[] scratch = new char[32];
+    private int scratchLength;
+
+    public JsonReader(InputStream in) {
+        this(in, 512);
+    }
+
+    public JsonReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public void beginObject() throws IOException {
+        beginElement();
+        expect('{');
+        push(OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect('}');
+        pop();
+    }
+
+    public void beginArray() throws IOException {
+        beginElement();
+        expect('[');
+        push(ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(']');
+        pop();
+    }
+
+    /**
+     * Есть ли еще элементы в текущем объекте или массиве.
+     */
+    public boolean hasNext() throws IOException {
+        int c = nextNonWhitespace();
+        return c != '}' && c != ']' && c != -1;
+    }
+
+    /**
+     * Читает имя поля и возвращает его индекс в names или -1 для незнакомого поля.
+     */
+    public int selectName(Names names) throws IOException {
+        if (depth == 0 || scopes[depth - 1] != OBJECT || afterName) {
+            throw syntaxError("Name outside of object");
+        }
+        beginElement();
+        expect('"');
+        readString();
+        expect(':');
+        elementStarted = false;
+        afterName = true;
+        for (int i = 0; i < names.names.length; i++) {
+            char[] name = names.names[i];
+            if (name.length == scratchLength && regionMatches(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String nextName() throws IOException {
+        selectName(NO_NAMES);
+        return new String(scratch, 0, scratchLength);
+    }
+
+    /**
+     * Следующее значение - null. Сам null не потребляется.
+     */
+    public boolean peekNull() throws IOException {
+        beginElement();
+        return nextNonWhitespace() == 'n';
+    }
+
+    public void nextNull() throws IOException {
+        beginElement();
+        expectLiteral("null");
+        endElement();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        beginElement();
+        boolean value;
+        if (nextNonWhitespace() == 't') {
+            expectLiteral("true");
+            value = true;
+        } else {
+            expectLiteral("false");
+            value = false;
+        }
+        endElement();
+        return value;
+    }
+
+    public String nextString() throws IOException {
+        beginElement();
+        int c = nextNonWhitespace();
+        String value;
+        if (c == '"') {
+            pos++;
+            readString();
+            value = new String(scratch, 0, scratchLength);
+        } else if (c == 'n') {
+            expectLiteral("null");
+            value = null;
+        } else {
+            readNumber();
+            value = new String(scratch, 0, scratchLength);
+        }
+        endElement();
+        return value;
+    }
+
+    /**
+     * Число или строка с числом (как getDouble в org.json).
+     */
+    public double nextDouble() throws IOException {
+        beginElement();
+        if (nextNonWhitespace() == '"') {
+            pos++;
+            readString();
+        } else {
+            readNumber();
+        }
+        double value = parseScratch();
+        endElement();
+        return value;
+    }
+
+    public void skipValue() throws IOException {
+        beginElement();
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                beginObject();
+                while (hasNext()) {
+                    selectName(NO_NAMES);
+                    skipValue();
+                }
+                endObject();
+                return;
+            case '[':
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                return;
+            case '"':
+                pos++;
+                readString();
+                break;
+            case 't':
+                expectLiteral("true");
+                break;
+            case 'f':
+                expectLiteral("false");
+                break;
+            case 'n':
+                expectLiteral("null");
+                break;
+            default:
+                readNumber();
+                break;
+        }
+        endElement();
+    }
+
+    /**
+     * Дочитывает поток до конца: без этого HttpURLConnection не вернет соединение в пул keep-alive.
+     */
+    public void drain() throws IOException {
+        pos = limit;
+        while (in.read(buffer) != -1) {
+            // отбрасываем
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void beginElement() throws IOException {
+        if (depth == 0 || elementStarted || afterName) {
+            return;
+        }
+        if (nonEmpty[depth - 1]) {
+            expect(',');
+        }
+        nonEmpty[depth - 1] = true;
+        elementStarted = true;
+    }
+
+    private void endElement() {
+        elementStarted = false;
+        afterName = false;
+    }
+
+    private void push(int scope) {
+        endElement();
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+            nonEmpty = Arrays.copyOf(nonEmpty, depth * 2);
+        }
+        scopes[depth] = scope;
+        nonEmpty[depth] = false;
+        depth++;
+    }
+
+    private void pop() throws IOException {
+        if (depth == 0) {
+            throw syntaxError("Unbalanced close");
+        }
+        depth--;
+        endElement();
+    }
+
+    private void readString() throws IOException {
+        scratchLength = 0;
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                appendScratch(readEscape());
+            } else if (c < 0x80) {
+                appendScratch((char) c);
+            } else if (c < 0xe0) {
+                appendScratch((char) (((c & 0x1f) << 6) | (read() & 0x3f)));
+            } else if (c < 0xf0) {
+                appendScratch((char) (((c & 0x0f) << 12) | ((read() & 0x3f) << 6) | (read() & 0x3f)));
+            } else {
+                int codePoint = ((c & 0x07) << 18) | ((read() & 0x3f) << 12) | ((read() & 0x3f) << 6) | (read() & 0x3f);
+                appendScratch(Character.highSurrogate(codePoint));
+                appendScratch(Character.lowSurrogate(codePoint));
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                return (char) c;
+        }
+    }
+
+    private void readNumber() throws IOException {
+        scratchLength = 0;
+        while (true) {
+            int c = peek();
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                appendScratch((char) c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (scratchLength == 0) {
+            throw syntaxError("Expected value");
+        }
+    }
+
+    private double parseScratch() throws IOException {
+        int i = 0;
+        boolean negative = false;
+        if (scratchLength > 0 && scratch[0] == '-') {
+            negative = true;
+            i = 1;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDot = false;
+        boolean seenDigit = false;
+        for (; i < scratchLength; i++) {
+            char c = scratch[i];
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0 && ++digits > MAX_FAST_DIGITS) {
+                    return parseSlow();
+                }
+                if (seenDot) {
+                    exponent--;
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else if ((c == 'e' || c == 'E') && seenDigit) {
+                int explicit = parseExponent(i + 1);
+                if (explicit == Integer.MIN_VALUE) {
+                    return parseSlow();
+                }
+                exponent += explicit;
+                break;
+            } else {
+                return parseSlow();
+            }
+        }
+        if (!seenDigit) {
+            return parseSlow();
+        }
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return parseSlow();
+        }
+        // Мантисса и степень десяти точны, одна операция дает корректно округленный результат
+        return negative ? -value : value;
+    }
+
+    // Integer.MIN_VALUE - экспоненту разобрать быстро не удалось
+    private int parseExponent(int start) {
+        int i = start;
+        boolean negative = false;
+        if (i < scratchLength && (scratch[i] == '-' || scratch[i] == '+')) {
+            negative = scratch[i] == '-';
+            i++;
+        }
+        if (i == scratchLength) {
+            return Integer.MIN_VALUE;
+        }
+        int value = 0;
+        for (; i < scratchLength; i++) {
+            char c = scratch[i];
+            if (c < '0' || c > '9' || value > 1000) {
+                return Integer.MIN_VALUE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private double parseSlow() throws IOException {
+        try {
+            return Double.parseDouble(new String(scratch, 0, scratchLength));
+        } catch (NumberFormatException e) {
+            throw syntaxError("Malformed number");
+        }
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        nextNonWhitespace();
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (nextNonWhitespace() != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+        pos++;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos] & 0xff;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c == -1) {
+            throw syntaxError("Unexpected end of input");
+        }
+        pos++;
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = in.read(buffer, 0, buffer.length);
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean regionMatches(char[] name) {
+        for (int i = 0; i < name.length; i++) {
+            if (scratch[i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendScratch(char c) {
+        if (scratchLength == scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratchLength * 2);
+        }
+        scratch[scratchLength++] = c;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at offset " + (consumed + pos));
+    }
+}
@@ -0,0 +1,238 @@
+package com.calculator.engine.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Потоковая запись JSON сразу в UTF-8 байты без промежуточного String.
+ *
+ * Документ собирается в переиспользуемом буфере: длина тела нужна заранее для
+ * setFixedLengthStreamingMode (chunked тело запроса встроенный сервер PHP не принимает).
+ */
+public final class JsonWriter {
+    // До 1e15 целое double печатается точно как long, без Double.toString
+    private static final double MAX_EXACT_LONG = 1e15;
+    private static final int MAX_LONG_DIGITS = 19;
+
+    private byte[] buffer;
+    private int size;
+    // Для каждого уровня вложенности: был ли уже записан элемент (нужна ли запятая)
+    private boolean[] nonEmpty = new boolean[8];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter() {
+        this(128);
+    }
+
+    public JsonWriter(int initialCapacity) {
+        buffer = new byte[initialCapacity];
+    }
+
+    public JsonWriter reset() {
+        size = 0;
+        depth = 0;
+        afterName = false;
+        return this;
+    }
+
+    public JsonWriter beginObject() {
+        beforeValue();
+        writeByte('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        pop();
+        writeByte('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        beforeValue();
+        writeByte('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        pop();
+        writeByte(']');
+        return this;
+    }
+
+    public JsonWriter name(String name) {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("Name outside of object: " + name);
+        }
+        separate();
+        writeString(name);
+        writeByte(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON does not allow non-finite numbers: " + value);
+        }
+        beforeValue();
+        if (value == (long) value && Math.abs(value) < MAX_EXACT_LONG) {
+            writeLong((long) value);
+        } else {
+            writeAscii(Double.toString(value));
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        beforeValue();
+        writeAscii(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        beforeValue();
+        writeAscii("null");
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            separate();
+        }
+    }
+
+    private void separate() {
+        if (nonEmpty[depth - 1]) {
+            writeByte(',');
+        }
+        nonEmpty[depth - 1] = true;
+    }
+
+    private void push() {
+        if (depth == nonEmpty.length) {
+            nonEmpty = Arrays.copyOf(nonEmpty, depth * 2);
+        }
+        nonEmpty[depth++] = false;
+    }
+
+    private void pop() {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        depth--;
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+        ensureCapacity(size + MAX_LONG_DIGITS);
+        int start = size;
+        do {
+            buffer[size++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        // Цифры записаны в обратном порядке
+        for (int i = start, j = size - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    private void writeString(String value) {
+        writeByte('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': writeAscii("\\\""); break;
+                case '\\': writeAscii("\\\\"); break;
+                case '\n': writeAscii("\\n"); break;
+                case '\r': writeAscii("\\r"); break;
+                case '\t': writeAscii("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        writeAscii("\\u00");
+                        writeByte(Character.forDigit(c >> 4, 16));
+                        writeByte(Character.forDigit(c & 0xf, 16));
+                    } else if (c < 0x80) {
+                        writeByte(c);
+                    } else if (c < 0x800) {
+                        writeByte(0xc0 | (c >> 6));
+                        writeByte(0x80 | (c & 0x3f));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        writeByte(0xf0 | (codePoint >> 18));
+                        writeByte(0x80 | ((codePoint >> 12) & 0x3f));
+                        writeByte(0x80 | ((codePoint >> 6) & 0x3f));
+                        writeByte(0x80 | (codePoint & 0x3f));
+                    } else {
+                        writeByte(0xe0 | (c >> 12));
+                        writeByte(0x80 | ((c >> 6) & 0x3f));
+                        writeByte(0x80 | (c & 0x3f));
+                    }
+                    break;
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeAscii(String ascii) {
+        ensureCapacity(size + ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            buffer[size++] = (byte) ascii.charAt(i);
+        }
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(size + 1);
+        buffer[size++] = (byte) b;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.calculator.engine.log;
+
+/**
+ * Кольцевой буфер последних событий журнала для отчетов об ошибках.
+ *
+ * Записи в параллельных массивах фиксированной емкости: добавление не выделяет памяти,
+ * самая старая запись перезаписывается. Индекс в геттерах считается от самой старой
+ * сохраненной записи; для согласованного чтения нескольких записей синхронизируйтесь на буфере.
+ */
+public final class LogRing {
+    private final long[] times;
+    private final int[] levels;
+    private final String[] tags;
+    private final String[] messages;
+    private int next;
+    private int size;
+
+    public LogRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        times = new long[capacity];
+        levels = new int[capacity];
+        tags = new String[capacity];
+        messages = new String[capacity];
+    }
+
+    public synchronized void add(long timeMillis, int level, String tag, String message) {
+        times[next] = timeMillis;
+        levels[next] = level;
+        tags[next] = tag;
+        messages[next] = message;
+        next = (next + 1) % times.length;
+        if (size < times.length) {
+            size++;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getTime(int index) {
+        return times[slot(index)];
+    }
+
+    public synchronized int getLevel(int index) {
+        return levels[slot(index)];
+    }
+
+    public synchronized String getTag(int index) {
+        return tags[slot(index)];
+    }
+
+    public synchronized String getMessage(int index) {
+        return messages[slot(index)];
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = null;
+            messages[i] = null;
+        }
+        next = 0;
+        size = 0;
+    }
+
+    private int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return (next - size + index + times.length) % times.length;
+    }
+}
@@ -0,0 +1,100 @@
+package com.calculator.engine.metrics;
+
+import com.calculator.engine.Operators;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Метрики горячих путей: гистограмма задержек на каждую пару (путь, операция) и счетчики событий.
+ *
+ * Запись без блокировок; гистограмма создается при первой записи (CAS), так что неиспользуемые
+ * пары не занимают памяти. Операция - код из {@link Operators}, NONE - пакеты и события без операции.
+ */
+public final class MetricsRegistry {
+    // Локальное вычисление нажатием "=" (calculate() нативного калькулятора)
+    public static final int TIMER_CALCULATE_LOCAL = 0;
+    // Запрос к API от отправки до разобранного ответа
+    public static final int TIMER_CALCULATE_REMOTE = 1;
+    // Отправка события результата в React Native
+    public static final int TIMER_BRIDGE_EVENT = 2;
+    // performNativeCalculation* из JS
+    public static final int TIMER_NATIVE_MODULE = 3;
+    public static final int TIMER_COUNT = 4;
+
+    public static final int COUNTER_LOCAL_ERRORS = 0;
+    public static final int COUNTER_REMOTE_FAILURES = 1;
+    public static final int COUNTER_LOCAL_FALLBACKS = 2;
+    public static final int COUNTER_COUNT = 3;
+
+    private static final String[] TIMER_NAMES = {"calculateLocal", "calculateRemote", "bridgeEvent", "nativeModule"};
+    private static final String[] COUNTER_NAMES = {"localErrors", "remoteFailures", "localFallbacks"};
+    private static final int OPERATOR_COUNT = Operators.DIVIDE + 1;
+
+    private final AtomicReferenceArray<LatencyHistogram> histograms =
+        new AtomicReferenceArray<>(TIMER_COUNT * OPERATOR_COUNT);
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTER_COUNT);
+
+    public static String timerName(int timer) {
+        return TIMER_NAMES[timer];
+    }
+
+    public static String counterName(int counter) {
+        return COUNTER_NAMES[counter];
+    }
+
+    public static int operatorCount() {
+        return OPERATOR_COUNT;
+    }
+
+    public void record(int timer, int operator, long nanos) {
+        int slot = timer * OPERATOR_COUNT + operator;
+        LatencyHistogram histogram = histograms.get(slot);
+        if (histogram == null) {
+            histograms.compareAndSet(slot, null, new LatencyHistogram());
+            histogram = histograms.get(slot);
+        }
+        histogram.record(nanos);
+    }
+
+    public void increment(int counter) {
+        counters.incrementAndGet(counter);
+    }
+
+    public long getCounter(int counter) {
+        return counters.get(counter);
+    }
+
+    /**
+     * Гистограмма пары или null, если записей для нее не было.
+     */
+    public LatencyHistogram getHistogram(int timer, int operator) {
+        return histograms.get(timer * OPERATOR_COUNT + operator);
+    }
+
+    /**
+     * Сводка пути по всем операциям: новая гистограмма, в которую слиты корзины пар.
+     */
+    public LatencyHistogram merged(int timer) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (int operator = 0; operator < OPERATOR_COUNT; operator++) {
+            LatencyHistogram histogram = getHistogram(timer, operator);
+            if (histogram != null) {
+                merged.add(histogram);
+            }
+        }
+        return merged;
+    }
+
+    public void reset() {
+        for (int i = 0; i < histograms.length(); i++) {
+            LatencyHistogram histogram = histograms.get(i);
+            if (histogram != null) {
+                histogram.reset();
+            }
+        }
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            counters.set(i, 0);
+        }
+    }
+}
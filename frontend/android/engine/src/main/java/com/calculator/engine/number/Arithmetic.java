@@ -0,0 +1,46 @@
+package com.calculator.engine.number;
+
+/**
+ * Числовой бэкенд калькулятора: как вычислить пару операндов и записать результат.
+ *
+ * Операнды - десятичная запись с дисплея (цифры, необязательные '-' и '.'), поэтому
+ * точные бэкенды не теряют 0.1 при переводе в double. Результат возвращается и текстом
+ * для дисплея, и как double для API, цепочки и истории.
+ */
+public interface Arithmetic {
+    // Совпадают с CalculatorEngine.STATUS_*
+    int STATUS_OK = 0;
+    int STATUS_DIVISION_BY_ZERO = 1;
+    int STATUS_INVALID_NUMBER = 2;
+
+    int apply(int operator, char[] a, int aLength, char[] b, int bLength, Result result);
+
+    /**
+     * Вариант для операндов, пришедших числами (например, из JS).
+     */
+    int apply(int operator, double a, double b, Result result);
+
+    /**
+     * Переиспользуемый результат вычисления.
+     */
+    final class Result {
+        public final StringBuilder text = new StringBuilder(32);
+        public double value = Double.NaN;
+        private final ShortestDecimal shortest = new ShortestDecimal();
+        private final char[] scratch = new char[ShortestDecimal.MAX_LENGTH];
+
+        public void reset() {
+            text.setLength(0);
+            value = Double.NaN;
+        }
+
+        /**
+         * Результат в double: текст - его кратчайшая запись.
+         */
+        public void set(double value) {
+            text.setLength(0);
+            text.append(scratch, 0, shortest.set(value).write(scratch, 0));
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.calculator.engine.number;
+
+import com.calculator.engine.Operators;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Десятичная арифметика с заданным числом значащих цифр (MathContext), как BigDecimal.
+ *
+ * Точные результаты, умещающиеся в long и в точность контекста, считаются без BigDecimal;
+ * объекты создаются для длинных чисел и бесконечных дробей вроде 1 ÷ 3.
+ */
+public final class BigDecimalArithmetic extends DecimalArithmetic {
+    private final MathContext context;
+
+    public BigDecimalArithmetic() {
+        this(MathContext.DECIMAL128);
+    }
+
+    public BigDecimalArithmetic(MathContext context) {
+        super(context.getRoundingMode());
+        if (context.getPrecision() == 0) {
+            // Без ограничения точности 1 ÷ 3 не вычислить
+            throw new IllegalArgumentException("Precision must be limited");
+        }
+        this.context = context;
+    }
+
+    public MathContext getMathContext() {
+        return context;
+    }
+
+    @Override
+    boolean complete(long unscaled, int scale, Result result) {
+        int significant = digits(unscaled);
+        for (long value = unscaled; value != 0 && value % 10 == 0; value /= 10) {
+            significant--;
+        }
+        if (significant > context.getPrecision()) {
+            // Нужно округление до точности контекста
+            return false;
+        }
+        write(unscaled, scale, result);
+        return true;
+    }
+
+    @Override
+    boolean divide(long a, int scaleA, long b, int scaleB, Result result) {
+        // Быстрый путь только для конечных дробей: 1 ÷ 4, 10 ÷ 2.5
+        int shift = MAX_LONG_DIGITS - digits(a);
+        long dividend = scaleUp(a, shift);
+        if (dividend % b != 0) {
+            return false;
+        }
+        return complete(dividend / b, scaleA - scaleB + shift, result);
+    }
+
+    @Override
+    int applySlow(int operator, BigDecimal a, BigDecimal b, Result result) {
+        BigDecimal value;
+        switch (operator) {
+            case Operators.ADD:
+                value = a.add(b, context);
+                break;
+            case Operators.SUBTRACT:
+                value = a.subtract(b, context);
+                break;
+            case Operators.MULTIPLY:
+                value = a.multiply(b, context);
+                break;
+            case Operators.DIVIDE:
+                if (b.signum() == 0) {
+                    return STATUS_DIVISION_BY_ZERO;
+                }
+                value = a.divide(b, context);
+                break;
+            default:
+                value = BigDecimal.ZERO;
+                break;
+        }
+        write(value, result);
+        return STATUS_OK;
+    }
+}
@@ -0,0 +1,247 @@
+package com.calculator.engine.number;
+
+import com.calculator.engine.Operators;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Общая часть точных десятичных бэкендов.
+ *
+ * Операнд - это unscaled * 10^-scale. Пока unscaled помещается в long (до 18 значащих цифр),
+ * вычисление идет в примитивах без создания объектов; при переполнении, лишних цифрах
+ * или экспоненте в записи операнды разбираются в BigDecimal.
+ */
+abstract class DecimalArithmetic implements Arithmetic {
+    // Признак "не помещается в long": сам по себе недостижим, значащих цифр не больше 18
+    private static final long NOT_A_LONG = Long.MIN_VALUE;
+    static final int MAX_LONG_DIGITS = 18;
+
+    static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+        10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+        1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+    };
+
+    final RoundingMode rounding;
+
+    DecimalArithmetic(RoundingMode rounding) {
+        if (rounding == RoundingMode.UNNECESSARY) {
+            throw new IllegalArgumentException("Rounding mode must allow rounding");
+        }
+        this.rounding = rounding;
+    }
+
+    @Override
+    public final int apply(int operator, char[] a, int aLength, char[] b, int bLength, Result result) {
+        result.reset();
+        long unscaledA = unscaled(a, aLength);
+        long unscaledB = unscaled(b, bLength);
+        if (unscaledA != NOT_A_LONG && unscaledB != NOT_A_LONG) {
+            if (operator == Operators.DIVIDE && unscaledB == 0) {
+                return STATUS_DIVISION_BY_ZERO;
+            }
+            try {
+                if (applyFast(operator, unscaledA, scale(a, aLength), unscaledB, scale(b, bLength), result)) {
+                    return STATUS_OK;
+                }
+            } catch (ArithmeticException e) {
+                // Переполнение long: считаем в BigDecimal
+            }
+            result.reset();
+        }
+
+        BigDecimal x;
+        BigDecimal y;
+        try {
+            x = new BigDecimal(a, 0, aLength);
+            y = new BigDecimal(b, 0, bLength);
+        } catch (NumberFormatException e) {
+            // NaN, Infinity и прочий нечисловой ввод
+            return STATUS_INVALID_NUMBER;
+        }
+        return applySlow(operator, x, y, result);
+    }
+
+    @Override
+    public final int apply(int operator, double a, double b, Result result) {
+        if (Double.isNaN(a) || Double.isInfinite(a) || Double.isNaN(b) || Double.isInfinite(b)) {
+            result.reset();
+            return STATUS_INVALID_NUMBER;
+        }
+        // Кратчайшая запись double: 0.1 из JS становится ровно 0.1, а не двоичным приближением
+        char[] x = Double.toString(a).toCharArray();
+        char[] y = Double.toString(b).toCharArray();
+        return apply(operator, x, x.length, y, y.length, result);
+    }
+
+    private boolean applyFast(int operator, long a, int scaleA, long b, int scaleB, Result result) {
+        switch (operator) {
+            case Operators.ADD:
+            case Operators.SUBTRACT: {
+                int scale = Math.max(scaleA, scaleB);
+                long x = scaleUp(a, scale - scaleA);
+                long y = scaleUp(b, scale - scaleB);
+                long sum = operator == Operators.ADD ? Math.addExact(x, y) : Math.subtractExact(x, y);
+                return complete(checkRange(sum), scale, result);
+            }
+            case Operators.MULTIPLY:
+                return complete(checkRange(Math.multiplyExact(a, b)), scaleA + scaleB, result);
+            case Operators.DIVIDE:
+                return divide(a, scaleA, b, scaleB, result);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Доводит точный результат операции в long до точности бэкенда и записывает его.
+     * false - результат не укладывается в быстрый путь.
+     */
+    abstract boolean complete(long unscaled, int scale, Result result);
+
+    abstract boolean divide(long a, int scaleA, long b, int scaleB, Result result);
+
+    abstract int applySlow(int operator, BigDecimal a, BigDecimal b, Result result);
+
+    static void write(long unscaled, int scale, Result result) {
+        while (scale > 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+        if (scale < 0) {
+            unscaled = scaleUp(unscaled, -scale);
+            scale = 0;
+        }
+        StringBuilder text = result.text;
+        text.append(unscaled);
+        if (scale > 0) {
+            // Вставляем точку, при необходимости дополняя нулями: 5 при scale 3 -> 0.005
+            int start = unscaled < 0 ? 1 : 0;
+            int digits = text.length() - start;
+            for (int i = digits; i <= scale; i++) {
+                text.insert(start, '0');
+            }
+            text.insert(text.length() - scale, '.');
+        }
+        result.value = Decimals.toDouble(unscaled, scale);
+    }
+
+    static void write(BigDecimal value, Result result) {
+        if (value.signum() == 0) {
+            result.text.append('0');
+            result.value = 0;
+            return;
+        }
+        value = value.stripTrailingZeros();
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        }
+        result.text.append(value.toPlainString());
+        result.value = value.doubleValue();
+    }
+
+    // Long.MIN_VALUE (например, -2^32 * 2^31) не переживает Math.abs и смену знака
+    private static long checkRange(long unscaled) {
+        if (unscaled == Long.MIN_VALUE) {
+            throw new ArithmeticException("long overflow");
+        }
+        return unscaled;
+    }
+
+    static long scaleUp(long unscaled, int digits) {
+        if (digits >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("long overflow");
+        }
+        return Math.multiplyExact(unscaled, POWERS_OF_TEN[digits]);
+    }
+
+    static int digits(long unscaled) {
+        long value = Math.abs(unscaled);
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Частное dividend / divisor, округленное по rounding.
+     */
+    final long divideAndRound(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        long absRemainder = Math.abs(remainder);
+        // |remainder| сравнивается с половиной |divisor| без умножения на 2 и переполнения
+        long rest = Math.abs(divisor) - absRemainder;
+        boolean increment;
+        switch (rounding) {
+            case UP:
+                increment = true;
+                break;
+            case DOWN:
+                increment = false;
+                break;
+            case CEILING:
+                increment = sign > 0;
+                break;
+            case FLOOR:
+                increment = sign < 0;
+                break;
+            default:
+                if (absRemainder != rest) {
+                    increment = absRemainder > rest;
+                } else {
+                    increment = rounding == RoundingMode.HALF_UP
+                        || (rounding == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+                }
+                break;
+        }
+        return increment ? quotient + sign : quotient;
+    }
+
+    // Значащие цифры записи без точки и знака; NOT_A_LONG, если их больше 18 или запись не простая
+    private static long unscaled(char[] chars, int length) {
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && chars[0] == '-') {
+            negative = true;
+            i = 1;
+        }
+        long value = 0;
+        int digits = 0;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+        for (; i < length; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                value = value * 10 + (c - '0');
+                if (value != 0 && ++digits > MAX_LONG_DIGITS) {
+                    return NOT_A_LONG;
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                return NOT_A_LONG;
+            }
+        }
+        if (!seenDigit) {
+            return NOT_A_LONG;
+        }
+        return negative ? -value : value;
+    }
+
+    private static int scale(char[] chars, int length) {
+        for (int i = 0; i < length; i++) {
+            if (chars[i] == '.') {
+                return length - i - 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.calculator.engine.number;
+
+/**
+ * Разбор десятичной записи с дисплея в double без создания объектов в обычном случае.
+ */
+public final class Decimals {
+    // Точно представимые степени десяти для быстрого разбора ввода
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_FAST_DIGITS = 15;
+    // 2^53: целые до этой границы double хранит точно
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    private Decimals() {
+    }
+
+    public static double parseDouble(char[] chars, int length) {
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && chars[0] == '-') {
+            negative = true;
+            i = 1;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDot = false;
+        for (; i < length; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0 && ++digits > MAX_FAST_DIGITS) {
+                    return parseSlow(chars, length);
+                }
+                if (seenDot) {
+                    scale++;
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                // Экспонента, NaN, Infinity и прочее - редкий случай
+                return parseSlow(chars, length);
+            }
+        }
+        if (scale >= POWERS_OF_TEN.length) {
+            return parseSlow(chars, length);
+        }
+        // Мантисса и степень десяти представимы точно, поэтому одно деление
+        // дает тот же корректно округленный результат, что и Double.parseDouble
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Значение unscaled * 10^-scale, округленное до ближайшего double.
+     */
+    public static double toDouble(long unscaled, int scale) {
+        if (Math.abs(unscaled) <= MAX_EXACT_LONG && scale >= 0 && scale < POWERS_OF_TEN.length) {
+            return scale == 0 ? unscaled : unscaled / POWERS_OF_TEN[scale];
+        }
+        return Double.parseDouble(unscaled + "E" + (-scale));
+    }
+
+    private static double parseSlow(char[] chars, int length) {
+        return Double.parseDouble(new String(chars, 0, length));
+    }
+}
@@ -0,0 +1,330 @@
+package com.calculator.engine.number;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Оформление числа для дисплея: разделители групп и дробной части, цифры локали и
+ * научная запись, если результат не помещается в maxWidth символов.
+ *
+ * Вход - каноническая запись из буфера движка ("-1234567.5", "1.5E-7"), выход пишется
+ * в переиспользуемый массив char, который передается прямо в TextView.setText(char[], int, int).
+ * Буфер движка при этом не меняется: его по-прежнему читают разбор операндов и API.
+ */
+public final class DisplayFormatter {
+    public static final int UNLIMITED_WIDTH = 0;
+    // Без разделителя групп
+    public static final char NO_GROUPING = 0;
+
+    private static final int GROUP_SIZE = 3;
+    // Дробь округляется в обычной записи, только если сохраняет столько значащих цифр
+    private static final int MIN_SIGNIFICANT_DIGITS = 8;
+
+    private final char zeroDigit;
+    private final char minusSign;
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final int maxWidth;
+
+    private char[] buffer = new char[32];
+    private int length;
+    // Цифры мантиссы при округлении под ширину дисплея
+    private char[] digits = new char[32];
+    private int parsedExponent;
+    private final ShortestDecimal shortest = new ShortestDecimal();
+    private final char[] canonical = new char[ShortestDecimal.MAX_LENGTH];
+
+    public DisplayFormatter(char zeroDigit, char minusSign, char decimalSeparator, char groupingSeparator,
+                            int maxWidth) {
+        this.zeroDigit = zeroDigit;
+        this.minusSign = minusSign;
+        this.decimalSeparator = decimalSeparator;
+        this.groupingSeparator = groupingSeparator;
+        this.maxWidth = maxWidth;
+    }
+
+    /**
+     * Разделители и цифры локали. DecimalFormatSymbols читается один раз, при создании.
+     */
+    public static DisplayFormatter forLocale(Locale locale, int maxWidth) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        return new DisplayFormatter(symbols.getZeroDigit(), symbols.getMinusSign(), symbols.getDecimalSeparator(),
+            symbols.getGroupingSeparator(), maxWidth);
+    }
+
+    public char[] getChars() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public DisplayFormatter format(double value) {
+        int canonicalLength = shortest.set(value).write(canonical, 0);
+        return format(canonical, canonicalLength, true);
+    }
+
+    /**
+     * result - на дисплее результат, а не набираемое число: только его можно
+     * перевести в научную запись, набираемые цифры показываются как есть.
+     */
+    public DisplayFormatter format(char[] value, int valueLength, boolean result) {
+        length = 0;
+        ensureCapacity(valueLength * 2 + 8);
+        int i = 0;
+        boolean negative = valueLength > 0 && value[0] == '-';
+        if (negative) {
+            i = 1;
+        }
+        int integerStart = i;
+        while (i < valueLength && isDigit(value[i])) {
+            i++;
+        }
+        int integerEnd = i;
+        boolean hasPoint = i < valueLength && value[i] == '.';
+        int fractionStart = hasPoint ? i + 1 : i;
+        i = fractionStart;
+        while (i < valueLength && isDigit(value[i])) {
+            i++;
+        }
+        int fractionEnd = i;
+        int exponent = 0;
+        boolean scientific = false;
+        if (i < valueLength && (value[i] == 'E' || value[i] == 'e') && integerEnd > integerStart) {
+            scientific = parseExponent(value, i + 1, valueLength);
+            exponent = scientific ? parsedExponent : 0;
+            i = scientific ? valueLength : i;
+        }
+        if (i != valueLength || (integerEnd == integerStart && !hasPoint)) {
+            // NaN, Infinity и прочий нечисловой текст показываем как есть
+            for (int j = 0; j < valueLength; j++) {
+                buffer[length++] = value[j];
+            }
+            return this;
+        }
+
+        if (!scientific) {
+            writePlain(value, negative, integerStart, integerEnd, hasPoint, fractionStart, fractionEnd);
+            if (!result || maxWidth == UNLIMITED_WIDTH || length <= maxWidth) {
+                return this;
+            }
+            // 0.30000000000000004 -> 0.3: целая часть помещается, округляем дробную
+            if (writeRoundedPlain(value, negative, integerStart, integerEnd, fractionStart, fractionEnd)) {
+                return this;
+            }
+            length = 0;
+        }
+        writeScientific(value, negative, integerStart, integerEnd, fractionStart, fractionEnd, exponent);
+        return this;
+    }
+
+    private void writePlain(char[] value, boolean negative, int integerStart, int integerEnd,
+                            boolean hasPoint, int fractionStart, int fractionEnd) {
+        if (negative) {
+            buffer[length++] = minusSign;
+        }
+        int integerDigits = integerEnd - integerStart;
+        for (int i = integerStart; i < integerEnd; i++) {
+            int remaining = integerEnd - i;
+            if (groupingSeparator != NO_GROUPING && i > integerStart && remaining % GROUP_SIZE == 0) {
+                buffer[length++] = groupingSeparator;
+            }
+            buffer[length++] = localDigit(value[i]);
+        }
+        if (integerDigits == 0) {
+            buffer[length++] = zeroDigit;
+        }
+        if (hasPoint) {
+            buffer[length++] = decimalSeparator;
+            for (int i = fractionStart; i < fractionEnd; i++) {
+                buffer[length++] = localDigit(value[i]);
+            }
+        }
+    }
+
+    private boolean writeRoundedPlain(char[] value, boolean negative, int integerStart, int integerEnd,
+                                      int fractionStart, int fractionEnd) {
+        length = 0;
+        int integerDigits = integerEnd - integerStart;
+        int total = integerDigits + fractionEnd - fractionStart;
+        int integerWidth = (negative ? 1 : 0) + integerDigits + groupCount(integerDigits);
+        int keepFraction = maxWidth - integerWidth - 1;
+        if (integerDigits == 0 || keepFraction < 1 || integerDigits + keepFraction >= total) {
+            return false;
+        }
+        // digits[0] - место под перенос при округлении 9.99 -> 10
+        int kept = integerDigits + keepFraction;
+        ensureDigitsCapacity(total + 1);
+        digits[0] = '0';
+        int first = -1;
+        for (int k = 0; k < total; k++) {
+            char c = k < integerDigits ? value[integerStart + k] : value[fractionStart + k - integerDigits];
+            if (first < 0 && c != '0') {
+                first = k;
+            }
+            digits[k + 1] = c;
+        }
+        if (first < 0 || kept - first < Math.min(total - first, MIN_SIGNIFICANT_DIGITS)) {
+            // Значащие цифры ушли бы за край дисплея - нужна научная запись
+            return false;
+        }
+        if (digits[kept + 1] >= '5') {
+            int j = kept;
+            while (digits[j] == '9') {
+                digits[j--] = '0';
+            }
+            digits[j]++;
+        }
+        int start = digits[0] == '0' ? 1 : 0;
+        int newIntegerDigits = integerDigits + 1 - start;
+        int end = kept + 1;
+        while (end > integerDigits + 1 && digits[end - 1] == '0') {
+            end--;
+        }
+
+        if (negative) {
+            buffer[length++] = minusSign;
+        }
+        for (int i = 0; i < newIntegerDigits; i++) {
+            if (groupingSeparator != NO_GROUPING && i > 0 && (newIntegerDigits - i) % GROUP_SIZE == 0) {
+                buffer[length++] = groupingSeparator;
+            }
+            buffer[length++] = localDigit(digits[start + i]);
+        }
+        if (end > integerDigits + 1) {
+            buffer[length++] = decimalSeparator;
+            for (int i = integerDigits + 1; i < end; i++) {
+                buffer[length++] = localDigit(digits[i]);
+            }
+        }
+        return length <= maxWidth;
+    }
+
+    private int groupCount(int integerDigits) {
+        return groupingSeparator == NO_GROUPING || integerDigits == 0 ? 0 : (integerDigits - 1) / GROUP_SIZE;
+    }
+
+    // d.ddd E x, где мантисса округляется так, чтобы запись уложилась в maxWidth
+    private void writeScientific(char[] value, boolean negative, int integerStart, int integerEnd,
+                                 int fractionStart, int fractionEnd, int exponent) {
+        // Мантисса - цифры начиная с первой значащей; порядок считается от точки
+        int integerDigits = integerEnd - integerStart;
+        int total = integerDigits + fractionEnd - fractionStart;
+        ensureDigitsCapacity(total);
+        int count = 0;
+        int first = -1;
+        for (int k = 0; k < total; k++) {
+            char c = k < integerDigits ? value[integerStart + k] : value[fractionStart + k - integerDigits];
+            if (first < 0) {
+                if (c == '0') {
+                    continue;
+                }
+                first = k;
+            }
+            digits[count++] = c;
+        }
+        if (count == 0) {
+            buffer[length++] = zeroDigit;
+            return;
+        }
+        exponent += integerDigits - 1 - first;
+
+        int fixed = (negative ? 1 : 0) + 1 + 1 + (exponent < 0 ? 1 : 0) + decimalLength(Math.abs(exponent));
+        int keep = count;
+        if (maxWidth != UNLIMITED_WIDTH) {
+            // Место под дробную часть мантиссы вместе с разделителем
+            int available = maxWidth - fixed - 1;
+            keep = Math.max(1, Math.min(count, available + 1));
+        }
+        if (keep < count && digits[keep] >= '5') {
+            // Округление половины вверх с переносом
+            int j = keep - 1;
+            while (j >= 0 && digits[j] == '9') {
+                digits[j--] = '0';
+            }
+            if (j >= 0) {
+                digits[j]++;
+            } else {
+                digits[0] = '1';
+                exponent++;
+            }
+        }
+        while (keep > 1 && digits[keep - 1] == '0') {
+            keep--;
+        }
+
+        if (negative) {
+            buffer[length++] = minusSign;
+        }
+        buffer[length++] = localDigit(digits[0]);
+        if (keep > 1) {
+            buffer[length++] = decimalSeparator;
+            for (int i = 1; i < keep; i++) {
+                buffer[length++] = localDigit(digits[i]);
+            }
+        }
+        buffer[length++] = 'E';
+        if (exponent < 0) {
+            buffer[length++] = minusSign;
+            exponent = -exponent;
+        }
+        int exponentDigits = decimalLength(exponent);
+        for (int i = length + exponentDigits - 1; i >= length; i--) {
+            buffer[i] = (char) (zeroDigit + exponent % 10);
+            exponent /= 10;
+        }
+        length += exponentDigits;
+    }
+
+    private boolean parseExponent(char[] value, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (value[i] == '-' || value[i] == '+')) {
+            negative = value[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 4) {
+            return false;
+        }
+        int exponent = 0;
+        for (; i < end; i++) {
+            if (!isDigit(value[i])) {
+                return false;
+            }
+            exponent = exponent * 10 + (value[i] - '0');
+        }
+        parsedExponent = negative ? -exponent : exponent;
+        return true;
+    }
+
+    private char localDigit(char asciiDigit) {
+        return (char) (zeroDigit + (asciiDigit - '0'));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int decimalLength(int value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+
+    private void ensureDigitsCapacity(int capacity) {
+        if (capacity > digits.length) {
+            digits = new char[Math.max(capacity, digits.length * 2)];
+        }
+    }
+}
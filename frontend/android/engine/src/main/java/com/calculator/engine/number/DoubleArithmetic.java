@@ -0,0 +1,28 @@
+package com.calculator.engine.number;
+
+import com.calculator.engine.Operators;
+
+/**
+ * Быстрый бэкенд на double: прежнее поведение калькулятора, 0.1 + 0.2 = 0.30000000000000004.
+ */
+public final class DoubleArithmetic implements Arithmetic {
+    public static final DoubleArithmetic INSTANCE = new DoubleArithmetic();
+
+    private DoubleArithmetic() {
+    }
+
+    @Override
+    public int apply(int operator, char[] a, int aLength, char[] b, int bLength, Result result) {
+        return apply(operator, Decimals.parseDouble(a, aLength), Decimals.parseDouble(b, bLength), result);
+    }
+
+    @Override
+    public int apply(int operator, double a, double b, Result result) {
+        result.reset();
+        if (operator == Operators.DIVIDE && b == 0) {
+            return STATUS_DIVISION_BY_ZERO;
+        }
+        result.set(Operators.apply(operator, a, b));
+        return STATUS_OK;
+    }
+}
@@ -0,0 +1,91 @@
+package com.calculator.engine.number;
+
+import com.calculator.engine.Operators;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Десятичная арифметика с фиксированным числом знаков после точки: 0.1 + 0.2 = 0.3,
+ * 2 ÷ 3 = 0.6666666667 при scale 10. Подходит для денежных расчетов.
+ *
+ * Значение хранится как long, масштабированный на 10^scale; BigDecimal создается,
+ * только если результат не помещается в long.
+ */
+public final class FixedDecimalArithmetic extends DecimalArithmetic {
+    public static final int DEFAULT_SCALE = 10;
+    public static final int MAX_SCALE = 18;
+
+    private final int scale;
+
+    public FixedDecimalArithmetic() {
+        this(DEFAULT_SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    public FixedDecimalArithmetic(int scale, RoundingMode rounding) {
+        super(rounding);
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+        this.scale = scale;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    @Override
+    boolean complete(long unscaled, int resultScale, Result result) {
+        if (resultScale > scale) {
+            int extra = resultScale - scale;
+            if (extra >= POWERS_OF_TEN.length) {
+                return false;
+            }
+            unscaled = divideAndRound(unscaled, POWERS_OF_TEN[extra]);
+            resultScale = scale;
+        }
+        write(unscaled, resultScale, result);
+        return true;
+    }
+
+    @Override
+    boolean divide(long a, int scaleA, long b, int scaleB, Result result) {
+        // a / b с точностью до scale знаков: (a * 10^shift) / b
+        int shift = scale + scaleB - scaleA;
+        long quotient = shift >= 0
+            ? divideAndRound(scaleUp(a, shift), b)
+            : divideAndRound(a, scaleUp(b, -shift));
+        write(quotient, scale, result);
+        return true;
+    }
+
+    @Override
+    int applySlow(int operator, BigDecimal a, BigDecimal b, Result result) {
+        BigDecimal value;
+        switch (operator) {
+            case Operators.ADD:
+                value = a.add(b);
+                break;
+            case Operators.SUBTRACT:
+                value = a.subtract(b);
+                break;
+            case Operators.MULTIPLY:
+                value = a.multiply(b);
+                break;
+            case Operators.DIVIDE:
+                if (b.signum() == 0) {
+                    return STATUS_DIVISION_BY_ZERO;
+                }
+                value = a.divide(b, scale, rounding);
+                break;
+            default:
+                value = BigDecimal.ZERO;
+                break;
+        }
+        if (value.scale() > scale) {
+            value = value.setScale(scale, rounding);
+        }
+        write(value, result);
+        return STATUS_OK;
+    }
+}
@@ -0,0 +1,378 @@
+package com.calculator.engine.number;
+
+import java.math.BigInteger;
+
+/**
+ * Кратчайшая десятичная запись double, которая читается обратно в то же значение
+ * (алгоритм Ryu, Ulf Adams, PLDI 2018): 0.1 + 0.2 печатается как 0.30000000000000004,
+ * а 0.1 - как 0.1. Работает в long без BigInteger и без создания объектов.
+ *
+ * Разложение хранится в полях экземпляра, поэтому экземпляр не потокобезопасен.
+ */
+public final class ShortestDecimal {
+    // Максимальная длина канонической записи: "-" + 17 цифр + "." + "E-324"
+    public static final int MAX_LENGTH = 26;
+
+    private static final int MANTISSA_BITS = 52;
+    private static final int EXPONENT_BITS = 11;
+    private static final int EXPONENT_BIAS = 1023;
+    private static final int POW5_BITCOUNT = 125;
+    private static final int POW5_INV_BITCOUNT = 125;
+    // Целые до 2^63 печатаются полностью, как прежний formatResult
+    private static final double LONG_RANGE = 0x1p63;
+    // Обычная запись для 10^-3 <= |x| < 10^7, как у Double.toString
+    private static final int MIN_PLAIN_EXPONENT = -3;
+    private static final int MAX_PLAIN_EXPONENT = 7;
+
+    private boolean negative;
+    private boolean nan;
+    private boolean infinite;
+    // Целое меньше 2^63: пишется всеми цифрами
+    private boolean longInteger;
+    // Значение = mantissa * 10^exponent, mantissa без хвостовых нулей
+    private long mantissa;
+    private int exponent;
+    private int digits;
+
+    public ShortestDecimal set(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        negative = bits < 0;
+        nan = value != value;
+        infinite = Double.isInfinite(value);
+        longInteger = false;
+        mantissa = 0;
+        exponent = 0;
+        digits = 1;
+        if (nan || infinite || value == 0) {
+            return this;
+        }
+        double abs = Math.abs(value);
+        if (abs < LONG_RANGE && abs == (long) abs) {
+            // Целые - самый частый результат калькулятора, таблицы Ryu им не нужны
+            longInteger = true;
+            setTrimmed((long) abs, 0);
+            return this;
+        }
+        long ieeeMantissa = bits & ((1L << MANTISSA_BITS) - 1);
+        int ieeeExponent = (int) ((bits >>> MANTISSA_BITS) & ((1 << EXPONENT_BITS) - 1));
+        toDecimal(ieeeMantissa, ieeeExponent);
+        return this;
+    }
+
+    public boolean isNegative() {
+        return negative;
+    }
+
+    public boolean isNaN() {
+        return nan;
+    }
+
+    public boolean isInfinite() {
+        return infinite;
+    }
+
+    public long getMantissa() {
+        return mantissa;
+    }
+
+    public int getExponent() {
+        return exponent;
+    }
+
+    public int getDigitCount() {
+        return digits;
+    }
+
+    /**
+     * Каноническая запись для буфера движка: целые в long полностью ("1000000"), дробные
+     * в диапазоне Double.toString обычной записью ("0.001", "1234.5"), остальные - "1.5E-7".
+     * Запись читается Double.parseDouble и BigDecimal. Возвращает новую длину буфера.
+     */
+    public int write(char[] buffer, int offset) {
+        int position = offset;
+        if (nan) {
+            return writeAscii("NaN", buffer, position);
+        }
+        // -0.0 печатается как "0", как и в прежнем formatResult
+        if (negative && (mantissa != 0 || infinite)) {
+            buffer[position++] = '-';
+        }
+        if (infinite) {
+            return writeAscii("Infinity", buffer, position);
+        }
+        int leading = exponent + digits - 1;
+        if (longInteger || mantissa == 0 || (leading >= MIN_PLAIN_EXPONENT && leading < MAX_PLAIN_EXPONENT)) {
+            return writePlain(buffer, position);
+        }
+        // Научная запись: d.ddddE±x
+        position = writeDigits(mantissa, digits, buffer, position);
+        if (digits > 1) {
+            System.arraycopy(buffer, position - digits + 1, buffer, position - digits + 2, digits - 1);
+            buffer[position - digits + 1] = '.';
+            position++;
+        }
+        buffer[position++] = 'E';
+        int exp = leading;
+        if (exp < 0) {
+            buffer[position++] = '-';
+            exp = -exp;
+        }
+        return writeDigits(exp, exp >= 100 ? 3 : exp >= 10 ? 2 : 1, buffer, position);
+    }
+
+    private int writePlain(char[] buffer, int position) {
+        if (exponent >= 0) {
+            position = writeDigits(mantissa, digits, buffer, position);
+            for (int i = 0; i < exponent; i++) {
+                buffer[position++] = '0';
+            }
+            return position;
+        }
+        int fraction = -exponent;
+        if (fraction >= digits) {
+            // 0.000ddd
+            buffer[position++] = '0';
+            buffer[position++] = '.';
+            for (int i = digits; i < fraction; i++) {
+                buffer[position++] = '0';
+            }
+            return writeDigits(mantissa, digits, buffer, position);
+        }
+        // ddd.ddd: дробная часть сдвигается на одну позицию, освобождая место под точку
+        position = writeDigits(mantissa, digits, buffer, position);
+        System.arraycopy(buffer, position - fraction, buffer, position - fraction + 1, fraction);
+        buffer[position - fraction] = '.';
+        return position + 1;
+    }
+
+    private static int writeDigits(long value, int count, char[] buffer, int position) {
+        for (int i = position + count - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + (value % 10));
+            value /= 10;
+        }
+        return position + count;
+    }
+
+    private static int writeAscii(String text, char[] buffer, int position) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer[position++] = text.charAt(i);
+        }
+        return position;
+    }
+
+    private void setTrimmed(long value, int exp) {
+        while (value % 10 == 0) {
+            value /= 10;
+            exp++;
+        }
+        mantissa = value;
+        exponent = exp;
+        int count = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            count++;
+        }
+        digits = count;
+    }
+
+    // Ryu d2d: интервал значений, округляющихся к этому double, и кратчайшее десятичное в нем
+    private void toDecimal(long ieeeMantissa, int ieeeExponent) {
+        int e2;
+        long m2;
+        if (ieeeExponent == 0) {
+            e2 = 1 - EXPONENT_BIAS - MANTISSA_BITS - 2;
+            m2 = ieeeMantissa;
+        } else {
+            e2 = ieeeExponent - EXPONENT_BIAS - MANTISSA_BITS - 2;
+            m2 = (1L << MANTISSA_BITS) | ieeeMantissa;
+        }
+        boolean acceptBounds = (m2 & 1) == 0;
+
+        long mv = 4 * m2;
+        int mmShift = ieeeMantissa != 0 || ieeeExponent <= 1 ? 1 : 0;
+
+        long vr;
+        long vp;
+        long vm;
+        int e10;
+        boolean vmIsTrailingZeros = false;
+        boolean vrIsTrailingZeros = false;
+        if (e2 >= 0) {
+            int q = log10Pow2(e2) - (e2 > 3 ? 1 : 0);
+            e10 = q;
+            int k = POW5_INV_BITCOUNT + pow5bits(q) - 1;
+            int i = -e2 + q + k;
+            long[] multiplier = Tables.POW5_INV_SPLIT[q];
+            vr = mulShift(mv, multiplier, i);
+            vp = mulShift(mv + 2, multiplier, i);
+            vm = mulShift(mv - 1 - mmShift, multiplier, i);
+            if (q <= 21) {
+                // Только одно из mp, mv, mm может делиться на 5
+                if (mv % 5 == 0) {
+                    vrIsTrailingZeros = multipleOfPowerOf5(mv, q);
+                } else if (acceptBounds) {
+                    vmIsTrailingZeros = multipleOfPowerOf5(mv - 1 - mmShift, q);
+                } else {
+                    vp -= multipleOfPowerOf5(mv + 2, q) ? 1 : 0;
+                }
+            }
+        } else {
+            int q = log10Pow5(-e2) - (-e2 > 1 ? 1 : 0);
+            e10 = q + e2;
+            int i = -e2 - q;
+            int k = pow5bits(i) - POW5_BITCOUNT;
+            int j = q - k;
+            long[] multiplier = Tables.POW5_SPLIT[i];
+            vr = mulShift(mv, multiplier, j);
+            vp = mulShift(mv + 2, multiplier, j);
+            vm = mulShift(mv - 1 - mmShift, multiplier, j);
+            if (q <= 1) {
+                // mv = 4 * m2 всегда имеет два нулевых младших бита
+                vrIsTrailingZeros = true;
+                if (acceptBounds) {
+                    vmIsTrailingZeros = mmShift == 1;
+                } else {
+                    vp--;
+                }
+            } else if (q < 63) {
+                vrIsTrailingZeros = (mv & ((1L << q) - 1)) == 0;
+            }
+        }
+
+        int removed = 0;
+        int lastRemovedDigit = 0;
+        long output;
+        if (vmIsTrailingZeros || vrIsTrailingZeros) {
+            // Общий случай (меньше процента значений)
+            while (vp / 10 > vm / 10) {
+                vmIsTrailingZeros &= vm % 10 == 0;
+                vrIsTrailingZeros &= lastRemovedDigit == 0;
+                lastRemovedDigit = (int) (vr % 10);
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            if (vmIsTrailingZeros) {
+                while (vm % 10 == 0) {
+                    vrIsTrailingZeros &= lastRemovedDigit == 0;
+                    lastRemovedDigit = (int) (vr % 10);
+                    vr /= 10;
+                    vp /= 10;
+                    vm /= 10;
+                    removed++;
+                }
+            }
+            if (vrIsTrailingZeros && lastRemovedDigit == 5 && vr % 2 == 0) {
+                // Точное значение оканчивается на ...50..0: округляем к четному
+                lastRemovedDigit = 4;
+            }
+            boolean roundUp = (vr == vm && (!acceptBounds || !vmIsTrailingZeros)) || lastRemovedDigit >= 5;
+            output = vr + (roundUp ? 1 : 0);
+        } else {
+            boolean roundUp = false;
+            if (vp / 100 > vm / 100) {
+                // Обычно можно отбросить сразу две цифры
+                roundUp = vr % 100 >= 50;
+                vr /= 100;
+                vp /= 100;
+                vm /= 100;
+                removed += 2;
+            }
+            while (vp / 10 > vm / 10) {
+                roundUp = vr % 10 >= 5;
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            output = vr + (vr == vm || roundUp ? 1 : 0);
+        }
+        setTrimmed(output, e10 + removed);
+    }
+
+    // (m * multiplier) >> shift, где multiplier - 128-битное число [младшие, старшие 64 бита]
+    private static long mulShift(long m, long[] multiplier, int shift) {
+        long lowHigh = multiplyHigh(m, multiplier[0]);
+        long highLow = m * multiplier[1];
+        long highHigh = multiplyHigh(m, multiplier[1]);
+        long sumLow = highLow + lowHigh;
+        long sumHigh = highHigh + (Long.compareUnsigned(sumLow, highLow) < 0 ? 1 : 0);
+        int s = shift - 64;
+        if (s >= 64) {
+            return sumHigh >>> (s - 64);
+        }
+        if (s == 0) {
+            return sumLow;
+        }
+        return (sumLow >>> s) | (sumHigh << (64 - s));
+    }
+
+    // Старшие 64 бита беззнакового произведения (Math.multiplyHigh появился только в Java 9)
+    private static long multiplyHigh(long x, long y) {
+        long x0 = x & 0xffffffffL;
+        long x1 = x >>> 32;
+        long y0 = y & 0xffffffffL;
+        long y1 = y >>> 32;
+        long w0 = x0 * y0;
+        long t = x1 * y0 + (w0 >>> 32);
+        long w1 = (t & 0xffffffffL) + x0 * y1;
+        return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+    }
+
+    private static boolean multipleOfPowerOf5(long value, int p) {
+        int count = 0;
+        while (value % 5 == 0 && count < p) {
+            value /= 5;
+            count++;
+        }
+        return count >= p;
+    }
+
+    // ceil(log2(5^e)), для e = 0 - единица
+    private static int pow5bits(int e) {
+        return (int) (((long) e * 1217359) >>> 19) + 1;
+    }
+
+    // floor(log10(2^e))
+    private static int log10Pow2(int e) {
+        return (int) (((long) e * 78913) >>> 18);
+    }
+
+    // floor(log10(5^e))
+    private static int log10Pow5(int e) {
+        return (int) (((long) e * 732923) >>> 20);
+    }
+
+    /**
+     * 128-битные степени пятерки и обратные к ним. Считаются при первом дробном результате
+     * (несколько миллисекунд), а не при загрузке класса: целым числам они не нужны.
+     */
+    private static final class Tables {
+        static final long[][] POW5_SPLIT = new long[326][];
+        static final long[][] POW5_INV_SPLIT = new long[342][];
+
+        static {
+            BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+            BigInteger pow = BigInteger.ONE;
+            for (int i = 0; i < Math.max(POW5_SPLIT.length, POW5_INV_SPLIT.length); i++) {
+                int bitLength = pow.bitLength();
+                if (i < POW5_SPLIT.length) {
+                    BigInteger normalized = bitLength > POW5_BITCOUNT
+                        ? pow.shiftRight(bitLength - POW5_BITCOUNT)
+                        : pow.shiftLeft(POW5_BITCOUNT - bitLength);
+                    POW5_SPLIT[i] = split(normalized, mask);
+                }
+                if (i < POW5_INV_SPLIT.length) {
+                    BigInteger inverse = BigInteger.ONE.shiftLeft(bitLength - 1 + POW5_INV_BITCOUNT)
+                        .divide(pow).add(BigInteger.ONE);
+                    POW5_INV_SPLIT[i] = split(inverse, mask);
+                }
+                pow = pow.multiply(BigInteger.valueOf(5));
+            }
+        }
+
+        private static long[] split(BigInteger value, BigInteger mask) {
+            return new long[] {value.and(mask).longValue(), value.shiftRight(64).longValue()};
+        }
+    }
+}
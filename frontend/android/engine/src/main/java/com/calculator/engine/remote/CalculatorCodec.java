@@ -0,0 +1,143 @@
+package com.calculator.engine.remote;
+
+import com.calculator.engine.Operators;
+import com.calculator.engine.history.HistoryPage;
+import com.calculator.engine.history.OutboxLog;
+import com.calculator.engine.json.JsonReader;
+import com.calculator.engine.json.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Кодек тел запросов и ответов Laravel API (/calculate, /calculate/batch, /history/sync, /health).
+ *
+ * Запрос пишется сразу в байты, ответ разбирается из потока соединения в {@link Response}:
+ * без org.json, без чтения тела в String и без обратного преобразования результата через строку.
+ */
+public final class CalculatorCodec {
+    private static final JsonReader.Names RESPONSE_FIELDS =
+        JsonReader.Names.of("success", "result", "results", "error");
+    private static final int FIELD_SUCCESS = 0;
+    private static final int FIELD_RESULT = 1;
+    private static final int FIELD_RESULTS = 2;
+    private static final int FIELD_ERROR = 3;
+
+    /**
+     * Разобранный ответ. Отсутствующие числа - NaN, null в массиве results - тоже NaN.
+     */
+    public static final class Response {
+        public boolean success;
+        public double result = Double.NaN;
+        public double[] results = new double[0];
+        public int resultCount;
+        public String error;
+
+        public void reset() {
+            success = false;
+            result = Double.NaN;
+            resultCount = 0;
+            error = null;
+        }
+    }
+
+    private CalculatorCodec() {
+    }
+
+    public static void writeCalculateRequest(JsonWriter writer, double a, double b, String operation) {
+        writer.beginObject()
+            .name("a").value(a)
+            .name("b").value(b)
+            .name("operation").value(operation)
+            .endObject();
+    }
+
+    public static void writeBatchRequest(JsonWriter writer, double[] a, double[] b, String[] operations, int count) {
+        writer.beginObject().name("operations").beginArray();
+        for (int i = 0; i < count; i++) {
+            writeCalculateRequest(writer, a[i], b[i], operations[i]);
+        }
+        writer.endArray().endObject();
+    }
+
+    /**
+     * Записи с бесконечностью или NaN пропускаются: в JSON их не записать, а сервер их не сохранит.
+     * Они подтверждаются вместе с пакетом и не блокируют очередь. Возвращает число записанных.
+     */
+    public static int writeSyncRequest(JsonWriter writer, HistoryPage page, OutboxLog outbox) {
+        int written = 0;
+        writer.beginObject().name("calculations").beginArray();
+        for (int i = 0; i < page.size(); i++) {
+            if (!isFinite(page.getFirstOperand(i), page.getSecondOperand(i), page.getResult(i))) {
+                continue;
+            }
+            writer.beginObject()
+                .name("client_id").value(outbox.clientId(page.getId(i)))
+                .name("a").value(page.getFirstOperand(i))
+                .name("b").value(page.getSecondOperand(i))
+                .name("operation").value(Operators.apiSymbol(page.getOperator(i)))
+                .name("result").value(page.getResult(i))
+                .name("timestamp").value(page.getTimestamp(i))
+                .endObject();
+            written++;
+        }
+        writer.endArray().endObject();
+        return written;
+    }
+
+    public static boolean isFinite(double a, double b, double result) {
+        return !Double.isNaN(a) && !Double.isInfinite(a)
+            && !Double.isNaN(b) && !Double.isInfinite(b)
+            && !Double.isNaN(result) && !Double.isInfinite(result);
+    }
+
+    /**
+     * Читает ответ целиком, включая хвост потока, чтобы соединение вернулось в пул keep-alive.
+     */
+    public static Response readResponse(InputStream in, Response response) throws IOException {
+        response.reset();
+        JsonReader reader = new JsonReader(in);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(RESPONSE_FIELDS)) {
+                case FIELD_SUCCESS:
+                    response.success = reader.nextBoolean();
+                    break;
+                case FIELD_RESULT:
+                    response.result = reader.peekNull() ? nullAsNaN(reader) : reader.nextDouble();
+                    break;
+                case FIELD_RESULTS:
+                    readResults(reader, response);
+                    break;
+                case FIELD_ERROR:
+                    response.error = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        reader.drain();
+        return response;
+    }
+
+    private static void readResults(JsonReader reader, Response response) throws IOException {
+        reader.beginArray();
+        int count = 0;
+        while (reader.hasNext()) {
+            if (count == response.results.length) {
+                response.results = Arrays.copyOf(response.results, Math.max(8, count * 2));
+            }
+            response.results[count++] = reader.peekNull() ? nullAsNaN(reader) : reader.nextDouble();
+        }
+        reader.endArray();
+        response.resultCount = count;
+    }
+
+    private static double nullAsNaN(JsonReader reader) throws IOException {
+        reader.nextNull();
+        return Double.NaN;
+    }
+}
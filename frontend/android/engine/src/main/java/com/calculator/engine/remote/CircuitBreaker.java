@@ -0,0 +1,175 @@
+package com.calculator.engine.remote;
+
+/**
+ * Предохранитель удаленного пути вычислений.
+ *
+ * CLOSED - запросы идут в API. После failureThreshold сетевых ошибок подряд
+ * переходит в OPEN: вызывающий код сразу считает локально, а RemoteCalculator
+ * в фоне опрашивает /health с растущей задержкой. Успешная проверка переводит
+ * в HALF_OPEN, где пропускается один пробный запрос: его успех закрывает
+ * предохранитель, ошибка снова открывает.
+ */
+public final class CircuitBreaker {
+    public static final int STATE_CLOSED = 0;
+    public static final int STATE_OPEN = 1;
+    public static final int STATE_HALF_OPEN = 2;
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 2;
+    public static final long DEFAULT_INITIAL_PROBE_DELAY_MS = 2000;
+    public static final long DEFAULT_MAX_PROBE_DELAY_MS = 60000;
+
+    public interface StateListener {
+        void onStateChanged(int state);
+    }
+
+    private final int failureThreshold;
+    private final long initialProbeDelayMs;
+    private final long maxProbeDelayMs;
+
+    private int state = STATE_CLOSED;
+    private int consecutiveFailures;
+    private boolean trialInFlight;
+    private long probeDelayMs;
+    private StateListener listener;
+
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_INITIAL_PROBE_DELAY_MS, DEFAULT_MAX_PROBE_DELAY_MS);
+    }
+
+    public CircuitBreaker(int failureThreshold, long initialProbeDelayMs, long maxProbeDelayMs) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive: " + failureThreshold);
+        }
+        this.failureThreshold = failureThreshold;
+        this.initialProbeDelayMs = initialProbeDelayMs;
+        this.maxProbeDelayMs = maxProbeDelayMs;
+        this.probeDelayMs = initialProbeDelayMs;
+    }
+
+    /**
+     * Можно ли сейчас отправлять запрос. Не занимает пробный слот HALF_OPEN.
+     */
+    public synchronized boolean isAvailable() {
+        return state == STATE_CLOSED || (state == STATE_HALF_OPEN && !trialInFlight);
+    }
+
+    /**
+     * Разрешение на запрос. В HALF_OPEN выдается только одно до получения его результата.
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case STATE_CLOSED:
+                return true;
+            case STATE_HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Запрос отменен до ответа: его исход ничего не говорит о сервере
+    synchronized void release() {
+        trialInFlight = false;
+    }
+
+    void onSuccess() {
+        boolean changed;
+        synchronized (this) {
+            consecutiveFailures = 0;
+            trialInFlight = false;
+            changed = moveTo(STATE_CLOSED);
+        }
+        if (changed) {
+            notifyListener(STATE_CLOSED);
+        }
+    }
+
+    /**
+     * @return true, если ошибка открыла предохранитель и нужно запустить опрос /health
+     */
+    boolean onFailure() {
+        boolean opened = false;
+        synchronized (this) {
+            trialInFlight = false;
+            consecutiveFailures++;
+            if (state == STATE_HALF_OPEN || (state == STATE_CLOSED && consecutiveFailures >= failureThreshold)) {
+                opened = moveTo(STATE_OPEN);
+            }
+        }
+        if (opened) {
+            notifyListener(STATE_OPEN);
+        }
+        return opened;
+    }
+
+    /**
+     * Результат фоновой проверки /health.
+     *
+     * @return true, если предохранитель остался открытым и проверку нужно повторить
+     */
+    boolean onProbeResult(boolean healthy) {
+        synchronized (this) {
+            if (state != STATE_OPEN) {
+                return false;
+            }
+            if (!healthy) {
+                probeDelayMs = Math.min(probeDelayMs * 2, maxProbeDelayMs);
+                return true;
+            }
+            moveTo(STATE_HALF_OPEN);
+        }
+        notifyListener(STATE_HALF_OPEN);
+        return false;
+    }
+
+    synchronized long getProbeDelayMs() {
+        return probeDelayMs;
+    }
+
+    public synchronized int getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    // Слушатель вызывается в потоке, где произошел переход
+    synchronized void setStateListener(StateListener listener) {
+        this.listener = listener;
+    }
+
+    public static String stateName(int state) {
+        switch (state) {
+            case STATE_OPEN: return "open";
+            case STATE_HALF_OPEN: return "half_open";
+            default: return "closed";
+        }
+    }
+
+    private boolean moveTo(int newState) {
+        if (state == newState) {
+            return false;
+        }
+        state = newState;
+        if (newState == STATE_CLOSED) {
+            probeDelayMs = initialProbeDelayMs;
+        }
+        return true;
+    }
+
+    // Вызывается вне блокировки, чтобы слушатель мог читать состояние
+    private void notifyListener(int newState) {
+        StateListener current;
+        synchronized (this) {
+            current = listener;
+        }
+        if (current != null) {
+            current.onStateChanged(newState);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.calculator.engine.remote;
+
+/**
+ * Статистика режима с хеджированием: локальный результат показывается сразу,
+ * а ответ сервера лишь сверяется с ним.
+ *
+ * Ответ внутри бюджета считается сверкой (совпал или расходится), позже бюджета -
+ * опоздавшим. Задержка учитывается для всех полученных ответов.
+ */
+public final class HedgeStats {
+    // Допустимое относительное расхождение: сервер и клиент могут по-разному округлять
+    private static final double RELATIVE_TOLERANCE = 1e-12;
+
+    private long agreements;
+    private long disagreements;
+    private long lateResponses;
+    private long failures;
+    private long responses;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    public static boolean agree(double local, double remote) {
+        if (local == remote) {
+            return true;
+        }
+        double scale = Math.max(1.0, Math.max(Math.abs(local), Math.abs(remote)));
+        return Math.abs(local - remote) <= RELATIVE_TOLERANCE * scale;
+    }
+
+    public synchronized void recordAudit(boolean agreed, long latencyNanos) {
+        if (agreed) {
+            agreements++;
+        } else {
+            disagreements++;
+        }
+        recordLatency(latencyNanos);
+    }
+
+    public synchronized void recordLate(long latencyNanos) {
+        lateResponses++;
+        recordLatency(latencyNanos);
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+    }
+
+    private void recordLatency(long latencyNanos) {
+        responses++;
+        totalLatencyNanos += latencyNanos;
+        if (latencyNanos > maxLatencyNanos) {
+            maxLatencyNanos = latencyNanos;
+        }
+    }
+
+    public synchronized void reset() {
+        agreements = 0;
+        disagreements = 0;
+        lateResponses = 0;
+        failures = 0;
+        responses = 0;
+        totalLatencyNanos = 0;
+        maxLatencyNanos = 0;
+    }
+
+    public synchronized long getAgreements() {
+        return agreements;
+    }
+
+    public synchronized long getDisagreements() {
+        return disagreements;
+    }
+
+    public synchronized long getLateResponses() {
+        return lateResponses;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    public synchronized double getMeanLatencyMs() {
+        return responses == 0 ? 0 : totalLatencyNanos / (double) responses / 1e6;
+    }
+
+    public synchronized double getMaxLatencyMs() {
+        return maxLatencyNanos / 1e6;
+    }
+}
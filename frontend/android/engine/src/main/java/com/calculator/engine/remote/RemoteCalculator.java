@@ -0,0 +1,745 @@
+package com.calculator.engine.remote;
+
+import com.calculator.engine.CalculationChain;
+import com.calculator.engine.Operators;
+import com.calculator.engine.history.HistoryPage;
+import com.calculator.engine.history.OutboxLog;
+
+import com.calculator.engine.json.JsonWriter;
+import com.calculator.engine.metrics.MetricsRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Общий клиент POST {baseUrl}/calculate вместо AsyncTask с отдельным соединением на каждое "=".
+ *
+ * Запросы выполняются на ограниченном пуле потоков. Тело ответа всегда дочитывается
+ * и поток закрывается без disconnect(), чтобы HttpURLConnection вернул сокет в пул
+ * keep-alive и следующий запрос не платил за установку TCP соединения.
+ * Результаты доставляются через callbackExecutor (на Android - главный поток).
+ *
+ * Удаленный путь защищен {@link CircuitBreaker}: пока он открыт, запросы сразу
+ * завершаются ошибкой без обращения к сети, а доступность сервера проверяется
+ * в фоне через GET {baseUrl}/health.
+ *
+ * Если подключена очередь {@link OutboxLog}, локально посчитанные вычисления отправляются
+ * в фоне на POST {baseUrl}/history/sync сжатыми пакетами, пока API доступен.
+ */
+public final class RemoteCalculator {
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = 5000;
+    public static final int DEFAULT_READ_TIMEOUT_MS = 5000;
+    public static final int DEFAULT_MAX_THREADS = 2;
+    private static final int MAX_QUEUED_REQUESTS = 16;
+
+    // Очередь отправки: ждем немного, чтобы собрать несколько вычислений в один пакет
+    private static final int SYNC_BATCH_SIZE = 100;
+    private static final long SYNC_DELAY_MS = 2000;
+    private static final long SYNC_INITIAL_BACKOFF_MS = 5000;
+    private static final long SYNC_MAX_BACKOFF_MS = 5 * 60 * 1000;
+
+    /**
+     * Результат удаленного вычисления. Вызывается не более одного раза
+     * и никогда для отмененного запроса.
+     */
+    public interface Callback {
+        void onResult(double result);
+
+        // Сообщение начинается с "Error:", "API Error:" или "Network Error:"
+        void onFailure(String message);
+    }
+
+    /**
+     * Результат пакетного запроса. Для неудавшихся шагов в массиве стоит NaN.
+     */
+    public interface BatchCallback {
+        void onResults(double[] results);
+
+        void onFailure(String message);
+    }
+
+    private final String calculateUrl;
+    private final String batchUrl;
+    private final String healthUrl;
+    private final String syncUrl;
+    private final Executor callbackExecutor;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker breaker;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final CopyOnWriteArrayList<CircuitBreaker.StateListener> stateListeners = new CopyOnWriteArrayList<>();
+
+    private volatile OutboxLog outbox;
+    private volatile MetricsRegistry metrics;
+    // Страница очереди читается только в потоке scheduler
+    private final HistoryPage syncPage = new HistoryPage();
+    private boolean syncScheduled;
+    // Размер пакета отправки, уменьшается после 413; меняется только в потоке scheduler
+    private int syncBatchSize = SYNC_BATCH_SIZE;
+    private long syncBackoffMs = SYNC_INITIAL_BACKOFF_MS;
+
+    public RemoteCalculator(String baseUrl, Executor callbackExecutor) {
+        this(baseUrl, callbackExecutor, DEFAULT_CONNECT_TIMEOUT_MS, DEFAULT_READ_TIMEOUT_MS, DEFAULT_MAX_THREADS);
+    }
+
+    public RemoteCalculator(String baseUrl, Executor callbackExecutor,
+                            int connectTimeoutMs, int readTimeoutMs, int maxThreads) {
+        this(baseUrl, callbackExecutor, connectTimeoutMs, readTimeoutMs, maxThreads, new CircuitBreaker());
+    }
+
+    public RemoteCalculator(String baseUrl, Executor callbackExecutor,
+                            int connectTimeoutMs, int readTimeoutMs, int maxThreads, CircuitBreaker breaker) {
+        this.calculateUrl = baseUrl + "/calculate";
+        this.batchUrl = baseUrl + "/calculate/batch";
+        this.healthUrl = baseUrl + "/health";
+        this.syncUrl = baseUrl + "/history/sync";
+        this.callbackExecutor = callbackExecutor;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.executor = new ThreadPoolExecutor(maxThreads, maxThreads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(MAX_QUEUED_REQUESTS), new WorkerThreadFactory("calculator-remote-"));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.breaker = breaker;
+        this.breaker.setStateListener(state -> {
+            dispatchStateChange(state);
+            if (state != CircuitBreaker.STATE_OPEN) {
+                // API снова доступен: отправляем накопленное
+                scheduleSync(0);
+            }
+        });
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new WorkerThreadFactory("calculator-background-"));
+    }
+
+    /**
+     * Сессия для одного потребителя (активность или экземпляр нативного view).
+     * Новый запрос в сессии отменяет предыдущий, еще не завершенный.
+     */
+    public Session newSession() {
+        return new Session();
+    }
+
+    /**
+     * Сверка вне сессий: ее не отменяют ни следующие запросы, ни Session.cancel(), поэтому
+     * вызывающий код всегда получает исход и может сохранить шаги в очередь при ошибке.
+     */
+    public Call audit(double a, double b, String operation, Callback callback) {
+        return send(new SingleCall(a, b, operation, callback));
+    }
+
+    /**
+     * Сверка уже вычисленных шагов цепочки вне сессий, см. {@link #audit(double, double, String, Callback)}.
+     */
+    public Call auditChain(CalculationChain chain, BatchCallback callback) {
+        int count = chain.size();
+        double[] first = new double[count];
+        double[] second = new double[count];
+        String[] operations = new String[count];
+        copySteps(chain, first, second, operations);
+        return send(new BatchCall(first, second, operations, count, callback));
+    }
+
+    private Call send(Call call) {
+        // Ошибка ввода, а не сети: предохранитель не трогаем
+        if (!call.isEncodable()) {
+            call.deliverFailure("Error: Invalid number");
+            return call;
+        }
+        if (!breaker.tryAcquire()) {
+            call.deliverFailure("Network Error: API unavailable (circuit open)");
+            return call;
+        }
+        call.acquired = true;
+        try {
+            executor.execute(call);
+        } catch (RejectedExecutionException e) {
+            call.releasePermit();
+            call.deliverFailure("Network Error: too many pending requests");
+        }
+        return call;
+    }
+
+    private static void copySteps(CalculationChain chain, double[] first, double[] second, String[] operations) {
+        for (int i = 0; i < chain.size(); i++) {
+            first[i] = chain.getFirstOperand(i);
+            second[i] = chain.getSecondOperand(i);
+            operations[i] = Operators.apiSymbol(chain.getOperator(i));
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Стоит ли сейчас идти в сеть. Пока предохранитель открыт, вызывающий код
+     * считает локально, не дожидаясь таймаута.
+     */
+    public boolean isAvailable() {
+        return breaker.isAvailable();
+    }
+
+    /**
+     * Куда записывать круговую задержку запросов /calculate и /calculate/batch и их ошибки.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Подключает очередь отправки и запускает фоновую синхронизацию.
+     */
+    public void attachOutbox(OutboxLog outbox) {
+        this.outbox = outbox;
+        requestSync();
+    }
+
+    /**
+     * В очередь добавлены записи: отправка через SYNC_DELAY_MS одним пакетом.
+     */
+    public void requestSync() {
+        scheduleSync(SYNC_DELAY_MS);
+    }
+
+    private void scheduleSync(long delayMs) {
+        synchronized (syncPage) {
+            if (outbox == null || syncScheduled) {
+                return;
+            }
+            syncScheduled = true;
+        }
+        try {
+            scheduler.schedule(this::syncOutbox, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Клиент уже остановлен
+        }
+    }
+
+    private void syncOutbox() {
+        synchronized (syncPage) {
+            syncScheduled = false;
+        }
+        OutboxLog log = outbox;
+        // Пока предохранитель открыт, отправку возобновит переход в HALF_OPEN или CLOSED
+        if (log.pendingCount() == 0 || !breaker.isAvailable()) {
+            return;
+        }
+        int count = log.readPending(syncBatchSize, syncPage);
+        JsonWriter request = new JsonWriter(64 + count * 128);
+        int written;
+        try {
+            written = CalculatorCodec.writeSyncRequest(request, syncPage, log);
+        } catch (RuntimeException e) {
+            // Разрешение предохранителя еще не взято: только откладываем отправку
+            onSyncFailed();
+            return;
+        }
+        if (written == 0) {
+            // Во всем пакете только неотправляемые записи
+            completeSync(log, count);
+            return;
+        }
+        if (!breaker.tryAcquire()) {
+            return;
+        }
+        Call call = new SyncCall(log, request, count);
+        call.acquired = true;
+        // Выполняется прямо в потоке scheduler: отправки очереди идут строго по одной
+        call.run();
+    }
+
+    private void completeSync(OutboxLog log, int count) {
+        log.acknowledge(count);
+        synchronized (syncPage) {
+            syncBackoffMs = SYNC_INITIAL_BACKOFF_MS;
+        }
+        if (log.pendingCount() > 0) {
+            scheduleSync(0);
+        }
+    }
+
+    // Пакет слишком велик: повторяем сразу же, но вдвое меньшими пакетами
+    private void onSyncTooLarge(OutboxLog log, int count) {
+        if (count <= 1) {
+            // Одну запись не отправить никогда
+            completeSync(log, count);
+            return;
+        }
+        syncBatchSize = count / 2;
+        scheduleSync(0);
+    }
+
+    private void onSyncFailed() {
+        long delay;
+        synchronized (syncPage) {
+            delay = syncBackoffMs;
+            syncBackoffMs = Math.min(syncBackoffMs * 2, SYNC_MAX_BACKOFF_MS);
+        }
+        scheduleSync(delay);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Слушатели переходов предохранителя вызываются через callbackExecutor.
+     */
+    public void addStateListener(CircuitBreaker.StateListener listener) {
+        stateListeners.add(listener);
+    }
+
+    public void removeStateListener(CircuitBreaker.StateListener listener) {
+        stateListeners.remove(listener);
+    }
+
+    private void dispatchStateChange(final int state) {
+        if (stateListeners.isEmpty()) {
+            return;
+        }
+        callbackExecutor.execute(() -> {
+            for (CircuitBreaker.StateListener listener : stateListeners) {
+                listener.onStateChanged(state);
+            }
+        });
+    }
+
+    private void recordFailure() {
+        if (breaker.onFailure()) {
+            scheduleProbe();
+        }
+    }
+
+    private void scheduleProbe() {
+        try {
+            scheduler.schedule(this::probe, breaker.getProbeDelayMs(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Клиент уже остановлен
+        }
+    }
+
+    private void probe() {
+        boolean healthy = false;
+        try {
+            HttpURLConnection http = (HttpURLConnection) new URL(healthUrl).openConnection();
+            http.setRequestProperty("Accept", "application/json");
+            http.setConnectTimeout(connectTimeoutMs);
+            http.setReadTimeout(readTimeoutMs);
+            int responseCode = http.getResponseCode();
+            if (responseCode >= 200 && responseCode < 300) {
+                try (InputStream in = http.getInputStream()) {
+                    healthy = CalculatorCodec.readResponse(in, new CalculatorCodec.Response()).success;
+                }
+            } else {
+                drain(http.getErrorStream());
+            }
+        } catch (Exception e) {
+            healthy = false;
+        }
+        if (breaker.onProbeResult(healthy)) {
+            scheduleProbe();
+        }
+    }
+
+    public final class Session {
+        private Call latest;
+
+        private Session() {
+        }
+
+        public Call calculate(double a, double b, String operation, Callback callback) {
+            return submit(new SingleCall(a, b, operation, callback));
+        }
+
+        /**
+         * Цепочка операций одним запросом POST {baseUrl}/calculate/batch.
+         * Сервер вычисляет и сохраняет шаги в исходном порядке.
+         */
+        public Call calculateBatch(double[] a, double[] b, String[] operations, int count, BatchCallback callback) {
+            return submit(new BatchCall(a, b, operations, count, callback));
+        }
+
+        /**
+         * Уже вычисленные шаги цепочки плюс ожидающая операция как последний элемент пакета.
+         */
+        public Call calculateChain(CalculationChain chain, double a, int operator, double b, BatchCallback callback) {
+            int count = chain.size() + 1;
+            double[] first = new double[count];
+            double[] second = new double[count];
+            String[] operations = new String[count];
+            copySteps(chain, first, second, operations);
+            first[count - 1] = a;
+            second[count - 1] = b;
+            operations[count - 1] = Operators.apiSymbol(operator);
+            return calculateBatch(first, second, operations, count, callback);
+        }
+
+        private Call submit(Call call) {
+            synchronized (this) {
+                if (latest != null) {
+                    latest.cancel();
+                }
+                latest = call;
+            }
+            return send(call);
+        }
+
+        public synchronized void cancel() {
+            if (latest != null) {
+                latest.cancel();
+                latest = null;
+            }
+        }
+    }
+
+    public abstract class Call implements Runnable {
+        // Операция для метрик задержки; NOT_TIMED - запрос не учитывается (проверки, синхронизация)
+        static final int NOT_TIMED = -1;
+
+        int timedOperator = NOT_TIMED;
+        // Код ответа сервера, 0 - ответа не было
+        int responseCode;
+        private volatile boolean cancelled;
+        private volatile HttpURLConnection connection;
+        // Разрешение предохранителя еще не вернули исходом запроса
+        private boolean acquired;
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            HttpURLConnection active = connection;
+            if (active != null) {
+                // Прерываем чтение: соединение при этом не возвращается в пул
+                active.disconnect();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                releasePermit();
+                return;
+            }
+            try {
+                perform();
+            } catch (RemoteException e) {
+                recordMetricsFailure();
+                deliverFailure(e.getMessage());
+            } catch (IllegalArgumentException e) {
+                // Запрос не закодировался: сервер тут ни при чем, разрешение вернет finally
+                deliverFailure("Error: " + e.getMessage());
+            } catch (Exception e) {
+                if (!cancelled) {
+                    recordMetricsFailure();
+                }
+                if (acquired) {
+                    // Ответа не было: сетевая ошибка, если только запрос не прервали сами
+                    acquired = false;
+                    if (cancelled) {
+                        breaker.release();
+                    } else {
+                        recordFailure();
+                    }
+                }
+                deliverFailure("Network Error: " + e.getMessage());
+            } finally {
+                connection = null;
+                releasePermit();
+            }
+        }
+
+        private void recordMetricsFailure() {
+            MetricsRegistry registry = metrics;
+            if (registry != null && timedOperator != NOT_TIMED) {
+                registry.increment(MetricsRegistry.COUNTER_REMOTE_FAILURES);
+            }
+        }
+
+        void releasePermit() {
+            if (acquired) {
+                acquired = false;
+                breaker.release();
+            }
+        }
+
+        abstract void perform() throws Exception;
+
+        // Можно ли записать запрос в JSON: бесконечность и NaN в нем недопустимы
+        boolean isEncodable() {
+            return true;
+        }
+
+        abstract void onFailure(String message);
+
+        CalculatorCodec.Response post(String url, JsonWriter request) throws Exception {
+            return post(url, request, false);
+        }
+
+        CalculatorCodec.Response post(String url, JsonWriter request, boolean gzip) throws Exception {
+            ByteArrayOutputStream compressed = null;
+            if (gzip) {
+                compressed = new ByteArrayOutputStream(request.size() / 4 + 64);
+                try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                    request.writeTo(out);
+                }
+            }
+
+            long startedAt = System.nanoTime();
+            HttpURLConnection http = (HttpURLConnection) new URL(url).openConnection();
+            connection = http;
+            http.setRequestMethod("POST");
+            http.setRequestProperty("Content-Type", "application/json");
+            http.setRequestProperty("Accept", "application/json");
+            http.setRequestProperty("Connection", "keep-alive");
+            if (gzip) {
+                http.setRequestProperty("Content-Encoding", "gzip");
+            }
+            http.setDoOutput(true);
+            http.setFixedLengthStreamingMode(gzip ? compressed.size() : request.size());
+            http.setConnectTimeout(connectTimeoutMs);
+            http.setReadTimeout(readTimeoutMs);
+
+            try (OutputStream os = http.getOutputStream()) {
+                if (gzip) {
+                    compressed.writeTo(os);
+                } else {
+                    request.writeTo(os);
+                }
+            }
+
+            int responseCode = http.getResponseCode();
+            this.responseCode = responseCode;
+            boolean ok = responseCode >= 200 && responseCode < 300;
+            CalculatorCodec.Response response = null;
+            if (ok) {
+                // Ответ разбирается прямо из потока соединения
+                try (InputStream in = http.getInputStream()) {
+                    response = CalculatorCodec.readResponse(in, new CalculatorCodec.Response());
+                }
+            } else {
+                drain(http.getErrorStream());
+            }
+            MetricsRegistry registry = metrics;
+            if (registry != null && timedOperator != NOT_TIMED) {
+                // Круговая задержка до разобранного ответа, включая ответы с ошибкой
+                registry.record(MetricsRegistry.TIMER_CALCULATE_REMOTE, timedOperator, System.nanoTime() - startedAt);
+            }
+
+            // Сервер ответил: 4xx - ошибка запроса, а не недоступность API
+            acquired = false;
+            if (responseCode >= 500) {
+                recordFailure();
+            } else {
+                breaker.onSuccess();
+            }
+
+            if (!ok) {
+                throw new RemoteException("API Error: " + responseCode);
+            }
+            if (!response.success) {
+                throw new RemoteException("Error: " + response.error);
+            }
+            return response;
+        }
+
+        // Запрос мог быть отменен, пока результат шел в callbackExecutor, поэтому проверяем дважды
+        void deliver(final Runnable delivery) {
+            if (cancelled) {
+                return;
+            }
+            callbackExecutor.execute(() -> {
+                if (!cancelled) {
+                    delivery.run();
+                }
+            });
+        }
+
+        void deliverFailure(final String message) {
+            deliver(() -> onFailure(message));
+        }
+    }
+
+    private final class SingleCall extends Call {
+        private final double a;
+        private final double b;
+        private final String operation;
+        private final Callback callback;
+
+        SingleCall(double a, double b, String operation, Callback callback) {
+            this.a = a;
+            this.b = b;
+            this.operation = operation;
+            this.callback = callback;
+            this.timedOperator = Operators.fromApiSymbol(operation);
+        }
+
+        @Override
+        boolean isEncodable() {
+            return isFinite(a) && isFinite(b);
+        }
+
+        @Override
+        void perform() throws Exception {
+            JsonWriter request = new JsonWriter();
+            CalculatorCodec.writeCalculateRequest(request, a, b, operation);
+
+            final double result = post(calculateUrl, request).result;
+            if (Double.isNaN(result)) {
+                throw new RemoteException("API Error: no result in response");
+            }
+            deliver(() -> callback.onResult(result));
+        }
+
+        @Override
+        void onFailure(String message) {
+            callback.onFailure(message);
+        }
+    }
+
+    private final class BatchCall extends Call {
+        private final double[] a;
+        private final double[] b;
+        private final String[] operations;
+        private final int count;
+        private final BatchCallback callback;
+
+        BatchCall(double[] a, double[] b, String[] operations, int count, BatchCallback callback) {
+            this.a = a;
+            this.b = b;
+            this.operations = operations;
+            this.count = count;
+            this.callback = callback;
+            this.timedOperator = Operators.NONE;
+        }
+
+        @Override
+        boolean isEncodable() {
+            for (int i = 0; i < count; i++) {
+                if (!isFinite(a[i]) || !isFinite(b[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void perform() throws Exception {
+            JsonWriter request = new JsonWriter(64 + count * 48);
+            CalculatorCodec.writeBatchRequest(request, a, b, operations, count);
+
+            CalculatorCodec.Response response = post(batchUrl, request);
+            final double[] results = new double[count];
+            for (int i = 0; i < count; i++) {
+                results[i] = i < response.resultCount ? response.results[i] : Double.NaN;
+            }
+            deliver(() -> callback.onResults(results));
+        }
+
+        @Override
+        void onFailure(String message) {
+            callback.onFailure(message);
+        }
+    }
+
+    private final class SyncCall extends Call {
+        private final OutboxLog log;
+        private final JsonWriter request;
+        private final int count;
+
+        SyncCall(OutboxLog log, JsonWriter request, int count) {
+            this.log = log;
+            this.request = request;
+            this.count = count;
+        }
+
+        @Override
+        void perform() throws Exception {
+            post(syncUrl, request, true);
+            // Сервер отбрасывает уже известные client_id, поэтому повтор после обрыва безопасен
+            completeSync(log, count);
+        }
+
+        // Оба исхода отправки обрабатываются в потоке scheduler: очередь и backoff меняются только там
+        @Override
+        void deliverFailure(String message) {
+            onFailure(message);
+        }
+
+        @Override
+        void onFailure(String message) {
+            switch (responseCode) {
+                case 400:
+                case 422:
+                    // Сервер отклонил данные пакета: повтор не поможет и заблокирует очередь
+                    completeSync(log, count);
+                    break;
+                case 413:
+                    onSyncTooLarge(log, count);
+                    break;
+                default:
+                    // Остальные 4xx (404, 408, 429...) и 5xx временные: записи остаются в очереди
+                    onSyncFailed();
+                    break;
+            }
+        }
+    }
+
+    private static boolean isFinite(double value) {
+        return !Double.isNaN(value) && !Double.isInfinite(value);
+    }
+
+    // Тело дочитывается до конца, иначе соединение не попадет в пул keep-alive
+    private static void drain(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        try (InputStream stream = in) {
+            byte[] buffer = new byte[512];
+            while (stream.read(buffer) != -1) {
+                // отбрасываем
+            }
+        }
+    }
+
+    private static final class RemoteException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        RemoteException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        WorkerThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.calculator.engine.startup;
+
+import com.calculator.engine.json.JsonWriter;
+
+/**
+ * Отметки холодного старта на монотонных часах и бюджет времени для них.
+ *
+ * Время передает вызывающий код (на Android - SystemClock.elapsedRealtimeNanos()),
+ * поэтому трассу можно собрать и проверить в обычном JVM-тесте. Засчитывается только
+ * первая отметка фазы: повторное создание активности не переписывает холодный старт.
+ */
+public final class StartupTrace {
+    public static final int PHASE_PROCESS_START = 0;
+    public static final int PHASE_APPLICATION_CREATE = 1;
+    public static final int PHASE_SOLOADER_INIT = 2;
+    public static final int PHASE_ACTIVITY_CREATE = 3;
+    public static final int PHASE_LAYOUT_BUILT = 4;
+    public static final int PHASE_FIRST_DRAW = 5;
+    public static final int PHASE_REACT_READY = 6;
+    public static final int PHASE_COUNT = 7;
+
+    public static final long NOT_MARKED = -1;
+    public static final int NO_PHASE = -1;
+
+    private static final String[] PHASE_NAMES = {
+        "process_start", "application_create", "soloader_init", "activity_create",
+        "layout_built", "first_draw", "react_ready"
+    };
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final long[] marks = new long[PHASE_COUNT];
+    // Допустимое время от начала старта до фазы, NOT_MARKED - без ограничения
+    private final long[] budgets = new long[PHASE_COUNT];
+
+    public StartupTrace() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            marks[i] = NOT_MARKED;
+            budgets[i] = NOT_MARKED;
+        }
+    }
+
+    public static String phaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    /**
+     * Возвращает false, если фаза уже отмечена.
+     */
+    public synchronized boolean mark(int phase, long timestampNanos) {
+        if (marks[phase] != NOT_MARKED) {
+            return false;
+        }
+        marks[phase] = timestampNanos;
+        return true;
+    }
+
+    public synchronized void setBudget(int phase, long budgetNanos) {
+        budgets[phase] = budgetNanos;
+    }
+
+    public synchronized long getMark(int phase) {
+        return marks[phase];
+    }
+
+    /**
+     * Время от начала старта (самой ранней отмеченной фазы) до phase, NOT_MARKED - фаза не отмечена.
+     */
+    public synchronized long sinceStartNanos(int phase) {
+        if (marks[phase] == NOT_MARKED) {
+            return NOT_MARKED;
+        }
+        return marks[phase] - marks[origin()];
+    }
+
+    /**
+     * Время от предыдущей отмеченной фазы до phase: сколько стоил этот шаг старта.
+     */
+    public synchronized long stepNanos(int phase) {
+        if (marks[phase] == NOT_MARKED) {
+            return NOT_MARKED;
+        }
+        for (int previous = phase - 1; previous >= 0; previous--) {
+            if (marks[previous] != NOT_MARKED) {
+                return marks[phase] - marks[previous];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Первая отмеченная фаза, вышедшая за свой бюджет, или NO_PHASE.
+     */
+    public synchronized int firstOverBudget() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            if (budgets[i] != NOT_MARKED && marks[i] != NOT_MARKED && sinceStartNanos(i) > budgets[i]) {
+                return i;
+            }
+        }
+        return NO_PHASE;
+    }
+
+    public boolean isWithinBudget() {
+        return firstOverBudget() == NO_PHASE;
+    }
+
+    /**
+     * Отчет одним JSON-объектом: {"phases":[{"name","since_start_ms","step_ms","budget_ms"}],"within_budget"}.
+     * Неотмеченные фазы пропускаются.
+     */
+    public synchronized void writeReport(JsonWriter writer) {
+        writer.beginObject().name("phases").beginArray();
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            if (marks[i] == NOT_MARKED) {
+                continue;
+            }
+            writer.beginObject()
+                .name("name").value(PHASE_NAMES[i])
+                .name("since_start_ms").value(sinceStartNanos(i) / NANOS_PER_MILLI)
+                .name("step_ms").value(stepNanos(i) / NANOS_PER_MILLI);
+            if (budgets[i] != NOT_MARKED) {
+                writer.name("budget_ms").value(budgets[i] / NANOS_PER_MILLI);
+            }
+            writer.endObject();
+        }
+        writer.endArray()
+            .name("within_budget").value(firstOverBudget() == NO_PHASE)
+            .endObject();
+    }
+
+    private int origin() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            if (marks[i] != NOT_MARKED) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
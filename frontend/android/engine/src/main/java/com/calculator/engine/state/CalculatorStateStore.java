@@ -0,0 +1,95 @@
+package com.calculator.engine.state;
+
+import com.calculator.engine.Operators;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Общее для процесса состояние калькулятора: что сейчас показано на дисплее.
+ *
+ * Пишет один поток (на Android главный) через publish(); читать можно из любого потока без
+ * блокировок: get() возвращает неизменяемый Snapshot из volatile-ссылки. Строки снимка создаются
+ * только при изменении, слушатели вызываются в потоке писателя уже после замены снимка.
+ */
+public final class CalculatorStateStore {
+    public static final int SOURCE_NONE = 0;
+    public static final int SOURCE_ACTIVITY = 1;
+    public static final int SOURCE_NATIVE_VIEW = 2;
+
+    private static final String[] SOURCE_NAMES = {"none", "activity", "nativeView"};
+
+    public interface Listener {
+        void onStateChanged(Snapshot snapshot);
+    }
+
+    public static final class Snapshot {
+        public final long version;
+        public final int source;
+        // Значение движка без оформления и оформленный текст дисплея
+        public final String value;
+        public final String display;
+        public final int operator;
+        public final boolean resultDisplayed;
+
+        Snapshot(long version, int source, String value, String display, int operator, boolean resultDisplayed) {
+            this.version = version;
+            this.source = source;
+            this.value = value;
+            this.display = display;
+            this.operator = operator;
+            this.resultDisplayed = resultDisplayed;
+        }
+    }
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot current = new Snapshot(0, SOURCE_NONE, "0", "0", Operators.NONE, false);
+
+    public static String sourceName(int source) {
+        return SOURCE_NAMES[source];
+    }
+
+    public Snapshot get() {
+        return current;
+    }
+
+    /**
+     * Возвращает false, если состояние не изменилось; тогда ничего не выделяется.
+     */
+    public boolean publish(int source, char[] value, int valueLength, char[] display, int displayLength,
+                           int operator, boolean resultDisplayed) {
+        Snapshot previous = current;
+        if (previous.source == source && previous.operator == operator
+                && previous.resultDisplayed == resultDisplayed
+                && sameChars(previous.value, value, valueLength)
+                && sameChars(previous.display, display, displayLength)) {
+            return false;
+        }
+        Snapshot next = new Snapshot(previous.version + 1, source, new String(value, 0, valueLength),
+            new String(display, 0, displayLength), operator, resultDisplayed);
+        current = next;
+        for (Listener listener : listeners) {
+            listener.onStateChanged(next);
+        }
+        return true;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private static boolean sameChars(String text, char[] chars, int length) {
+        if (text.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,144 @@
+package com.calculator.engine;
+
+import com.calculator.engine.number.BigDecimalArithmetic;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CalculatorEngineTest {
+    private final CalculatorEngine engine = new CalculatorEngine();
+    private int lastStatus = CalculatorEngine.STATUS_OK;
+
+    // Нажатия как с клавиатуры; вычисления выполняются локально сразу, как при выключенном API
+    private String type(String keys) {
+        for (int i = 0; i < keys.length(); i++) {
+            if (engine.press(key(keys.charAt(i))) == CalculatorEngine.ACTION_EVALUATE) {
+                lastStatus = engine.evaluateLocally();
+            }
+        }
+        return engine.getCurrentValue();
+    }
+
+    private static int key(char c) {
+        switch (c) {
+            case '+': return Keys.ADD;
+            case '-': return Keys.SUBTRACT;
+            case '*': return Keys.MULTIPLY;
+            case '/': return Keys.DIVIDE;
+            case '=': return Keys.EQUALS;
+            case '.': return Keys.DECIMAL;
+            case 'C': return Keys.CLEAR;
+            case 'n': return Keys.TOGGLE_SIGN;
+            case '<': return Keys.BACKSPACE;
+            default: return c - '0';
+        }
+    }
+
+    @Test
+    public void chainedOperatorsAccumulate() {
+        assertEquals("10", type("1+2+3+4="));
+        assertEquals(3, engine.getChain().size());
+    }
+
+    @Test
+    public void chainIsEvaluatedLeftToRight() {
+        assertEquals("20", type("2+3*4="));
+    }
+
+    @Test
+    public void divisionByZeroRecoversOnNextOperator() {
+        type("5/0+");
+        assertEquals(CalculatorEngine.STATUS_DIVISION_BY_ZERO, lastStatus);
+        assertEquals("1", type("1="));
+        assertEquals(CalculatorEngine.STATUS_OK, lastStatus);
+    }
+
+    @Test
+    public void doubleResultIsShortestRoundTrip() {
+        assertEquals("0.30000000000000004", type("0.1+0.2="));
+    }
+
+    @Test
+    public void exactBackendKeepsDecimalOperands() {
+        type("0.1+0.2");
+        engine.press(Keys.EQUALS);
+        assertEquals(CalculatorEngine.STATUS_OK, engine.evaluateLocally(new BigDecimalArithmetic()));
+        assertEquals("0.3", engine.getCurrentValue());
+    }
+
+    @Test
+    public void secondDecimalPointIsIgnored() {
+        assertEquals("1.25", type("1..2.5"));
+    }
+
+    @Test
+    public void leadingZeroIsReplaced() {
+        assertEquals("7", type("007"));
+    }
+
+    @Test
+    public void toggleSignAndBackspace() {
+        assertEquals("-12", type("123<n"));
+        assertEquals("12", type("n"));
+        assertEquals("0", type("<<"));
+        assertEquals("0", type("n"));
+    }
+
+    @Test
+    public void clearResetsChain() {
+        type("9*9=");
+        assertEquals("0", type("C"));
+        assertEquals(0, engine.getChain().size());
+        assertEquals("3", type("1+2="));
+    }
+
+    @Test
+    public void equalsWithoutOperatorDoesNothing() {
+        assertEquals(CalculatorEngine.ACTION_NONE, engine.press(Keys.EQUALS));
+    }
+
+    @Test
+    public void digitAfterResultStartsNewNumber() {
+        type("2*3=");
+        assertTrue(engine.isResultDisplayed());
+        assertEquals("4", type("4"));
+        assertFalse(engine.isResultDisplayed());
+    }
+
+    @Test
+    public void remoteResultIsAppliedOnlyWhilePending() {
+        type("6*7");
+        assertEquals(CalculatorEngine.ACTION_EVALUATE, engine.press(Keys.EQUALS));
+        int id = engine.getEvaluationId();
+        assertTrue(engine.completeEvaluation(id, 42));
+        assertEquals("42", engine.getCurrentValue());
+        // Повторный ответ на то же вычисление уже не применяется
+        assertFalse(engine.completeEvaluation(id, 43));
+    }
+
+    @Test
+    public void inputDuringEvaluationDropsLateResult() {
+        type("6*7");
+        engine.press(Keys.EQUALS);
+        int id = engine.getEvaluationId();
+        // Ввод продолжает второй операнд
+        type("5");
+        assertFalse(engine.completeEvaluation(id, 42));
+        assertEquals("75", engine.getCurrentValue());
+    }
+
+    @Test
+    public void reconcileReplacesDisplayedResultUntilInput() {
+        type("1+1=");
+        int id = engine.getEvaluationId();
+        assertTrue(engine.reconcileResult(id, 3));
+        assertEquals("3", engine.getCurrentValue());
+        assertEquals(3, engine.getChain().getResult(0), 0);
+
+        type("+");
+        assertFalse(engine.reconcileResult(id, 4));
+    }
+}
@@ -0,0 +1,108 @@
+package com.calculator.engine.event;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventQueueTest {
+    private static final int RESULT = 1;
+    private static final int ERROR = 2;
+    private static final long FRAME = TimeUnit.MILLISECONDS.toNanos(16);
+
+    private final EventQueue<String> queue = new EventQueue<>(4);
+
+    private static void assertEvents(EventQueue<String> queue, String... expected) {
+        assertEquals(expected.length, queue.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], queue.get(i));
+        }
+    }
+
+    @Test
+    public void supersedesPendingEventOfSameKind() {
+        queue.offer(RESULT, true, "r1");
+        queue.offer(ERROR, true, "e1");
+        queue.offer(RESULT, true, "r2");
+        assertEvents(queue, "e1", "r2");
+        assertEquals(RESULT, queue.getKind(1));
+        assertEquals(1, queue.getDropped());
+    }
+
+    @Test
+    public void onlySupersedableEventsAreReplaced() {
+        queue.offer(RESULT, false, "final");
+        queue.offer(RESULT, true, "r1");
+        queue.offer(RESULT, false, "final2");
+        queue.offer(RESULT, true, "r2");
+        assertEvents(queue, "final", "final2", "r2");
+        assertEquals(1, queue.getDropped());
+    }
+
+    @Test
+    public void keepAllPolicyKeepsEveryEvent() {
+        queue.setPolicy(EventQueue.POLICY_KEEP_ALL);
+        queue.offer(RESULT, true, "r1");
+        queue.offer(RESULT, true, "r2");
+        assertEvents(queue, "r1", "r2");
+        assertEquals(0, queue.getDropped());
+    }
+
+    @Test
+    public void overflowDropsOldest() {
+        queue.setPolicy(EventQueue.POLICY_KEEP_ALL);
+        for (int i = 1; i <= 6; i++) {
+            queue.offer(RESULT, false, "r" + i);
+        }
+        assertEvents(queue, "r3", "r4", "r5", "r6");
+        assertEquals(2, queue.getDropped());
+    }
+
+    @Test
+    public void flushClearsEventsAndDroppedCount() {
+        for (int i = 0; i < 5; i++) {
+            queue.offer(ERROR, false, "e" + i);
+        }
+        queue.flushed(0);
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.getDropped());
+        queue.offer(ERROR, false, "next");
+        assertEvents(queue, "next");
+    }
+
+    @Test
+    public void delayNanosLimitsFlushRate() {
+        queue.setMinIntervalNanos(FRAME);
+        // До первого сброса ждать нечего
+        assertEquals(0, queue.delayNanos(5));
+
+        long start = 1_000_000;
+        queue.flushed(start);
+        assertEquals(FRAME, queue.delayNanos(start));
+        assertEquals(FRAME - 10, queue.delayNanos(start + 10));
+        assertEquals(0, queue.delayNanos(start + FRAME));
+        assertEquals(0, queue.delayNanos(start + 2 * FRAME));
+
+        // clear() не сбрасывает отсчет
+        queue.clear();
+        assertEquals(FRAME, queue.delayNanos(start));
+
+        queue.setMinIntervalNanos(0);
+        assertEquals(0, queue.delayNanos(start));
+    }
+
+    @Test
+    public void policyNames() {
+        assertEquals("keepAll", EventQueue.policyName(EventQueue.POLICY_KEEP_ALL));
+        assertEquals(EventQueue.POLICY_KEEP_ALL, EventQueue.policyForName("keepAll"));
+        assertEquals(EventQueue.POLICY_DROP_SUPERSEDED, EventQueue.policyForName("dropSuperseded"));
+        assertEquals(-1, EventQueue.policyForName("latest"));
+        assertEquals(EventQueue.POLICY_DROP_SUPERSEDED, queue.getPolicy());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePositive() {
+        new EventQueue<String>(0);
+    }
+}
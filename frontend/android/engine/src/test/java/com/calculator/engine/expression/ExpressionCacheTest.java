@@ -0,0 +1,99 @@
+package com.calculator.engine.expression;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ExpressionCacheTest {
+    private final ExpressionCache cache = new ExpressionCache(3);
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        int a = cache.compile("1+1");
+        int b = cache.compile("2+2");
+        int c = cache.compile("3+3");
+        // Доступ по handle и по тексту переносит запись в конец LRU порядка
+        cache.get(a);
+        cache.compile("2+2");
+
+        int d = cache.compile("4+4");
+        assertNull(cache.peek(c));
+        assertNotNull(cache.peek(a));
+        assertNotNull(cache.peek(b));
+        assertNotNull(cache.peek(d));
+
+        cache.compile("5+5");
+        assertNull(cache.peek(a));
+        assertEquals(3, cache.size());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    public void peekDoesNotTouchOrder() {
+        int a = cache.compile("1+1");
+        cache.compile("2+2");
+        cache.compile("3+3");
+        assertNotNull(cache.peek(a));
+        cache.compile("4+4");
+        assertNull(cache.peek(a));
+    }
+
+    @Test
+    public void evictedHandleIsNotReused() {
+        int a = cache.compile("x+1");
+        cache.compile("x+2");
+        cache.compile("x+3");
+        cache.compile("x+4");
+        assertNull(cache.get(a));
+        int again = cache.compile("x+1");
+        assertNotEquals(a, again);
+    }
+
+    @Test
+    public void normalizedTextSharesEntry() {
+        int handle = cache.compile("2 × x − 1");
+        assertEquals(handle, cache.compile("2*x-1"));
+        assertEquals(handle, cache.compile("  2 *  x - 1 "));
+        assertSame(cache.get(handle), cache.getOrCompile("2*x-1"));
+        assertEquals("2*x-1", cache.get(handle).getSource());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void spaceBetweenOperandsIsKept() {
+        assertEquals("2 3", ExpressionCache.normalize(" 2   3 "));
+        assertEquals("x y+1", ExpressionCache.normalize("x y + 1"));
+        try {
+            cache.compile("2 3");
+            fail();
+        } catch (ExpressionException expected) {
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    public void statistics() {
+        int handle = cache.compile("1+2");
+        cache.compile("1 + 2");
+        cache.get(handle);
+        cache.get(handle + 100);
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        cache.resetStats();
+        assertEquals(0, cache.getHits());
+        cache.clear();
+        assertNull(cache.peek(handle));
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePositive() {
+        new ExpressionCache(0);
+    }
+}
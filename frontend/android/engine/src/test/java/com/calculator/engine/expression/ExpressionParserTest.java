@@ -0,0 +1,150 @@
+package com.calculator.engine.expression;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ExpressionParserTest {
+    private static double eval(String source) {
+        return ExpressionParser.compile(source).evaluate();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static void assertRejected(String source, int position) {
+        try {
+            ExpressionParser.compile(source);
+            fail("Compiled " + source);
+        } catch (ExpressionException e) {
+            assertEquals(source, position, e.getPosition());
+        }
+    }
+
+    @Test
+    public void precedence() {
+        assertEquals(14, eval("2+3*4"), 0);
+        assertEquals(20, eval("(2+3)*4"), 0);
+        assertEquals(3, eval("10-4-3"), 0);
+        assertEquals(2, eval("100/10/5"), 0);
+        assertEquals(6, eval("7%4*2"), 0);
+        assertEquals(11, eval("2*3+10/2"), 0);
+        assertEquals(8, eval("2 × 3 + 4 ÷ 2"), 0);
+    }
+
+    @Test
+    public void powerIsRightAssociativeAndBindsTighterThanMinus() {
+        assertEquals(512, eval("2^3^2"), 0);
+        assertEquals(-4, eval("-2^2"), 0);
+        assertEquals(4, eval("(-2)^2"), 0);
+        assertEquals(0.5, eval("2^-1"), 0);
+        assertEquals(-8, eval("-2*2^2"), 0);
+    }
+
+    @Test
+    public void unaryChains() {
+        assertEquals(2, eval("--2"), 0);
+        assertEquals(2, eval("-+-+2"), 0);
+        assertEquals(-2, eval("+-+2"), 0);
+        assertEquals(5, eval("3--2"), 0);
+        assertEquals(5, eval("3-+-2"), 0);
+        assertEquals(1, eval("3+-2"), 0);
+        assertEquals(-6, eval("2*-3"), 0);
+    }
+
+    @Test
+    public void deepUnaryPlusDoesNotRecurse() {
+        // Регрессия: 200000 унарных плюсов раньше переполняли стек
+        String pluses = repeat('+', 200_000);
+        assertEquals(1, eval(pluses + "1"), 0);
+        assertEquals(3, eval("1" + pluses + "2"), 0);
+        assertEquals(-1, eval(pluses + "-" + pluses + "1"), 0);
+    }
+
+    @Test
+    public void deepNestingIsRejected() {
+        assertRejected(repeat('-', 200) + "1", 128);
+        assertRejected(repeat('(', 200) + "1" + repeat(')', 200), 128);
+        try {
+            eval(repeat('-', 200_000) + "1");
+            fail();
+        } catch (ExpressionException expected) {
+            // не StackOverflowError
+        }
+    }
+
+    @Test
+    public void functionsAndConstants() {
+        assertEquals(7, eval("sqrt(16) + max(2, 3)"), 0);
+        assertEquals(Math.PI, eval("pi"), 0);
+        assertEquals(Math.PI * 2, eval("2*π"), 1e-15);
+        assertEquals(1, eval("ln(e)"), 0);
+        assertEquals(8, eval("pow(2, 3)"), 0);
+        assertEquals(-3, eval("floor(-2.5)"), 0);
+    }
+
+    @Test
+    public void variables() {
+        CompiledExpression expression = ExpressionParser.compile("x*y + x");
+        assertEquals(2, expression.getVariableCount());
+        assertEquals("x", expression.getVariableName(0));
+        assertEquals(1, expression.getVariableSlot("y"));
+        assertEquals(-1, expression.getVariableSlot("z"));
+        assertEquals(8, expression.evaluate(new double[] {2, 3}), 0);
+
+        double[] stack = expression.newStack();
+        assertEquals(0, expression.evaluate(new double[] {0, 5}, stack), 0);
+        assertEquals(-2, expression.evaluate(new double[] {-1, 1}, stack), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingVariable() {
+        ExpressionParser.compile("a + b").evaluate(new double[] {1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stackTooSmall() {
+        CompiledExpression expression = ExpressionParser.compile("x + y * z");
+        expression.evaluate(new double[] {1, 2, 3}, new double[expression.getMaxStackDepth() - 1]);
+    }
+
+    @Test
+    public void constantsAreFolded() {
+        assertEquals(1, ExpressionParser.compile("2*3 + 4 - sqrt(9)").getInstructionCount());
+        assertEquals(3, ExpressionParser.compile("x*(2+3)").getInstructionCount());
+        assertEquals(3, ExpressionParser.compile("x + y * z").getMaxStackDepth());
+        assertEquals(2, ExpressionParser.compile("x * y + z").getMaxStackDepth());
+    }
+
+    @Test
+    public void divisionByZeroFailsAtEvaluation() {
+        String[] sources = {"1/0", "5 % 0", "x / (y - y)"};
+        for (String source : sources) {
+            CompiledExpression expression = ExpressionParser.compile(source);
+            try {
+                expression.evaluate(new double[] {1, 2});
+                fail(source);
+            } catch (ArithmeticException expected) {
+                assertEquals("Division by zero", expected.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void syntaxErrors() {
+        assertRejected("", 0);
+        assertRejected("  ", 0);
+        assertRejected("2 +", 3);
+        assertRejected("(2", 2);
+        assertRejected("2 3", 2);
+        assertRejected("foo(1)", 0);
+        assertRejected("min(1)", 5);
+        assertRejected("1 + )", 4);
+    }
+}
@@ -0,0 +1,86 @@
+package com.calculator.engine.expression;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TokenizerTest {
+    private static int[] types(String source) {
+        Tokenizer tokenizer = new Tokenizer(source);
+        int[] types = new int[source.length() + 1];
+        int count = 0;
+        do {
+            tokenizer.next();
+            types[count++] = tokenizer.type;
+        } while (tokenizer.type != Tokenizer.END);
+        int[] result = new int[count];
+        System.arraycopy(types, 0, result, 0, count);
+        return result;
+    }
+
+    private static void assertTypes(String source, int... expected) {
+        int[] actual = types(source);
+        assertEquals(source, expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(source + " #" + i, expected[i], actual[i]);
+        }
+    }
+
+    @Test
+    public void asciiAndDisplayOperators() {
+        assertTypes("2*x - 1/(y)%3^2,",
+            Tokenizer.NUMBER, Tokenizer.STAR, Tokenizer.IDENTIFIER, Tokenizer.MINUS, Tokenizer.NUMBER,
+            Tokenizer.SLASH, Tokenizer.LEFT_PAREN, Tokenizer.IDENTIFIER, Tokenizer.RIGHT_PAREN, Tokenizer.PERCENT,
+            Tokenizer.NUMBER, Tokenizer.CARET, Tokenizer.NUMBER, Tokenizer.COMMA, Tokenizer.END);
+        assertTypes("2 × x − 1 ÷ y",
+            Tokenizer.NUMBER, Tokenizer.STAR, Tokenizer.IDENTIFIER, Tokenizer.MINUS, Tokenizer.NUMBER,
+            Tokenizer.SLASH, Tokenizer.IDENTIFIER, Tokenizer.END);
+        assertTypes("   ", Tokenizer.END);
+    }
+
+    @Test
+    public void numbers() {
+        Tokenizer tokenizer = new Tokenizer(".5 3. 1.5e3 2E-2 7e+1");
+        double[] expected = {0.5, 3, 1500, 0.02, 70};
+        for (double value : expected) {
+            tokenizer.next();
+            assertEquals(Tokenizer.NUMBER, tokenizer.type);
+            assertEquals(value, tokenizer.number, 0);
+        }
+        tokenizer.next();
+        assertEquals(Tokenizer.END, tokenizer.type);
+    }
+
+    @Test
+    public void exponentNeedsDigits() {
+        // "2e" - это 2 и константа e, а не незаконченная экспонента
+        assertTypes("2e", Tokenizer.NUMBER, Tokenizer.IDENTIFIER, Tokenizer.END);
+        assertTypes("2e+x", Tokenizer.NUMBER, Tokenizer.IDENTIFIER, Tokenizer.PLUS, Tokenizer.IDENTIFIER, Tokenizer.END);
+    }
+
+    @Test
+    public void identifiers() {
+        Tokenizer tokenizer = new Tokenizer("rate_2 π _x");
+        String[] expected = {"rate_2", "π", "_x"};
+        for (String name : expected) {
+            tokenizer.next();
+            assertEquals(Tokenizer.IDENTIFIER, tokenizer.type);
+            assertEquals(name, tokenizer.identifier);
+        }
+    }
+
+    @Test
+    public void errorsCarryPosition() {
+        String[] sources = {"1 + #", "..5", "2 + ."};
+        int[] positions = {4, 0, 4};
+        for (int i = 0; i < sources.length; i++) {
+            try {
+                types(sources[i]);
+                fail(sources[i]);
+            } catch (ExpressionException e) {
+                assertEquals(sources[i], positions[i], e.getPosition());
+            }
+        }
+    }
+}
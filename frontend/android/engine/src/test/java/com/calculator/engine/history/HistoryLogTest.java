@@ -0,0 +1,128 @@
+package com.calculator.engine.history;
+
+import com.calculator.engine.Operators;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class HistoryLogTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private HistoryLog log;
+    private final HistoryPage page = new HistoryPage();
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.getRoot(), "history.log");
+        log = HistoryLog.open(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        log.close();
+    }
+
+    @Test
+    public void readsNewestFirstWithPaging() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, log.append(1000 + i, i, Operators.ADD, 1, i + 1));
+        }
+
+        assertEquals(2, log.readNewest(0, 2, page));
+        assertEquals(4, page.getId(0));
+        assertEquals(1004, page.getTimestamp(0));
+        assertEquals(5, page.getResult(0), 0);
+        assertEquals(3, page.getId(1));
+
+        assertEquals(2, log.readNewest(3, 10, page));
+        assertEquals(1, page.getId(0));
+        assertEquals(0, page.getId(1));
+        assertEquals(Operators.ADD, page.getOperator(1));
+        assertEquals(0, page.getFirstOperand(1), 0);
+        assertEquals(1, page.getSecondOperand(1), 0);
+
+        assertEquals(0, log.readNewest(5, 10, page));
+    }
+
+    @Test
+    public void growsPastInitialCapacityAndReloadsAll() throws IOException {
+        int records = 3000;
+        for (int i = 0; i < records; i++) {
+            log.append(i, i, Operators.MULTIPLY, 2, i * 2);
+        }
+        log.close();
+
+        log = HistoryLog.open(file);
+        assertEquals(records, log.size());
+        assertEquals(1, log.readNewest(0, 1, page));
+        assertEquals(records - 1, page.getId(0));
+        assertEquals((records - 1) * 2, page.getResult(0), 0);
+        assertEquals(1, log.readNewest(records - 1, 1, page));
+        assertEquals(0, page.getId(0));
+
+        assertEquals(records, log.append(0, 1, Operators.ADD, 1, 2));
+        assertEquals(records + 1, log.size());
+    }
+
+    @Test
+    public void countBeyondFileIsClampedOnLoad() throws IOException {
+        log.append(0, 1, Operators.ADD, 1, 2);
+        log.close();
+        // Поврежденный заголовок: счетчик больше, чем записей помещается в файл
+        writeHeaderLong(file, 8, Long.MAX_VALUE);
+
+        log = HistoryLog.open(file);
+        int capacity = (int) ((file.length() - MappedLog.HEADER_SIZE) / 40);
+        assertEquals(capacity, log.size());
+        assertEquals(capacity, log.append(0, 2, Operators.ADD, 2, 4));
+    }
+
+    @Test
+    public void negativeCountIsClampedToEmpty() throws IOException {
+        log.append(0, 1, Operators.ADD, 1, 2);
+        log.close();
+        writeHeaderLong(file, 8, -1);
+
+        log = HistoryLog.open(file);
+        assertEquals(0, log.size());
+    }
+
+    @Test
+    public void rejectsForeignFile() throws IOException {
+        log.close();
+        writeHeaderLong(file, 0, 0);
+        try {
+            log = HistoryLog.open(file);
+            fail("Foreign file must not be opened as history");
+        } catch (IOException expected) {
+            log = HistoryLog.open(new File(folder.getRoot(), "other.log"));
+        }
+    }
+
+    @Test
+    public void clearEmptiesLog() throws IOException {
+        log.append(0, 1, Operators.ADD, 1, 2);
+        log.clear();
+        assertEquals(0, log.size());
+        assertEquals(0, log.append(0, 3, Operators.ADD, 3, 6));
+    }
+
+    static void writeHeaderLong(File file, int offset, long value) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(offset);
+            raf.writeLong(value);
+        }
+    }
+}
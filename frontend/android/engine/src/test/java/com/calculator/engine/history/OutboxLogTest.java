@@ -0,0 +1,128 @@
+package com.calculator.engine.history;
+
+import com.calculator.engine.Operators;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OutboxLogTest {
+    // Смещения заголовка OutboxLog
+    private static final int OFFSET_COUNT = 8;
+    private static final int OFFSET_HEAD = 16;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private OutboxLog log;
+    private final HistoryPage page = new HistoryPage();
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.getRoot(), "outbox.log");
+        log = OutboxLog.open(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        log.close();
+    }
+
+    @Test
+    public void readsPendingOldestFirst() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, log.append(1000 + i, i, Operators.SUBTRACT, 1, i - 1));
+        }
+        assertEquals(5, log.pendingCount());
+
+        assertEquals(3, log.readPending(3, page));
+        assertEquals(0, page.getId(0));
+        assertEquals(2, page.getId(2));
+        assertEquals(1002, page.getTimestamp(2));
+        assertEquals(Operators.SUBTRACT, page.getOperator(2));
+        assertEquals(1, page.getResult(2), 0);
+    }
+
+    @Test
+    public void acknowledgeAdvancesHead() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            log.append(0, i, Operators.ADD, 0, i);
+        }
+        log.acknowledge(2);
+
+        assertEquals(3, log.pendingCount());
+        assertEquals(5, log.size());
+        assertEquals(3, log.readPending(10, page));
+        assertEquals(2, page.getId(0));
+    }
+
+    @Test
+    public void acknowledgingEverythingResetsFileButKeepsSequence() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            log.append(0, i, Operators.ADD, 0, i);
+        }
+        // Подтверждение больше очереди ограничивается ее размером
+        log.acknowledge(10);
+
+        assertEquals(0, log.pendingCount());
+        assertEquals(0, log.size());
+        assertEquals(3, log.append(0, 7, Operators.ADD, 0, 7));
+        assertEquals(1, log.readPending(10, page));
+        assertEquals(3, page.getId(0));
+    }
+
+    @Test
+    public void headAndSequenceSurviveReopen() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            log.append(0, i, Operators.ADD, 0, i);
+        }
+        log.acknowledge(1);
+        String clientId = log.clientId(1);
+        log.close();
+
+        log = OutboxLog.open(file);
+        assertEquals(3, log.pendingCount());
+        assertEquals(clientId, log.clientId(1));
+        assertEquals(4, log.append(0, 4, Operators.ADD, 0, 4));
+    }
+
+    @Test
+    public void headBeyondCountIsClampedOnLoad() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            log.append(0, i, Operators.ADD, 0, i);
+        }
+        log.close();
+        // Падение между сбросом счетчика и записью head в acknowledge()
+        HistoryLogTest.writeHeaderLong(file, OFFSET_COUNT, 0);
+        HistoryLogTest.writeHeaderLong(file, OFFSET_HEAD, 3);
+
+        log = OutboxLog.open(file);
+        assertEquals(0, log.pendingCount());
+        assertEquals(3, log.append(0, 9, Operators.ADD, 0, 9));
+        assertEquals(1, log.pendingCount());
+    }
+
+    @Test
+    public void clientIdsAreUniquePerInstallation() throws IOException {
+        String id = log.clientId(0);
+        assertTrue(id.endsWith("-0"));
+        assertEquals(32 + 2, id.length());
+
+        OutboxLog other = OutboxLog.open(new File(folder.getRoot(), "other.log"));
+        try {
+            assertNotEquals(id, other.clientId(0));
+        } finally {
+            other.close();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.calculator.engine.json;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonReaderTest {
+    private static final JsonReader.Names NAMES = JsonReader.Names.of("text", "number", "list");
+
+    private static JsonReader reader(String json) {
+        return reader(json, 512);
+    }
+
+    private static JsonReader reader(String json, int bufferSize) {
+        return new JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), bufferSize);
+    }
+
+    private static double number(String literal) throws IOException {
+        JsonReader reader = reader("[" + literal + "]");
+        reader.beginArray();
+        double value = reader.nextDouble();
+        reader.endArray();
+        return value;
+    }
+
+    private static void assertMalformed(String json) {
+        try {
+            JsonReader reader = reader(json);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                reader.skipValue();
+            }
+            reader.endObject();
+            fail("Accepted " + json);
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("at offset"));
+        }
+    }
+
+    @Test
+    public void selectsKnownNamesAndSkipsOthers() throws IOException {
+        JsonReader reader = reader("{ \"extra\": {\"x\": [1, {\"y\": null}]}, \"number\": 7,\n\"text\": \"ok\" }");
+        reader.beginObject();
+        assertEquals(-1, reader.selectName(NAMES));
+        reader.skipValue();
+        assertEquals(1, reader.selectName(NAMES));
+        assertEquals(7, reader.nextDouble(), 0);
+        assertEquals(0, reader.selectName(NAMES));
+        assertEquals("ok", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endObject();
+    }
+
+    @Test
+    public void escapedStrings() throws IOException {
+        JsonReader reader = reader("[\"a\\\"b\\\\c\\/d\", \"\\n\\r\\t\\b\\f\", \"\\u0041\\u00e9\\u0416\", \"\\ud83d\\ude00\"]");
+        reader.beginArray();
+        assertEquals("a\"b\\c/d", reader.nextString());
+        assertEquals("\n\r\t\b\f", reader.nextString());
+        assertEquals("Aé\u0416", reader.nextString());
+        assertEquals("\ud83d\ude00", reader.nextString());
+        reader.endArray();
+    }
+
+    @Test
+    public void utf8AcrossBufferBoundaries() throws IOException {
+        // Буфер в 3 байта режет двух- и четырехбайтовые символы между чтениями
+        String text = "Ошибка: деление на 0 \ud83d\ude00";
+        JsonReader reader = reader("{\"text\":\"" + text + "\"}", 3);
+        reader.beginObject();
+        assertEquals(0, reader.selectName(NAMES));
+        assertEquals(text, reader.nextString());
+        reader.endObject();
+    }
+
+    @Test
+    public void numbersMatchParseDouble() throws IOException {
+        String[] literals = {
+            "0", "-0", "42", "-17", "0.1", "-0.30000000000000004", "1e2", "1E+3", "-2.5E-3", "6.02214076e23",
+            "12345678901234567890", "4.9E-324", "1.7976931348623157E308", "123.456e-10"
+        };
+        for (String literal : literals) {
+            assertEquals(literal, Double.parseDouble(literal), number(literal), 0);
+        }
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(number("-0.0")));
+    }
+
+    @Test
+    public void numericStringsAreNumbers() throws IOException {
+        // Laravel отдает decimal-колонки строками
+        assertEquals(3.5, number("\"3.5\""), 0);
+        JsonReader reader = reader("[12.50]");
+        reader.beginArray();
+        assertEquals("12.50", reader.nextString());
+        reader.endArray();
+    }
+
+    @Test
+    public void literalsAndNull() throws IOException {
+        JsonReader reader = reader("[true,false,null,\"x\"]");
+        reader.beginArray();
+        assertTrue(reader.nextBoolean());
+        assertFalse(reader.nextBoolean());
+        assertTrue(reader.peekNull());
+        reader.nextNull();
+        assertFalse(reader.peekNull());
+        assertEquals("x", reader.nextString());
+        reader.endArray();
+    }
+
+    @Test
+    public void malformedInput() {
+        assertMalformed("{\"a\":}");
+        assertMalformed("{\"a\" 1}");
+        assertMalformed("{\"a\":tru}");
+        assertMalformed("{\"a\":1");
+        assertMalformed("{\"a\":\"open");
+        assertMalformed("{\"a\":\"\\u00zz\"}");
+        assertMalformed("{\"a\":1 \"b\":2}");
+        assertMalformed("<html>Bad Gateway</html>");
+        try {
+            number("1.2.3");
+            fail();
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().startsWith("Malformed number"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void nameOutsideObject() throws IOException {
+        JsonReader reader = reader("[\"a\"]");
+        reader.beginArray();
+        reader.nextName();
+    }
+
+    @Test
+    public void drainConsumesTail() throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream("{}\n   trailing bytes".getBytes(StandardCharsets.UTF_8));
+        JsonReader reader = new JsonReader(in, 4);
+        reader.beginObject();
+        reader.endObject();
+        reader.drain();
+        assertEquals(0, in.available());
+    }
+}
@@ -0,0 +1,95 @@
+package com.calculator.engine.json;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class JsonWriterTest {
+    private final JsonWriter writer = new JsonWriter(4);
+
+    private String text() {
+        return new String(writer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void nestedDocument() {
+        writer.beginObject()
+            .name("a").value(1)
+            .name("b").beginArray().value(1.5).value(-2L).value(true).nullValue().endArray()
+            .name("c").beginObject().endObject()
+            .name("d").value((String) null)
+            .endObject();
+        assertEquals("{\"a\":1,\"b\":[1.5,-2,true,null],\"c\":{},\"d\":null}", text());
+        assertEquals(writer.size(), writer.toByteArray().length);
+    }
+
+    @Test
+    public void numbers() {
+        writer.beginArray()
+            .value(0.1).value(-0.0).value(1e14).value(1e15).value(-2.5e-3).value(1.5e-7)
+            .value(Long.MIN_VALUE).value(Long.MAX_VALUE)
+            .endArray();
+        assertEquals("[0.1,0,100000000000000,1.0E15,-0.0025,1.5E-7,-9223372036854775808,9223372036854775807]",
+            text());
+    }
+
+    @Test
+    public void nonFiniteNumbersAreRejected() {
+        writer.beginArray().value(1);
+        double[] values = {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (double value : values) {
+            try {
+                writer.value(value);
+                fail("Wrote " + value);
+            } catch (IllegalArgumentException expected) {
+                // Документ не испорчен: отказ до записи запятой
+            }
+        }
+        writer.value(2).endArray();
+        assertEquals("[1,2]", text());
+    }
+
+    @Test
+    public void stringsRoundTripThroughReader() throws IOException {
+        String[] values = {"", "a\"b\\c", "line\nbreak\r\ttab", "\b\f\u0001\u001f", "Привет", "€ \ud83d\ude00", "/"};
+        writer.beginArray();
+        for (String value : values) {
+            writer.value(value);
+        }
+        writer.endArray();
+        JsonReader reader = new JsonReader(new ByteArrayInputStream(writer.toByteArray()), 5);
+        reader.beginArray();
+        for (String value : values) {
+            assertEquals(value, reader.nextString());
+        }
+        reader.endArray();
+    }
+
+    @Test
+    public void controlCharactersAreEscaped() {
+        writer.value("\u0001\n\"");
+        assertEquals("\"\\u0001\\n\\\"\"", text());
+    }
+
+    @Test
+    public void resetReusesBuffer() {
+        writer.beginObject().name("a").value(1).endObject();
+        writer.reset().beginArray().value("x").endArray();
+        assertEquals("[\"x\"]", text());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void nameOutsideObject() {
+        writer.name("a");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closeAfterNameWithoutValue() {
+        writer.beginObject().name("a").endObject();
+    }
+}
@@ -0,0 +1,145 @@
+package com.calculator.engine.number;
+
+import com.calculator.engine.Operators;
+
+import org.junit.Test;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import static org.junit.Assert.assertEquals;
+
+public class DecimalArithmeticTest {
+    private final Arithmetic.Result result = new Arithmetic.Result();
+
+    private String apply(Arithmetic arithmetic, String a, int operator, String b) {
+        assertEquals(a + " " + Operators.apiSymbol(operator) + " " + b, Arithmetic.STATUS_OK,
+            status(arithmetic, a, operator, b));
+        return result.text.toString();
+    }
+
+    private int status(Arithmetic arithmetic, String a, int operator, String b) {
+        char[] x = a.toCharArray();
+        char[] y = b.toCharArray();
+        return arithmetic.apply(operator, x, x.length, y, y.length, result);
+    }
+
+    private static FixedDecimalArithmetic fixed(int scale) {
+        return new FixedDecimalArithmetic(scale, RoundingMode.HALF_EVEN);
+    }
+
+    @Test
+    public void decimalSumIsExact() {
+        assertEquals("0.3", apply(new FixedDecimalArithmetic(), "0.1", Operators.ADD, "0.2"));
+        assertEquals(0.3, result.value, 0);
+        assertEquals("0.3", apply(new BigDecimalArithmetic(), "0.1", Operators.ADD, "0.2"));
+        assertEquals(0.3, result.value, 0);
+    }
+
+    @Test
+    public void doubleOperandsUseShortestDecimal() {
+        FixedDecimalArithmetic arithmetic = new FixedDecimalArithmetic();
+        assertEquals(Arithmetic.STATUS_OK, arithmetic.apply(Operators.ADD, 0.1, 0.2, result));
+        assertEquals("0.3", result.text.toString());
+        assertEquals(Arithmetic.STATUS_INVALID_NUMBER, arithmetic.apply(Operators.ADD, Double.NaN, 1, result));
+        assertEquals(Arithmetic.STATUS_INVALID_NUMBER,
+            arithmetic.apply(Operators.MULTIPLY, Double.POSITIVE_INFINITY, 1, result));
+    }
+
+    @Test
+    public void twoThirdsAtSeveralScales() {
+        assertEquals("1", apply(fixed(0), "2", Operators.DIVIDE, "3"));
+        assertEquals("0.67", apply(fixed(2), "2", Operators.DIVIDE, "3"));
+        assertEquals("0.6666666667", apply(new FixedDecimalArithmetic(), "2", Operators.DIVIDE, "3"));
+        assertEquals("0.666666666666666667", apply(fixed(FixedDecimalArithmetic.MAX_SCALE), "2", Operators.DIVIDE, "3"));
+        assertEquals("-0.67", apply(fixed(2), "-2", Operators.DIVIDE, "3"));
+        assertEquals("0.67", apply(fixed(2), "-2", Operators.DIVIDE, "-3"));
+    }
+
+    @Test
+    public void twoThirdsAtSeveralPrecisions() {
+        assertEquals("0.6666667", apply(new BigDecimalArithmetic(MathContext.DECIMAL32), "2", Operators.DIVIDE, "3"));
+        assertEquals("0.6666666666666667",
+            apply(new BigDecimalArithmetic(MathContext.DECIMAL64), "2", Operators.DIVIDE, "3"));
+        assertEquals("0.6666666666666666666666666666666667",
+            apply(new BigDecimalArithmetic(), "2", Operators.DIVIDE, "3"));
+        // Конечная дробь идет быстрым путем и не теряет цифр
+        assertEquals("0.25", apply(new BigDecimalArithmetic(MathContext.DECIMAL32), "1", Operators.DIVIDE, "4"));
+        assertEquals("4", apply(new BigDecimalArithmetic(), "10", Operators.DIVIDE, "2.5"));
+    }
+
+    @Test
+    public void halfEvenRoundsTiesToEvenDigit() {
+        assertEquals("0", apply(fixed(0), "1", Operators.DIVIDE, "2"));
+        assertEquals("2", apply(fixed(0), "3", Operators.DIVIDE, "2"));
+        assertEquals("2", apply(fixed(0), "5", Operators.DIVIDE, "2"));
+        assertEquals("-2", apply(fixed(0), "-5", Operators.DIVIDE, "2"));
+        assertEquals("2.2", apply(fixed(1), "1.5", Operators.MULTIPLY, "1.5"));
+        assertEquals("3", apply(new FixedDecimalArithmetic(0, RoundingMode.HALF_UP), "5", Operators.DIVIDE, "2"));
+        assertEquals("2.3", apply(new FixedDecimalArithmetic(1, RoundingMode.HALF_UP), "1.5", Operators.MULTIPLY, "1.5"));
+    }
+
+    @Test
+    public void scalesAreAligned() {
+        assertEquals("1.005", apply(new FixedDecimalArithmetic(), "1", Operators.ADD, "0.005"));
+        assertEquals("-0.005", apply(new FixedDecimalArithmetic(), "0.995", Operators.SUBTRACT, "1"));
+        assertEquals("100", apply(new BigDecimalArithmetic(), "99.99", Operators.ADD, "0.01"));
+    }
+
+    @Test
+    public void longOverflowFallsBackToBigDecimal() {
+        FixedDecimalArithmetic arithmetic = new FixedDecimalArithmetic();
+        assertEquals("999999999999999998000000000000000001",
+            apply(arithmetic, "999999999999999999", Operators.MULTIPLY, "999999999999999999"));
+        // Выравнивание масштаба переполняет long
+        assertEquals("123456789012345678.05", apply(arithmetic, "123456789012345678", Operators.ADD, "0.05"));
+        // -2^63 не проходит проверку диапазона быстрого пути
+        assertEquals("-9223372036854775808", apply(arithmetic, "-4294967296", Operators.MULTIPLY, "2147483648"));
+        assertEquals("-9223372036854775808",
+            apply(new BigDecimalArithmetic(), "-4294967296", Operators.MULTIPLY, "2147483648"));
+    }
+
+    @Test
+    public void operandsLongerThanEighteenDigits() {
+        assertEquals("1234567890123456790",
+            apply(new FixedDecimalArithmetic(), "1234567890123456789", Operators.ADD, "1"));
+        assertEquals("0.0000000000000000001",
+            apply(new BigDecimalArithmetic(), "0.0000000000000000002", Operators.DIVIDE, "2"));
+        // 19 знаков после точки округляются до масштаба
+        assertEquals("0.123456789", apply(fixed(10), "0.1234567890123456789", Operators.MULTIPLY, "1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scaleAboveLongDigitsIsRejected() {
+        fixed(FixedDecimalArithmetic.MAX_SCALE + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unlimitedPrecisionIsRejected() {
+        new BigDecimalArithmetic(MathContext.UNLIMITED);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unnecessaryRoundingIsRejected() {
+        new FixedDecimalArithmetic(2, RoundingMode.UNNECESSARY);
+    }
+
+    @Test
+    public void divisionByZero() {
+        assertEquals(Arithmetic.STATUS_DIVISION_BY_ZERO, status(new FixedDecimalArithmetic(), "1", Operators.DIVIDE, "0"));
+        assertEquals(Arithmetic.STATUS_DIVISION_BY_ZERO, status(new BigDecimalArithmetic(), "1", Operators.DIVIDE, "0.00"));
+        assertEquals(Arithmetic.STATUS_DIVISION_BY_ZERO,
+            status(new BigDecimalArithmetic(), "1", Operators.DIVIDE, "0.00000000000000000000"));
+    }
+
+    @Test
+    public void signAndDotOnlyOperands() {
+        FixedDecimalArithmetic arithmetic = new FixedDecimalArithmetic();
+        assertEquals("5", apply(arithmetic, "-0", Operators.ADD, "5"));
+        assertEquals("0", apply(arithmetic, "-0", Operators.MULTIPLY, "5"));
+        assertEquals("5", apply(arithmetic, "5.", Operators.ADD, "0"));
+        assertEquals(Arithmetic.STATUS_INVALID_NUMBER, status(arithmetic, "-", Operators.ADD, "5"));
+        assertEquals(Arithmetic.STATUS_INVALID_NUMBER, status(arithmetic, ".", Operators.ADD, "5"));
+        assertEquals(Arithmetic.STATUS_INVALID_NUMBER, status(arithmetic, "Infinity", Operators.ADD, "5"));
+    }
+}
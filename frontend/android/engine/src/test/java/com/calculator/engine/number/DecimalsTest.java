@@ -0,0 +1,53 @@
+package com.calculator.engine.number;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class DecimalsTest {
+    private static double parse(String text) {
+        return Decimals.parseDouble(text.toCharArray(), text.length());
+    }
+
+    @Test
+    public void matchesParseDouble() {
+        String[] inputs = {
+            "0", "0.1", "0.2", "0.30000000000000004", "-12.5", "123456789012345", "1234567890123456789",
+            "0.0000000000000000000000001", "9007199254740993", "1.", "-0.5", "1E10", "2.5e-3"
+        };
+        for (String input : inputs) {
+            assertEquals(input, Double.parseDouble(input), parse(input), 0);
+        }
+    }
+
+    @Test
+    public void randomDisplayTextRoundTrips() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+            String text = Double.toString(value);
+            assertEquals(text, value, parse(text), 0);
+        }
+    }
+
+    @Test
+    public void signAndDotOnly() {
+        // Дисплей таких строк не показывает, но разбор не должен падать
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(parse("-")));
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(parse("-0")));
+        assertEquals(Double.doubleToLongBits(0.0), Double.doubleToLongBits(parse(".")));
+    }
+
+    @Test
+    public void toDoubleRoundsToNearest() {
+        assertEquals(0.3, Decimals.toDouble(3, 1), 0);
+        assertEquals(-0.005, Decimals.toDouble(-5, 3), 0);
+        assertEquals(1.2345678901234568E17, Decimals.toDouble(123456789012345678L, 0), 0);
+        assertEquals(1e-30, Decimals.toDouble(1, 30), 0);
+    }
+}
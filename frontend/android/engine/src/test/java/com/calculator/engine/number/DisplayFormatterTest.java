@@ -0,0 +1,98 @@
+package com.calculator.engine.number;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DisplayFormatterTest {
+    private static final int WIDTH = 16;
+    private final DisplayFormatter formatter = new DisplayFormatter('0', '-', '.', ',', WIDTH);
+    // Арабско-индийские цифры и разделители
+    private final DisplayFormatter arabic = new DisplayFormatter('٠', '-', '٫', '٬', WIDTH);
+
+    private static String result(DisplayFormatter formatter, String value) {
+        formatter.format(value.toCharArray(), value.length(), true);
+        return new String(formatter.getChars(), 0, formatter.length());
+    }
+
+    private static String input(DisplayFormatter formatter, String value) {
+        formatter.format(value.toCharArray(), value.length(), false);
+        return new String(formatter.getChars(), 0, formatter.length());
+    }
+
+    @Test
+    public void longFractionIsRoundedToWidth() {
+        assertEquals("0.3", result(formatter, "0.30000000000000004"));
+        formatter.format(0.1 + 0.2);
+        assertEquals("0.3", new String(formatter.getChars(), 0, formatter.length()));
+        assertEquals("1,234,567.123457", result(formatter, "1234567.123456789"));
+    }
+
+    @Test
+    public void roundingCarriesIntoIntegerPart() {
+        assertEquals("10", result(formatter, "9.9999999999999999"));
+        assertEquals("1,000", result(formatter, "999.99999999999999"));
+        assertEquals("-10", result(formatter, "-9.9999999999999999"));
+    }
+
+    @Test
+    public void shortValuesAreUnchanged() {
+        assertEquals("1,234,567.5", result(formatter, "1234567.5"));
+        assertEquals("-0.001", result(formatter, "-0.001"));
+        assertEquals("0", result(formatter, "0"));
+    }
+
+    @Test
+    public void scientificInput() {
+        assertEquals("1.5E-7", result(formatter, "1.5E-7"));
+        formatter.format(1.5e-7);
+        assertEquals("1.5E-7", new String(formatter.getChars(), 0, formatter.length()));
+        assertEquals("1.7976931349E308", result(formatter, "1.7976931348623157E308"));
+    }
+
+    @Test
+    public void resultOverSixteenCharsSwitchesToScientific() {
+        String text = result(formatter, "1234567890123456.7");
+        assertEquals("1.23456789012E15", text);
+        assertEquals(WIDTH, text.length());
+        assertTrue(result(formatter, "123456789012345678").length() <= WIDTH);
+        assertEquals("0.000000000001", result(formatter, "0.000000000001"));
+        // Значащие цифры не поместились бы после нулей
+        assertEquals("1.2E-15", result(formatter, "0.0000000000000012"));
+    }
+
+    @Test
+    public void exponentRollsOverOnCarry() {
+        assertEquals("1E100", result(formatter, "9.9999999999999999E99"));
+        assertEquals("1E-99", result(formatter, "9.9999999999999999E-100"));
+    }
+
+    @Test
+    public void negativeExponentKeepsWidth() {
+        String text = result(formatter, "-1.2345678901234567E-100");
+        assertEquals("-1.23456789E-100", text);
+        assertEquals(WIDTH, text.length());
+    }
+
+    @Test
+    public void typedDigitsAreNeverAbbreviated() {
+        assertEquals("12,345,678,901,234,567,890", input(formatter, "12345678901234567890"));
+        assertEquals("0.", input(formatter, "0."));
+        assertEquals("-", input(formatter, "-"));
+    }
+
+    @Test
+    public void localeDigitsAndSeparators() {
+        assertEquals("-١٬٢٣٤٬٥٦٧٫٥",
+            result(arabic, "-1234567.5"));
+        assertEquals("١٫٥E-٧", result(arabic, "1.5E-7"));
+        assertEquals("١٠", result(arabic, "9.9999999999999999"));
+    }
+
+    @Test
+    public void nonNumericTextIsShownAsIs() {
+        assertEquals("NaN", result(formatter, "NaN"));
+        assertEquals("-Infinity", result(formatter, "-Infinity"));
+    }
+}
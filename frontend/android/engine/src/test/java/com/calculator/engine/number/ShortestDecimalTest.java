@@ -0,0 +1,80 @@
+package com.calculator.engine.number;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShortestDecimalTest {
+    private final ShortestDecimal shortest = new ShortestDecimal();
+    private final char[] buffer = new char[ShortestDecimal.MAX_LENGTH];
+
+    private String write(double value) {
+        return new String(buffer, 0, shortest.set(value).write(buffer, 0));
+    }
+
+    @Test
+    public void knownValues() {
+        assertEquals("0.1", write(0.1));
+        assertEquals("0.30000000000000004", write(0.1 + 0.2));
+        assertEquals("1234.5", write(1234.5));
+        assertEquals("-0.001", write(-0.001));
+        assertEquals("1.5E-7", write(1.5e-7));
+        assertEquals("1.23456785E7", write(12345678.5));
+        assertEquals("5E-324", write(Double.MIN_VALUE));
+        assertEquals("1.7976931348623157E308", write(Double.MAX_VALUE));
+        assertEquals("1E22", write(1e22));
+    }
+
+    @Test
+    public void integersInLongRangeArePlain() {
+        assertEquals("10000000", write(1e7));
+        assertEquals("4611686018427387904", write(0x1p62));
+        assertEquals("-42", write(-42));
+    }
+
+    @Test
+    public void specialValues() {
+        assertEquals("0", write(0.0));
+        assertEquals("0", write(-0.0));
+        assertEquals("NaN", write(Double.NaN));
+        assertEquals("Infinity", write(Double.POSITIVE_INFINITY));
+        assertEquals("-Infinity", write(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void randomDoublesRoundTripWithNoMoreDigitsThanDoubleToString() {
+        Random random = new Random(20181);
+        for (int i = 0; i < 200_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+            String text = write(value);
+            assertEquals(text, value, Double.parseDouble(text), 0);
+            if (Math.abs(value) < 0x1p63 && value == Math.rint(value)) {
+                // Целые в диапазоне long печатаются всеми цифрами
+                assertEquals(new BigDecimal(value).toPlainString(), text);
+                continue;
+            }
+            int expected = new BigDecimal(Double.toString(value)).stripTrailingZeros().precision();
+            assertTrue(text + " vs " + value, shortest.getDigitCount() <= expected);
+        }
+    }
+
+    @Test
+    public void randomDecimalsKeepTheirDigits() {
+        // Короткие десятичные, как на дисплее калькулятора, печатаются теми же цифрами
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long unscaled = random.nextLong() % 1_000_000_000_000L;
+            int scale = random.nextInt(12);
+            BigDecimal decimal = BigDecimal.valueOf(unscaled, scale);
+            double value = decimal.doubleValue();
+            assertEquals(0, new BigDecimal(write(value)).compareTo(decimal));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.calculator.engine.remote;
+
+import com.calculator.engine.Operators;
+import com.calculator.engine.history.HistoryPage;
+import com.calculator.engine.history.OutboxLog;
+import com.calculator.engine.json.JsonWriter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CalculatorCodecTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final JsonWriter writer = new JsonWriter();
+    private final CalculatorCodec.Response response = new CalculatorCodec.Response();
+
+    private String written() {
+        return new String(writer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private CalculatorCodec.Response read(String json) throws IOException {
+        return CalculatorCodec.readResponse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), response);
+    }
+
+    @Test
+    public void calculateRequest() {
+        CalculatorCodec.writeCalculateRequest(writer, 2, 0.5, Operators.apiSymbol(Operators.DIVIDE));
+        assertEquals("{\"a\":2,\"b\":0.5,\"operation\":\"/\"}", written());
+    }
+
+    @Test
+    public void batchRequest() {
+        CalculatorCodec.writeBatchRequest(writer, new double[] {1, -3, 9}, new double[] {2, 4.5, 9},
+            new String[] {"+", "*", "-"}, 2);
+        assertEquals("{\"operations\":[{\"a\":1,\"b\":2,\"operation\":\"+\"},{\"a\":-3,\"b\":4.5,\"operation\":\"*\"}]}",
+            written());
+    }
+
+    @Test
+    public void syncRequestSkipsNonFiniteRecords() throws IOException {
+        OutboxLog outbox = OutboxLog.open(new File(folder.getRoot(), "outbox.log"));
+        try {
+            outbox.append(1000, 1, Operators.ADD, 2, 3);
+            outbox.append(2000, 1, Operators.DIVIDE, 0, Double.POSITIVE_INFINITY);
+            outbox.append(3000, 0.1, Operators.MULTIPLY, 3, 0.30000000000000004);
+            HistoryPage page = new HistoryPage();
+            assertEquals(3, outbox.readPending(10, page));
+
+            assertEquals(2, CalculatorCodec.writeSyncRequest(writer, page, outbox));
+            assertEquals("{\"calculations\":["
+                + "{\"client_id\":\"" + outbox.clientId(0) + "\",\"a\":1,\"b\":2,\"operation\":\"+\",\"result\":3,"
+                + "\"timestamp\":1000},"
+                + "{\"client_id\":\"" + outbox.clientId(2) + "\",\"a\":0.1,\"b\":3,\"operation\":\"*\","
+                + "\"result\":0.30000000000000004,\"timestamp\":3000}]}", written());
+        } finally {
+            outbox.close();
+        }
+    }
+
+    @Test
+    public void isFinite() {
+        assertTrue(CalculatorCodec.isFinite(1, -2, 0));
+        assertFalse(CalculatorCodec.isFinite(Double.NaN, 1, 1));
+        assertFalse(CalculatorCodec.isFinite(1, Double.NEGATIVE_INFINITY, 1));
+        assertFalse(CalculatorCodec.isFinite(1, 0, Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void calculateResponse() throws IOException {
+        read("{\"success\":true,\"result\":4.5,"
+            + "\"calculation\":{\"a\":\"9\",\"b\":2,\"operation\":\"/\",\"result\":4.5}}");
+        assertTrue(response.success);
+        assertEquals(4.5, response.result, 0);
+        assertNull(response.error);
+    }
+
+    @Test
+    public void errorResponse() throws IOException {
+        read("{\"success\":false,\"error\":\"Invalid input parameters\","
+            + "\"details\":{\"b\":[\"The b field is required.\"]}}");
+        assertFalse(response.success);
+        assertEquals("Invalid input parameters", response.error);
+        assertTrue(Double.isNaN(response.result));
+
+        read("{\"success\":false,\"error\":\"Division by zero \\u2014 \\\"b\\\" is 0\"}");
+        assertEquals("Division by zero — \"b\" is 0", response.error);
+    }
+
+    @Test
+    public void batchResponse() throws IOException {
+        read("{\"success\":true,\"results\":[3,null,\"0.5\",-1e-3,2,4,6,8,10],"
+            + "\"errors\":[{\"index\":1,\"error\":\"Division by zero\"}]}");
+        assertTrue(response.success);
+        assertEquals(9, response.resultCount);
+        assertEquals(3, response.results[0], 0);
+        assertTrue(Double.isNaN(response.results[1]));
+        assertEquals(0.5, response.results[2], 0);
+        assertEquals(-0.001, response.results[3], 0);
+        assertEquals(10, response.results[8], 0);
+
+        // Повторное использование ответа сбрасывает прежние результаты
+        read("{\"success\":true,\"results\":[],\"errors\":[]}");
+        assertEquals(0, response.resultCount);
+        assertTrue(Double.isNaN(response.result));
+    }
+
+    @Test
+    public void syncAndHealthResponses() throws IOException {
+        read("{\"success\":true,\"accepted\":2,\"duplicates\":1}");
+        assertTrue(response.success);
+        assertEquals(0, response.resultCount);
+
+        read("{\"status\":\"ok\",\"success\":true,\"timestamp\":\"2024-01-01T00:00:00.000000Z\"}");
+        assertTrue(response.success);
+    }
+
+    @Test
+    public void nullResultIsNaN() throws IOException {
+        read("{\"success\":true,\"result\":null}");
+        assertTrue(Double.isNaN(response.result));
+    }
+
+    @Test(expected = IOException.class)
+    public void htmlErrorPageIsMalformed() throws IOException {
+        read("<!DOCTYPE html><html>Server Error</html>");
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedResponseIsMalformed() throws IOException {
+        read("{\"success\":true,\"result\":");
+    }
+}
@@ -0,0 +1,436 @@
+package com.calculator.engine.remote;
+
+import com.calculator.engine.Operators;
+import com.calculator.engine.history.OutboxLog;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RemoteCalculator против заглушки HTTP-сервера на localhost.
+ */
+public class RemoteCalculatorTest {
+    private static final String OK = "{\"success\":true,\"result\":3}";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String baseUrl;
+    private RemoteCalculator remote;
+
+    private volatile int calculateStatus = 200;
+    private volatile int healthStatus = 200;
+    private final AtomicInteger calculateRequests = new AtomicInteger();
+    // Первый запрос /calculate ждет, пока тест не откроет защелку; null - отвечать сразу
+    private volatile CountDownLatch firstRequestGate;
+    private final List<Long> healthRequests = new ArrayList<>();
+    private final BlockingQueue<Integer> states = new LinkedBlockingQueue<>();
+    // Тела запросов /history/sync после распаковки
+    private final BlockingQueue<String> syncBodies = new LinkedBlockingQueue<>();
+    // Коды ответов /history/sync по порядку, дальше - 200
+    private final BlockingQueue<Integer> syncStatuses = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/calculate", exchange -> {
+            drain(exchange.getRequestBody());
+            CountDownLatch gate = firstRequestGate;
+            if (calculateRequests.getAndIncrement() == 0 && gate != null) {
+                await(gate);
+            }
+            int status = calculateStatus;
+            respond(exchange, status, status == 200 ? OK : "{\"success\":false,\"error\":\"down\"}");
+        });
+        server.createContext("/health", exchange -> {
+            synchronized (healthRequests) {
+                healthRequests.add(System.nanoTime());
+                healthRequests.notifyAll();
+            }
+            int status = healthStatus;
+            respond(exchange, status, status == 200 ? "{\"success\":true}" : "{\"success\":false}");
+        });
+        server.createContext("/history/sync", exchange -> {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream in = new GZIPInputStream(exchange.getRequestBody())) {
+                byte[] buffer = new byte[256];
+                for (int n; (n = in.read(buffer)) != -1; ) {
+                    body.write(buffer, 0, n);
+                }
+            }
+            syncBodies.add(new String(body.toByteArray(), StandardCharsets.UTF_8));
+            Integer next = syncStatuses.poll();
+            int status = next != null ? next : 200;
+            respond(exchange, status, status == 200 ? "{\"success\":true}" : "{\"success\":false}");
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        if (remote != null) {
+            remote.shutdown();
+        }
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private RemoteCalculator newRemote(CircuitBreaker breaker) {
+        // Колбэки прямо в потоке запроса: главного потока в тесте нет
+        remote = new RemoteCalculator(baseUrl, Runnable::run, 2000, 2000, 2, breaker);
+        remote.addStateListener(states::add);
+        return remote;
+    }
+
+    @Test
+    public void breakerOpensThenClosesAfterHealthyProbeAndTrialRequest() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(2, 50, 400);
+        RemoteCalculator.Session session = newRemote(breaker).newSession();
+        calculateStatus = 503;
+        healthStatus = 503;
+
+        assertEquals("API Error: 503", call(session).failure);
+        assertEquals(CircuitBreaker.STATE_CLOSED, breaker.getState());
+        assertEquals("API Error: 503", call(session).failure);
+        assertEquals(CircuitBreaker.STATE_OPEN, nextState());
+        assertFalse(remote.isAvailable());
+
+        // Пока открыт, запросы не доходят до сервера
+        int sent = calculateRequests.get();
+        assertTrue(call(session).failure.contains("circuit open"));
+        assertEquals(sent, calculateRequests.get());
+
+        healthStatus = 200;
+        assertEquals(CircuitBreaker.STATE_HALF_OPEN, nextState());
+        assertTrue(remote.isAvailable());
+
+        calculateStatus = 200;
+        assertEquals(3, call(session).result, 0);
+        assertEquals(CircuitBreaker.STATE_CLOSED, nextState());
+        assertEquals(0, breaker.getConsecutiveFailures());
+        assertEquals(50, breaker.getProbeDelayMs());
+    }
+
+    @Test
+    public void failedTrialRequestReopensBreaker() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 20, 400);
+        RemoteCalculator.Session session = newRemote(breaker).newSession();
+        calculateStatus = 503;
+
+        call(session);
+        assertEquals(CircuitBreaker.STATE_OPEN, nextState());
+        assertEquals(CircuitBreaker.STATE_HALF_OPEN, nextState());
+
+        assertEquals("API Error: 503", call(session).failure);
+        assertEquals(CircuitBreaker.STATE_OPEN, nextState());
+    }
+
+    @Test
+    public void probeDelayDoublesUpToLimitWhileUnhealthy() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 20, 80);
+        RemoteCalculator.Session session = newRemote(breaker).newSession();
+        calculateStatus = 503;
+        healthStatus = 503;
+
+        call(session);
+        assertEquals(CircuitBreaker.STATE_OPEN, nextState());
+        long[] at = awaitHealthRequests(4);
+
+        // Задержки 20, 40, 80, 80 мс: каждая следующая проверка не раньше удвоенной задержки
+        assertTrue(at[1] - at[0] >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertTrue(at[2] - at[1] >= TimeUnit.MILLISECONDS.toNanos(80));
+        assertTrue(at[3] - at[2] >= TimeUnit.MILLISECONDS.toNanos(80));
+        assertEquals(80, breaker.getProbeDelayMs());
+        assertEquals(CircuitBreaker.STATE_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void newCallCancelsSupersededCall() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker();
+        RemoteCalculator.Session session = newRemote(breaker).newSession();
+        CountDownLatch gate = new CountDownLatch(1);
+        firstRequestGate = gate;
+
+        Outcome superseded = new Outcome();
+        RemoteCalculator.Call first = session.calculate(1, 2, "+", superseded);
+        awaitRequests(1);
+        Outcome latest = call(session);
+        gate.countDown();
+
+        assertEquals(3, latest.result, 0);
+        assertTrue(first.isCancelled());
+        // Отмененный запрос не вызывает колбэк и не считается ошибкой сервера
+        assertNull(superseded.poll(200));
+        assertEquals(0, breaker.getConsecutiveFailures());
+        assertEquals(CircuitBreaker.STATE_CLOSED, breaker.getState());
+        assertTrue(states.isEmpty());
+    }
+
+    @Test
+    public void sessionCancelDropsPendingCall() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker();
+        RemoteCalculator.Session session = newRemote(breaker).newSession();
+        CountDownLatch gate = new CountDownLatch(1);
+        firstRequestGate = gate;
+
+        Outcome cancelled = new Outcome();
+        session.calculate(1, 2, "+", cancelled);
+        awaitRequests(1);
+        session.cancel();
+        gate.countDown();
+
+        assertNull(cancelled.poll(200));
+        assertEquals(CircuitBreaker.STATE_CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void nonFiniteOperandFailsWithoutTrippingBreaker() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 20, 400);
+        RemoteCalculator.Session session = newRemote(breaker).newSession();
+
+        Outcome outcome = new Outcome();
+        session.calculate(Double.POSITIVE_INFINITY, 2, "*", outcome);
+        assertNotNull(outcome.poll(5000));
+        assertEquals("Error: Invalid number", outcome.failure);
+
+        BatchOutcome batch = new BatchOutcome();
+        session.calculateBatch(new double[] {1, Double.NaN}, new double[] {2, 3}, new String[] {"+", "+"}, 2, batch);
+        assertNotNull(batch.poll(5000));
+        assertEquals("Error: Invalid number", batch.failure);
+
+        assertEquals(0, calculateRequests.get());
+        assertEquals(0, breaker.getConsecutiveFailures());
+        assertEquals(CircuitBreaker.STATE_CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void syncSkipsNonFiniteEntriesWithoutBlockingQueue() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker();
+        OutboxLog outbox = OutboxLog.open(new File(folder.getRoot(), "outbox.log"));
+        try {
+            outbox.append(0, 1e308, Operators.MULTIPLY, 10, Double.POSITIVE_INFINITY);
+            outbox.append(0, 1, Operators.ADD, 2, 3);
+            newRemote(breaker).attachOutbox(outbox);
+
+            String body = syncBodies.poll(10, TimeUnit.SECONDS);
+            assertNotNull("no sync request", body);
+            assertFalse(body, body.contains("Infinity"));
+            assertTrue(body, body.contains(outbox.clientId(1)));
+            assertFalse(body, body.contains(outbox.clientId(0)));
+            awaitPending(outbox, 0);
+            assertEquals(CircuitBreaker.STATE_CLOSED, breaker.getState());
+            assertTrue(breaker.isAvailable());
+        } finally {
+            outbox.close();
+        }
+    }
+
+    @Test
+    public void syncKeepsEntriesOnTransientClientErrors() throws Exception {
+        OutboxLog outbox = OutboxLog.open(new File(folder.getRoot(), "outbox.log"));
+        try {
+            outbox.append(0, 1, Operators.ADD, 2, 3);
+            syncStatuses.add(404);
+            newRemote(new CircuitBreaker()).attachOutbox(outbox);
+
+            assertNotNull("no sync request", syncBodies.poll(10, TimeUnit.SECONDS));
+            // Ответ обработан, а запись осталась ждать повтора после паузы
+            assertNull(syncBodies.poll(500, TimeUnit.MILLISECONDS));
+            assertEquals(1, outbox.pendingCount());
+        } finally {
+            outbox.close();
+        }
+    }
+
+    @Test
+    public void syncDropsBatchRejectedAsInvalid() throws Exception {
+        OutboxLog outbox = OutboxLog.open(new File(folder.getRoot(), "outbox.log"));
+        try {
+            outbox.append(0, 1, Operators.ADD, 2, 3);
+            syncStatuses.add(422);
+            newRemote(new CircuitBreaker()).attachOutbox(outbox);
+
+            assertNotNull("no sync request", syncBodies.poll(10, TimeUnit.SECONDS));
+            awaitPending(outbox, 0);
+        } finally {
+            outbox.close();
+        }
+    }
+
+    @Test
+    public void syncSplitsBatchTooLarge() throws Exception {
+        OutboxLog outbox = OutboxLog.open(new File(folder.getRoot(), "outbox.log"));
+        try {
+            for (int i = 0; i < 4; i++) {
+                outbox.append(0, i, Operators.ADD, 1, i + 1);
+            }
+            syncStatuses.add(413);
+            newRemote(new CircuitBreaker()).attachOutbox(outbox);
+
+            String rejected = syncBodies.poll(10, TimeUnit.SECONDS);
+            assertNotNull("no sync request", rejected);
+            assertTrue(rejected, rejected.contains(outbox.clientId(3)));
+            // Повтор сразу же двумя пакетами по половине
+            String first = syncBodies.poll(5, TimeUnit.SECONDS);
+            String second = syncBodies.poll(5, TimeUnit.SECONDS);
+            assertNotNull(first);
+            assertNotNull(second);
+            assertTrue(first, first.contains(outbox.clientId(1)) && !first.contains(outbox.clientId(2)));
+            assertTrue(second, second.contains(outbox.clientId(3)) && !second.contains(outbox.clientId(1)));
+            awaitPending(outbox, 0);
+        } finally {
+            outbox.close();
+        }
+    }
+
+    private static void awaitPending(OutboxLog outbox, int pending) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (outbox.pendingCount() != pending) {
+            assertTrue("pending " + outbox.pendingCount(), System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private Outcome call(RemoteCalculator.Session session) throws InterruptedException {
+        Outcome outcome = new Outcome();
+        session.calculate(1, 2, "+", outcome);
+        assertNotNull("no callback", outcome.poll(5000));
+        return outcome;
+    }
+
+    private int nextState() throws InterruptedException {
+        Integer state = states.poll(5, TimeUnit.SECONDS);
+        assertNotNull("no state change", state);
+        return state;
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calculateRequests.get() < count) {
+            assertTrue("request did not arrive", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private long[] awaitHealthRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        synchronized (healthRequests) {
+            while (healthRequests.size() < count) {
+                long left = deadline - System.currentTimeMillis();
+                assertTrue("probe did not arrive", left > 0);
+                healthRequests.wait(left);
+            }
+            long[] at = new long[count];
+            for (int i = 0; i < count; i++) {
+                at[i] = healthRequests.get(i);
+            }
+            return at;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // Клиент уже отменил запрос и закрыл соединение
+            exchange.close();
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[256];
+        while (in.read(buffer) != -1) {
+            // отбрасываем
+        }
+    }
+
+    private static void await(CountDownLatch gate) {
+        try {
+            gate.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Outcome implements RemoteCalculator.Callback {
+        private final BlockingQueue<Boolean> done = new LinkedBlockingQueue<>();
+        volatile double result = Double.NaN;
+        volatile String failure;
+
+        @Override
+        public void onResult(double result) {
+            this.result = result;
+            done.add(true);
+        }
+
+        @Override
+        public void onFailure(String message) {
+            this.failure = message;
+            done.add(false);
+        }
+
+        Boolean poll(long timeoutMs) throws InterruptedException {
+            return done.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static final class BatchOutcome implements RemoteCalculator.BatchCallback {
+        private final BlockingQueue<Boolean> done = new LinkedBlockingQueue<>();
+        volatile String failure;
+
+        @Override
+        public void onResults(double[] results) {
+            done.add(true);
+        }
+
+        @Override
+        public void onFailure(String message) {
+            this.failure = message;
+            done.add(false);
+        }
+
+        Boolean poll(long timeoutMs) throws InterruptedException {
+            return done.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.calculator.engine.startup;
+
+import com.calculator.engine.CalculatorEngine;
+import com.calculator.engine.Keys;
+import com.calculator.engine.json.JsonWriter;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StartupTraceTest {
+    // Как CalculatorStartup.FIRST_DRAW_BUDGET_MS
+    private static final long FIRST_DRAW_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final String[] KEYPAD_LABELS = {
+        "C", "±", "%", "÷", "7", "8", "9", "×", "4", "5", "6", "−", "1", "2", "3", "+", "0", ".", "="
+    };
+
+    @Test
+    public void engineSideOfColdStartFitsFirstDrawBudget() {
+        StartupTrace trace = new StartupTrace();
+        trace.setBudget(StartupTrace.PHASE_FIRST_DRAW, FIRST_DRAW_BUDGET_NANOS);
+
+        // Та часть старта до первого кадра, что не зависит от Android: движок, коды клавиш и первое "="
+        trace.mark(StartupTrace.PHASE_ACTIVITY_CREATE, System.nanoTime());
+        CalculatorEngine engine = new CalculatorEngine();
+        int[] keys = new int[KEYPAD_LABELS.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Keys.forLabel(KEYPAD_LABELS[i]);
+        }
+        trace.mark(StartupTrace.PHASE_LAYOUT_BUILT, System.nanoTime());
+        engine.press(keys[12]);
+        engine.press(keys[15]);
+        engine.press(keys[13]);
+        if (engine.press(keys[18]) == CalculatorEngine.ACTION_EVALUATE) {
+            engine.evaluateLocally();
+        }
+        trace.mark(StartupTrace.PHASE_FIRST_DRAW, System.nanoTime());
+
+        assertEquals("3", engine.getCurrentValue());
+        assertTrue("first draw took " + trace.sinceStartNanos(StartupTrace.PHASE_FIRST_DRAW) / MS + " ms",
+            trace.isWithinBudget());
+    }
+
+    @Test
+    public void overBudgetPhaseIsReported() {
+        StartupTrace trace = new StartupTrace();
+        trace.setBudget(StartupTrace.PHASE_FIRST_DRAW, FIRST_DRAW_BUDGET_NANOS);
+        trace.mark(StartupTrace.PHASE_PROCESS_START, 0);
+        trace.mark(StartupTrace.PHASE_FIRST_DRAW, 1200 * MS);
+
+        assertFalse(trace.isWithinBudget());
+        assertEquals(StartupTrace.PHASE_FIRST_DRAW, trace.firstOverBudget());
+    }
+
+    @Test
+    public void unmarkedBudgetedPhaseIsNotOverBudget() {
+        StartupTrace trace = new StartupTrace();
+        trace.setBudget(StartupTrace.PHASE_FIRST_DRAW, FIRST_DRAW_BUDGET_NANOS);
+        trace.mark(StartupTrace.PHASE_PROCESS_START, 0);
+
+        assertEquals(StartupTrace.NO_PHASE, trace.firstOverBudget());
+    }
+
+    @Test
+    public void firstMarkWins() {
+        StartupTrace trace = new StartupTrace();
+        assertTrue(trace.mark(StartupTrace.PHASE_ACTIVITY_CREATE, 10));
+        // Повторное создание активности не переписывает холодный старт
+        assertFalse(trace.mark(StartupTrace.PHASE_ACTIVITY_CREATE, 99));
+        assertEquals(10, trace.getMark(StartupTrace.PHASE_ACTIVITY_CREATE));
+    }
+
+    @Test
+    public void measuresFromEarliestMarkAndPreviousStep() {
+        StartupTrace trace = new StartupTrace();
+        // Без времени запуска процесса (до Android 7.0) отсчет идет от Application.onCreate
+        trace.mark(StartupTrace.PHASE_APPLICATION_CREATE, 100 * MS);
+        trace.mark(StartupTrace.PHASE_ACTIVITY_CREATE, 250 * MS);
+        trace.mark(StartupTrace.PHASE_FIRST_DRAW, 400 * MS);
+
+        assertEquals(300 * MS, trace.sinceStartNanos(StartupTrace.PHASE_FIRST_DRAW));
+        assertEquals(150 * MS, trace.stepNanos(StartupTrace.PHASE_FIRST_DRAW));
+        assertEquals(0, trace.stepNanos(StartupTrace.PHASE_APPLICATION_CREATE));
+        assertEquals(StartupTrace.NOT_MARKED, trace.sinceStartNanos(StartupTrace.PHASE_REACT_READY));
+    }
+
+    @Test
+    public void reportListsMarkedPhasesWithBudget() {
+        StartupTrace trace = new StartupTrace();
+        trace.setBudget(StartupTrace.PHASE_FIRST_DRAW, FIRST_DRAW_BUDGET_NANOS);
+        trace.mark(StartupTrace.PHASE_PROCESS_START, 0);
+        trace.mark(StartupTrace.PHASE_FIRST_DRAW, 500 * MS);
+
+        JsonWriter writer = new JsonWriter();
+        trace.writeReport(writer);
+        String report = new String(writer.toByteArray(), StandardCharsets.UTF_8);
+
+        assertTrue(report, report.startsWith("{\"phases\":[{\"name\":\"process_start\""));
+        assertTrue(report, report.contains("\"name\":\"first_draw\",\"since_start_ms\":500"));
+        assertTrue(report, report.contains("\"budget_ms\":1000"));
+        assertFalse(report, report.contains("react_ready"));
+        assertTrue(report, report.endsWith("\"within_budget\":true}"));
+    }
+}
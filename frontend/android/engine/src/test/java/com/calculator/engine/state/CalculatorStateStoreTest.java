@@ -0,0 +1,115 @@
+package com.calculator.engine.state;
+
+import com.calculator.engine.Operators;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CalculatorStateStoreTest {
+    private final CalculatorStateStore store = new CalculatorStateStore();
+    private final char[] value = new char[32];
+    private final char[] display = new char[32];
+
+    private boolean publish(int source, String value, String display, int operator, boolean resultDisplayed) {
+        value.getChars(0, value.length(), this.value, 0);
+        display.getChars(0, display.length(), this.display, 0);
+        return store.publish(source, this.value, value.length(), this.display, display.length(),
+            operator, resultDisplayed);
+    }
+
+    @Test
+    public void initialSnapshot() {
+        CalculatorStateStore.Snapshot snapshot = store.get();
+        assertEquals(0, snapshot.version);
+        assertEquals(CalculatorStateStore.SOURCE_NONE, snapshot.source);
+        assertEquals("0", snapshot.value);
+        assertEquals("0", snapshot.display);
+        assertEquals(Operators.NONE, snapshot.operator);
+        assertFalse(snapshot.resultDisplayed);
+    }
+
+    @Test
+    public void versionIncrementsOnEveryChange() {
+        assertTrue(publish(CalculatorStateStore.SOURCE_ACTIVITY, "1234.5", "1,234.5", Operators.NONE, false));
+        assertEquals(1, store.get().version);
+        assertEquals("1234.5", store.get().value);
+        assertEquals("1,234.5", store.get().display);
+
+        assertTrue(publish(CalculatorStateStore.SOURCE_ACTIVITY, "1234.5", "1,234.5", Operators.ADD, false));
+        assertTrue(publish(CalculatorStateStore.SOURCE_ACTIVITY, "1234.5", "1,234.5", Operators.ADD, true));
+        assertTrue(publish(CalculatorStateStore.SOURCE_NATIVE_VIEW, "1234.5", "1,234.5", Operators.ADD, true));
+        // Та же длина, другие символы
+        assertTrue(publish(CalculatorStateStore.SOURCE_NATIVE_VIEW, "1234.6", "1,234.6", Operators.ADD, true));
+        assertEquals(5, store.get().version);
+        assertEquals(CalculatorStateStore.SOURCE_NATIVE_VIEW, store.get().source);
+    }
+
+    @Test
+    public void unchangedStateKeepsSnapshot() {
+        publish(CalculatorStateStore.SOURCE_ACTIVITY, "42", "42", Operators.NONE, true);
+        CalculatorStateStore.Snapshot snapshot = store.get();
+        // Хвост буфера за длиной не сравнивается
+        value[2] = '7';
+        assertFalse(store.publish(CalculatorStateStore.SOURCE_ACTIVITY, value, 2, display, 2, Operators.NONE, true));
+        assertSame(snapshot, store.get());
+        assertEquals(1, snapshot.version);
+    }
+
+    @Test
+    public void unchangedPublishAllocatesNothing() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        publish(CalculatorStateStore.SOURCE_ACTIVITY, "-1234567.89", "-1,234,567.89", Operators.MULTIPLY, false);
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < 10_000; i++) {
+            store.publish(CalculatorStateStore.SOURCE_ACTIVITY, value, 11, display, 13, Operators.MULTIPLY, false);
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            store.publish(CalculatorStateStore.SOURCE_ACTIVITY, value, 11, display, 13, Operators.MULTIPLY, false);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        // Запас на выделения самого измерения; по снимку на вызов было бы больше 10 МБ
+        assertTrue("allocated " + allocated + " bytes", allocated < 4096);
+        assertEquals(1, store.get().version);
+    }
+
+    @Test
+    public void listenersSeeNewSnapshotAfterSwap() {
+        final List<CalculatorStateStore.Snapshot> seen = new ArrayList<>();
+        CalculatorStateStore.Listener listener = new CalculatorStateStore.Listener() {
+            @Override
+            public void onStateChanged(CalculatorStateStore.Snapshot snapshot) {
+                assertSame(snapshot, store.get());
+                seen.add(snapshot);
+            }
+        };
+        store.addListener(listener);
+        publish(CalculatorStateStore.SOURCE_ACTIVITY, "7", "7", Operators.NONE, false);
+        publish(CalculatorStateStore.SOURCE_ACTIVITY, "7", "7", Operators.NONE, false);
+        publish(CalculatorStateStore.SOURCE_ACTIVITY, "8", "8", Operators.NONE, false);
+        assertEquals(2, seen.size());
+        assertEquals("8", seen.get(1).value);
+
+        store.removeListener(listener);
+        publish(CalculatorStateStore.SOURCE_ACTIVITY, "9", "9", Operators.NONE, false);
+        assertEquals(2, seen.size());
+    }
+
+    @Test
+    public void sourceNames() {
+        assertEquals("activity", CalculatorStateStore.sourceName(CalculatorStateStore.SOURCE_ACTIVITY));
+        assertEquals("nativeView", CalculatorStateStore.sourceName(CalculatorStateStore.SOURCE_NATIVE_VIEW));
+    }
+}
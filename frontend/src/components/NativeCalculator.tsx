@@ -1,10 +1,8 @@
-import React, { useRef, useEffect } from 'react';
+import React, { useRef } from 'react';
 import {
   View,
   Text,
   StyleSheet,
-  NativeModules,
-  NativeEventEmitter,
   Alert,
   requireNativeComponent,
 } from 'react-native';
@@ -18,6 +16,17 @@ interface CalculationResult {
   timestamp: string;
 }
 
+// Нативная сторона отправляет события пачкой раз в кадр; промежуточные результаты
+// могут быть вытеснены последним (dropped - сколько таких было)
+type CalculatorEvent =
+  | ({ type: 'result' } & CalculationResult)
+  | { type: 'error'; error: string };
+
+interface CalculatorEventBatch {
+  events: CalculatorEvent[];
+  dropped: number;
+}
+
 interface NativeCalculatorProps {
   style?: any;
   initialValue?: string;
@@ -32,42 +41,6 @@ const NativeCalculatorComponent: React.FC<NativeCalculatorProps> = ({
   onError,
 }) => {
   const nativeCalculatorRef = useRef<any>(null);
-  const eventEmitter = useRef<NativeEventEmitter | null>(null);
-
-  useEffect(() => {
-    // Создаем event emitter для прослушивания событий от нативного компонента
-    eventEmitter.current = new NativeEventEmitter(NativeModules.CalculatorBridge || {});
-
-    // Слушаем события результатов вычислений
-    const calculationSubscription = eventEmitter.current.addListener(
-      'onCalculationResult',
-      (event: CalculationResult) => {
-        console.log('Calculation result received:', event);
-        if (onCalculationResult) {
-          onCalculationResult(event);
-        }
-      }
-    );
-
-    // Слушаем события ошибок
-    const errorSubscription = eventEmitter.current.addListener(
-      'onError',
-      (event: { error: string }) => {
-        console.log('Error received:', event.error);
-        if (onError) {
-          onError(event.error);
-        } else {
-          Alert.alert('Calculator Error', event.error);
-        }
-      }
-    );
-
-    // Очистка подписок при размонтировании
-    return () => {
-      calculationSubscription.remove();
-      errorSubscription.remove();
-    };
-  }, [onCalculationResult, onError]);
 
   // Методы для управления нативным компонентом
   const clearCalculator = () => {
@@ -91,19 +64,26 @@ const NativeCalculatorComponent: React.FC<NativeCalculatorProps> = ({
         ref={nativeCalculatorRef}
         style={styles.calculator}
         initialValue={initialValue}
-        onCalculationResult={(event: any) => {
-          console.log('Direct calculation result:', event.nativeEvent);
-          if (onCalculationResult) {
-            onCalculationResult(event.nativeEvent);
-          }
-        }}
-        onError={(event: any) => {
-          console.log('Direct error:', event.nativeEvent);
-          if (onError) {
-            onError(event.nativeEvent.error);
-          } else {
-            Alert.alert('Calculator Error', event.nativeEvent.error);
+        onCalculationEvents={(event: { nativeEvent: CalculatorEventBatch }) => {
+          const batch = event.nativeEvent;
+          if (batch.dropped > 0) {
+            console.log('Superseded results dropped:', batch.dropped);
           }
+          batch.events.forEach(item => {
+            if (item.type === 'result') {
+              console.log('Direct calculation result:', item);
+              if (onCalculationResult) {
+                onCalculationResult(item);
+              }
+            } else {
+              console.log('Direct error:', item.error);
+              if (onError) {
+                onError(item.error);
+              } else {
+                Alert.alert('Calculator Error', item.error);
+              }
+            }
+          });
         }}
       />
       
@@ -1,12 +1,32 @@
 import axios from 'axios';
+import { NativeEventEmitter, NativeModules } from 'react-native';
 import { CalculationResult, CalculationHistory } from '../types/calculator';
 import { NativeCalculatorBridge } from './NativeCalculatorBridge';
+import NativeCalculatorSync from './NativeCalculatorSync';
 
 // Добавляем логирование
 const log = (message: string, data?: any) => {
   console.log(`[CalculatorService] ${message}`, data || '');
 };
 
+type LatencySummary = {
+  count: number;
+  meanMs: number;
+  p50Ms: number;
+  p90Ms: number;
+  p99Ms: number;
+  maxMs: number;
+};
+
+export type NativeDisplayState = {
+  value: string;
+  display: string;
+  operator: string;
+  resultDisplayed: boolean;
+  source: 'none' | 'activity' | 'nativeView';
+  version: number;
+};
+
 export class CalculatorService {
   private baseURL = 'http://10.0.2.2:8000/api';
   private useNativeModule: boolean = true;
@@ -81,7 +101,30 @@ export class CalculatorService {
     } catch (error) {
       log('getHistory: Error fetching history', error);
       console.warn('Failed to fetch history:', error);
-      return [];
+      // Offline: fall back to the on-device history log
+      const native = await this.getNativeHistory(0, 50);
+      return native.entries;
+    }
+  }
+
+  // Page of the on-device history log, newest first, in the same shape as GET /history items
+  async getNativeHistory(offset: number, limit: number): Promise<{ entries: any[]; total: number }> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.getNativeHistory !== 'function') {
+      return { entries: [], total: 0 };
+    }
+    try {
+      const page = await bridge.getNativeHistory(offset, limit);
+      const entries = page.entries.map((entry: any, index: number) => ({
+        id: `native-${page.total - offset - index}`,
+        calculation: `${entry.a} ${entry.operation} ${entry.b} = ${entry.result}`,
+        result: entry.result,
+        timestamp: new Date(entry.timestamp).toISOString(),
+      }));
+      return { entries, total: page.total };
+    } catch (error) {
+      console.warn('Failed to read native history:', error);
+      return { entries: [], total: 0 };
     }
   }
 
@@ -160,6 +203,17 @@ export class CalculatorService {
       console.warn('Native calculation failed, falling back to local calculation:', error);
     }
 
+    // Нативный парсер выражений: вычисляет выражение целиком без eval на JS потоке
+    const bridge = NativeModules.CalculatorBridge;
+    if (bridge && typeof bridge.evaluateExpression === 'function') {
+      try {
+        const native = await bridge.evaluateExpression(expression);
+        return native.result;
+      } catch (error) {
+        console.warn('Native expression parser failed, falling back to local calculation:', error);
+      }
+    }
+
     // Fallback к локальному вычислению
     return this.evaluateExpressionLocally(expression);
   }
@@ -192,8 +246,33 @@ export class CalculatorService {
 
   // Get current display value from native calculator
   async getNativeDisplayValue(): Promise<string> {
-    // Temporarily disabled to prevent crashes
-    return '0';
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.getNativeDisplayValue !== 'function') {
+      return '0';
+    }
+    const state: NativeDisplayState = await bridge.getNativeDisplayValue();
+    return state.value;
+  }
+
+  // Native display changes pushed from MainActivity and NativeCalculator views instead of
+  // polling; only the latest state per frame is delivered. Returns an unsubscribe function.
+  subscribeToNativeDisplay(listener: (state: NativeDisplayState) => void): () => void {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge) {
+      return () => {};
+    }
+    const emitter = new NativeEventEmitter(bridge);
+    const subscription = emitter.addListener(
+      'calculatorEvents',
+      (batch: { events: Array<{ type: string; payload: any }> }) => {
+        batch.events.forEach(event => {
+          if (event.type === 'onDisplayValueChanged') {
+            listener(event.payload);
+          }
+        });
+      },
+    );
+    return () => subscription.remove();
   }
 
   // Perform calculation using native module
@@ -202,6 +281,162 @@ export class CalculatorService {
     throw new Error('Native module not available');
   }
 
+  // Synchronous native arithmetic, same result shape as the bridge; null if the sync module
+  // is not built in, so callers can fall back to the async path
+  calculateNativeSync(a: number, b: number, operation: string): { result: number; text: string } | null {
+    if (!NativeCalculatorSync) {
+      return null;
+    }
+    const response = NativeCalculatorSync.calculateSync(a, b, operation);
+    if (!response.success) {
+      throw new Error(response.error);
+    }
+    return { result: response.result as number, text: response.text as string };
+  }
+
+  // On-device call overhead of the sync module vs. the async bridge for one operation,
+  // in microseconds per call; the native side of both is the same arithmetic
+  async measureNativeCallOverhead(iterations: number = 1000): Promise<{
+    syncMicros: number;
+    asyncMicros: number;
+  } | null> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!NativeCalculatorSync || !bridge || typeof bridge.performNativeCalculation !== 'function') {
+      return null;
+    }
+    let start = performance.now();
+    for (let i = 0; i < iterations; i++) {
+      NativeCalculatorSync.calculateSync(i, 3, '+');
+    }
+    const syncMicros = ((performance.now() - start) * 1000) / iterations;
+
+    start = performance.now();
+    for (let i = 0; i < iterations; i++) {
+      await bridge.performNativeCalculation(i, 3, '+');
+    }
+    const asyncMicros = ((performance.now() - start) * 1000) / iterations;
+    return { syncMicros, asyncMicros };
+  }
+
+  // Batch calculation: one bridge round-trip for the whole array of operations.
+  // Failed operations come back as null.
+  async performNativeCalculationBatch(
+    operations: Array<[number, number, string]>,
+  ): Promise<Array<number | null>> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.performNativeCalculationBatch !== 'function') {
+      return operations.map(([a, b, operation]) => {
+        try {
+          return this.calculate(a, b, operation);
+        } catch (error) {
+          return null;
+        }
+      });
+    }
+
+    // Packed as [a0, b0, op0, a1, b1, op1, ...] to avoid a map per operation
+    const packed: Array<number | string> = [];
+    for (const [a, b, operation] of operations) {
+      packed.push(a, b, operation);
+    }
+    const response = await bridge.performNativeCalculationBatch(packed);
+    return response.results;
+  }
+
+  // State of the native circuit breaker around the Laravel API:
+  // 'closed' (API in use), 'open' (local only) or 'half_open' (trial request allowed)
+  async getRemoteStatus(): Promise<{ state: string; available: boolean; consecutiveFailures: number }> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.getRemoteStatus !== 'function') {
+      return { state: 'closed', available: true, consecutiveFailures: 0 };
+    }
+    return bridge.getRemoteStatus();
+  }
+
+  // How often the server disagreed with locally shown results and how long it took
+  async getHedgeStats(): Promise<{
+    agreements: number;
+    disagreements: number;
+    lateResponses: number;
+    failures: number;
+    meanLatencyMs: number;
+    maxLatencyMs: number;
+  } | null> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.getHedgeStats !== 'function') {
+      return null;
+    }
+    return bridge.getHedgeStats();
+  }
+
+  // Numeric backend of the native calculator and performNativeCalculation*:
+  // 'double', 'decimal' (digits after the point) or 'bigdecimal' (significant digits)
+  async setNumericMode(
+    mode: 'double' | 'decimal' | 'bigdecimal',
+    digits: number = 0,
+  ): Promise<{ mode: string; digits: number } | null> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.setNumericMode !== 'function') {
+      return null;
+    }
+    return bridge.setNumericMode(mode, digits);
+  }
+
+  async getNumericMode(): Promise<{ mode: string; digits: number } | null> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.getNumericMode !== 'function') {
+      return null;
+    }
+    return bridge.getNumericMode();
+  }
+
+  // How native calculator events are batched before crossing the bridge:
+  // maxBatchesPerSecond 0 means at most one batch per frame
+  async setEventDispatchPolicy(
+    maxBatchesPerSecond: number,
+    policy: 'dropSuperseded' | 'keepAll' = 'dropSuperseded',
+  ): Promise<{ maxBatchesPerSecond: number; policy: string } | null> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.setEventDispatchPolicy !== 'function') {
+      return null;
+    }
+    return bridge.setEventDispatchPolicy(maxBatchesPerSecond, policy);
+  }
+
+  // Recent native log events, oldest first, for attaching to bug reports
+  async getRecentLogs(): Promise<Array<{
+    time: number;
+    level: 'debug' | 'info' | 'warn' | 'error';
+    tag: string;
+    message: string;
+  }> | null> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.getRecentLogs !== 'function') {
+      return null;
+    }
+    return bridge.getRecentLogs();
+  }
+
+  // Native latency percentiles per path (calculateLocal, calculateRemote, bridgeEvent,
+  // nativeModule) with a per-operation breakdown, plus error and fallback counters
+  async getMetricsSnapshot(): Promise<{
+    timers: Record<string, LatencySummary & { operations: Record<string, LatencySummary> }>;
+    counters: { localErrors: number; remoteFailures: number; localFallbacks: number };
+  } | null> {
+    const bridge = NativeModules.CalculatorBridge;
+    if (!bridge || typeof bridge.getMetricsSnapshot !== 'function') {
+      return null;
+    }
+    return bridge.getMetricsSnapshot();
+  }
+
+  resetMetrics(): void {
+    const bridge = NativeModules.CalculatorBridge;
+    if (bridge && typeof bridge.resetMetrics === 'function') {
+      bridge.resetMetrics();
+    }
+  }
+
   // Show toast message using native module
   showNativeToast(message: string): void {
     // Temporarily disabled to prevent crashes
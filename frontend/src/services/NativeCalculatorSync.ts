@@ -0,0 +1,15 @@
+import type { TurboModule } from 'react-native';
+import { TurboModuleRegistry } from 'react-native';
+
+// Synchronous pure-math module; blocks the JS thread only for the arithmetic itself
+export interface Spec extends TurboModule {
+  calculateSync(
+    a: number,
+    b: number,
+    operation: string,
+  ): { success: boolean; result?: number; text?: string; error?: string };
+}
+
+// null when the app is built with SYNC_NATIVE_MODULE=false. Without the new architecture
+// TurboModuleRegistry falls back to the legacy native module of the same name.
+export default TurboModuleRegistry.get<Spec>('CalculatorSync');